@@ -276,9 +276,8 @@ public class PublicTutorUtils {
             }
         }
         SkipList<T> copy = new SkipList<>(list.cmp, list.maxHeight, list.getProbability());
-        copy.head = head;
-        copy.height = list.height;
-        copy.size = list.size;
+        // Publish the levels together with their spans, size and content hash
+        copy.attach(head);
         return copy;
     }
 
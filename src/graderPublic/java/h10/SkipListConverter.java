@@ -104,9 +104,8 @@ public class SkipListConverter implements ArgumentConverter {
         }
 
         SkipList<Integer> list = new SkipList<>(cmp, maxHeight);
-        list.head = head;
-        list.height = levels.size();
-        list.size = levels.size() == 0 ? 0 : levels.get(levels.size() - 1).size();
+        // Publish the levels together with their spans, size and content hash
+        list.attach(head);
         return list;
     }
 
@@ -0,0 +1,176 @@
+package h10;
+
+import org.jetbrains.annotations.Nullable;
+
+import java.io.DataInput;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+/**
+ * A {@link DataInput} reading from a byte buffer at a movable position. The buffer is only read with absolute
+ * accesses, so any number of inputs can read the same buffer concurrently.
+ */
+final class ByteBufferInput implements DataInput {
+
+    /**
+     * The buffer to read from.
+     */
+    private final ByteBuffer buffer;
+
+    /**
+     * The index of the next byte to read.
+     */
+    private int position;
+
+    /**
+     * Constructs and initializes an input reading the specified buffer from index 0.
+     *
+     * @param buffer the buffer to read from
+     */
+    ByteBufferInput(ByteBuffer buffer) {
+        this.buffer = buffer;
+    }
+
+    /**
+     * Moves this input to the specified index of the buffer.
+     *
+     * @param position the index of the next byte to read
+     *
+     * @return this input
+     */
+    ByteBufferInput seek(int position) {
+        this.position = position;
+        return this;
+    }
+
+    /**
+     * Returns the index of the next byte to read.
+     *
+     * @return the index of the next byte to read
+     */
+    int position() {
+        return position;
+    }
+
+    /**
+     * Advances the position by the specified number of bytes.
+     *
+     * @param length the number of bytes to read
+     *
+     * @return the index of the first byte to read
+     *
+     * @throws EOFException if the buffer has fewer remaining bytes
+     */
+    private int advance(int length) throws EOFException {
+        if (length > buffer.limit() - position) {
+            throw new EOFException();
+        }
+        int index = position;
+        position += length;
+        return index;
+    }
+
+    @Override
+    public void readFully(byte[] b) throws IOException {
+        readFully(b, 0, b.length);
+    }
+
+    @Override
+    public void readFully(byte[] b, int off, int len) throws IOException {
+        buffer.get(advance(len), b, off, len);
+    }
+
+    @Override
+    public int skipBytes(int n) {
+        int skipped = Math.max(0, Math.min(n, buffer.limit() - position));
+        position += skipped;
+        return skipped;
+    }
+
+    @Override
+    public boolean readBoolean() throws IOException {
+        return readByte() != 0;
+    }
+
+    @Override
+    public byte readByte() throws IOException {
+        return buffer.get(advance(Byte.BYTES));
+    }
+
+    @Override
+    public int readUnsignedByte() throws IOException {
+        return readByte() & 0xFF;
+    }
+
+    @Override
+    public short readShort() throws IOException {
+        return buffer.getShort(advance(Short.BYTES));
+    }
+
+    @Override
+    public int readUnsignedShort() throws IOException {
+        return readShort() & 0xFFFF;
+    }
+
+    @Override
+    public char readChar() throws IOException {
+        return buffer.getChar(advance(Character.BYTES));
+    }
+
+    @Override
+    public int readInt() throws IOException {
+        return buffer.getInt(advance(Integer.BYTES));
+    }
+
+    @Override
+    public long readLong() throws IOException {
+        return buffer.getLong(advance(Long.BYTES));
+    }
+
+    @Override
+    public float readFloat() throws IOException {
+        return buffer.getFloat(advance(Float.BYTES));
+    }
+
+    @Override
+    public double readDouble() throws IOException {
+        return buffer.getDouble(advance(Double.BYTES));
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * <p>Like {@link java.io.RandomAccessFile#readLine()}, each byte is converted to the character with the same
+     * value, so the method does not support the full Unicode character set.
+     */
+    @Override
+    public @Nullable String readLine() {
+        int limit = buffer.limit();
+        if (position >= limit) {
+            return null;
+        }
+        StringBuilder sb = new StringBuilder();
+        while (position < limit) {
+            char c = (char) (buffer.get(position++) & 0xFF);
+            if (c == '\n') {
+                break;
+            } else if (c == '\r') {
+                // A carriage return may be followed by a line feed
+                if (position < limit && buffer.get(position) == '\n') {
+                    position++;
+                }
+                break;
+            }
+            sb.append(c);
+        }
+        return sb.toString();
+    }
+
+    @Override
+    public String readUTF() throws IOException {
+        return DataInputStream.readUTF(this);
+    }
+
+}
@@ -0,0 +1,69 @@
+package h10;
+
+import java.util.Objects;
+
+/**
+ * Represents the way the {@linkplain SkipList#contentHash() content hash} of a skip list combines the hash codes of
+ * its elements. Both variants are updated in constant time on every insertion and removal, and lists with equal
+ * elements on the lowest level agree on the content hash regardless of the heights of their towers.
+ *
+ * @see SkipList#setContentHashing(ContentHashing)
+ */
+public enum ContentHashing {
+
+    /**
+     * The content hash is the sum of the mixed hash codes of all elements, so it only depends on the multiset of
+     * elements.
+     */
+    UNORDERED,
+
+    /**
+     * The content hash is the sum of the mixed hash codes of all pairs of adjacent elements including the boundaries
+     * of the list, so it also depends on the order of elements which are equal according to the comparator but not
+     * according to {@link Object#equals(Object)}. An insertion replaces the pair of its neighbors with two new pairs
+     * and a removal does the opposite.
+     */
+    ORDERED;
+
+    /**
+     * The hash of the boundaries of a list in an adjacent pair.
+     */
+    static final long BOUNDARY = 0;
+
+    /**
+     * Returns the mixed 64-bit hash of the specified element.
+     *
+     * @param element the element to hash, may be {@code null}
+     *
+     * @return the mixed hash of the element
+     */
+    static long hash(Object element) {
+        return mix(Objects.hashCode(element) + 0x9E3779B97F4A7C15L);
+    }
+
+    /**
+     * Returns the mixed 64-bit hash of a pair of adjacent elements.
+     *
+     * @param previous the hash of the first element or {@link #BOUNDARY}
+     * @param next     the hash of the second element or {@link #BOUNDARY}
+     *
+     * @return the mixed hash of the pair
+     */
+    static long hash(long previous, long next) {
+        return mix(previous * 0xC2B2AE3D27D4EB4FL + next);
+    }
+
+    /**
+     * Spreads the bits of the specified value with the finalizer of SplitMix64.
+     *
+     * @param z the value to mix
+     *
+     * @return the mixed value
+     */
+    private static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+
+}
@@ -0,0 +1,422 @@
+package h10;
+
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Comparator;
+import java.util.function.Consumer;
+
+/**
+ * Represents a deterministic 1-2-3 skip list. Between two consecutive nodes of a level there are one to three nodes on
+ * the level below which do not reach the upper level, so searches, insertions and removals take logarithmic time in the
+ * worst case without any {@link Probability}. In contrast to {@link SkipList}, the list does not contain duplicates.
+ *
+ * <p>Each node of an upper level covers a gap of the level below, which starts with the node referenced by
+ * {@link Node#down} and ends with the node holding the same element. The last node of every level holds an element
+ * greater than all others and is followed by a shared tail node. Both updates work top-down in a single pass:
+ * {@link #add(Object)} splits every gap of three nodes it descends into by promoting its middle node, and
+ * {@link #remove(Object)} enlarges every gap of a single node it descends into by borrowing a node from or merging
+ * with a neighboring gap.
+ *
+ * <p>Example (the greatest element is written as {@code +}):
+ * <pre>{@code
+ *  head ---------------------------------- +
+ *   |                                      |
+ *   12 ----------------- 47 -------------- +
+ *   |                    |                 |
+ *   5 -- 12 -- 17 -- 31 -- 47 -- 72 -- 98 -- +
+ * }</pre>
+ *
+ * @param <T> the type of the elements in this list
+ *
+ * @see <a href="https://doi.org/10.5555/139404.139478">Munro et al.: Deterministic Skip Lists</a>
+ */
+public class DeterministicSkipList<T> {
+
+    /**
+     * The element of the last node of each level, which is greater than all elements of the list.
+     */
+    private static final Object INFINITY = new Object() {
+        @Override
+        public String toString() {
+            return "+";
+        }
+    };
+
+    /**
+     * The comparator used to maintain order in this list.
+     */
+    protected final Comparator<? super T> cmp;
+
+    /**
+     * The node below the lowest level. It holds the searched element during an update to stop the search.
+     */
+    private final Node bottom;
+
+    /**
+     * The node after the last node of each level.
+     */
+    private final Node tail;
+
+    /**
+     * The head of the skip list, the only node of the highest level.
+     */
+    Node head;
+
+    /**
+     * The number of levels below the head.
+     */
+    int height = 0;
+
+    /**
+     * The number of items in the skip list.
+     */
+    int size = 0;
+
+    /**
+     * Constructs and initializes an empty skip list.
+     *
+     * @param cmp the comparator used to maintain order in this list
+     */
+    public DeterministicSkipList(Comparator<? super T> cmp) {
+        this.cmp = cmp;
+        this.bottom = new Node(null, null, null);
+        this.bottom.right = bottom;
+        this.bottom.down = bottom;
+        this.tail = new Node(INFINITY, null, null);
+        this.tail.right = tail;
+        this.head = new Node(INFINITY, tail, bottom);
+    }
+
+    /**
+     * Returns the current height of this skip list.
+     *
+     * @return the current height of this skip list
+     */
+    public int getHeight() {
+        return height;
+    }
+
+    /**
+     * Returns the number of items in this skip list.
+     *
+     * @return the number of items in this skip list
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Returns {@code true} if this list contains no elements.
+     *
+     * @return {@code true} if this list contains no elements
+     */
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Compares the element of a node with the specified element, where {@link #INFINITY} is greater than all
+     * elements.
+     *
+     * @param element the element of a node
+     * @param key     the element to compare with
+     *
+     * @return a negative integer, zero, or a positive integer as the element of the node is less than, equal to, or
+     *         greater than the specified element
+     */
+    @SuppressWarnings("unchecked")
+    private int compare(Object element, T key) {
+        return element == INFINITY ? 1 : cmp.compare((T) element, key);
+    }
+
+    /**
+     * Compares the elements of two nodes, where {@link #INFINITY} is greater than all elements.
+     *
+     * @param element the element of the first node
+     * @param other   the element of the second node
+     *
+     * @return a negative integer, zero, or a positive integer as the first element is less than, equal to, or greater
+     *         than the second element
+     */
+    @SuppressWarnings("unchecked")
+    private int compareElements(Object element, Object other) {
+        if (element == other) {
+            return 0;
+        }
+        if (other == INFINITY) {
+            return -1;
+        }
+        return compare(element, (T) other);
+    }
+
+    /**
+     * Returns {@code true} if the gap of the specified node contains a single node besides the node of its own
+     * element. Elements are shared by reference between the levels, so no comparison is needed.
+     *
+     * @param node the node of an upper level
+     *
+     * @return {@code true} if the gap of the specified node contains a single node
+     */
+    private static boolean isMinimal(Node node) {
+        return node.down.right.element == node.element;
+    }
+
+    /**
+     * Returns {@code true} if this list contains the specified element.
+     *
+     * @param key the element whose presence in this list is to be tested
+     *
+     * @return {@code true} if this list contains the specified element
+     */
+    public boolean contains(T key) {
+        Node current = head;
+        while (current != bottom) {
+            int value = compare(current.element, key);
+            if (value == 0) {
+                return true;
+            } else if (value < 0) {
+                // Key can be on the same level
+                current = current.right;
+            } else {
+                // Key can be on the lower level
+                current = current.down;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Adds the specified element to this list if it is not already present. Every gap of three nodes between two
+     * nodes of the level above which the search descends into is split by promoting its middle node, so the new
+     * element can always be inserted on the lowest level without violating the gap sizes.
+     *
+     * @param key the element to be added
+     *
+     * @return {@code true} if the element was added
+     */
+    public boolean add(T key) {
+        boolean added = false;
+        Node current = head;
+        // The bottom node stops the search on the lowest level
+        bottom.element = key;
+        while (current != bottom) {
+            while (compare(current.element, key) < 0) {
+                current = current.right;
+            }
+            Node third = current.down.right.right;
+            if (compareElements(third.element, current.element) < 0) {
+                // Gap of three nodes or insertion on the lowest level, split after the second node
+                if (current.down == bottom) {
+                    added = true;
+                }
+                current.right = new Node(current.element, current.right, third);
+                current.element = current.down.right.element;
+            } else {
+                current = current.down;
+            }
+        }
+        bottom.element = null;
+        if (head.right != tail) {
+            // The highest level has been split, add a new level above
+            head = new Node(INFINITY, tail, head);
+            height++;
+        }
+        if (added) {
+            size++;
+        }
+        return added;
+    }
+
+    /**
+     * Removes the specified element from this list, if it is present. Every gap of a single node the search descends
+     * into is enlarged first by borrowing a node from a neighboring gap, or by merging it with a neighboring gap of a
+     * single node, so the element can always be removed from the lowest level without violating the gap sizes. If the
+     * element is also part of upper levels, it is replaced there by its predecessor.
+     *
+     * @param key the element to be removed from this list, if present
+     *
+     * @return {@code true} if the element was removed
+     */
+    public boolean remove(T key) {
+        Node current = head;
+        while (current.down != bottom) {
+            // Find the node of the gap below to descend to
+            Node previous = null;
+            Node node = current.down;
+            while (compare(node.element, key) < 0) {
+                previous = node;
+                node = node.right;
+            }
+            boolean last = node.element == current.element;
+            if (node.down == bottom) {
+                boolean removed = removeFromLowestLevel(previous, node, last, key);
+                // Merges on the way down may have emptied the level below the head even if the element is missing
+                lowerHead();
+                return removed;
+            }
+            if (isMinimal(node)) {
+                if (!last) {
+                    Node next = node.right;
+                    if (!isMinimal(next)) {
+                        // Borrow the first node of the next gap
+                        node.element = next.down.element;
+                        next.down = next.down.right;
+                    } else {
+                        // Merge with the next gap
+                        node.element = next.element;
+                        node.right = next.right;
+                    }
+                } else {
+                    assert previous != null;
+                    if (!isMinimal(previous)) {
+                        // Borrow the last node of the previous gap
+                        Node secondLast = previous.down;
+                        while (secondLast.right.element != previous.element) {
+                            secondLast = secondLast.right;
+                        }
+                        previous.element = secondLast.element;
+                        node.down = secondLast.right;
+                    } else {
+                        // Merge with the previous gap
+                        previous.element = node.element;
+                        previous.right = node.right;
+                        node = previous;
+                    }
+                }
+            }
+            current = node;
+        }
+        return false;
+    }
+
+    /**
+     * Removes the specified element from the lowest level if the specified node contains it.
+     *
+     * @param previous the predecessor of the node in the gap, or {@code null} if the node is the first of the gap
+     * @param node     the first node of the gap which is not smaller than the element
+     * @param last     whether the node is the last node of the gap
+     * @param key      the element to be removed
+     *
+     * @return {@code true} if the element was removed
+     */
+    private boolean removeFromLowestLevel(@Nullable Node previous, Node node, boolean last, T key) {
+        if (compare(node.element, key) != 0) {
+            return false;
+        }
+        if (!last) {
+            // Replace the node by its successor, which cannot be the first node of another gap
+            node.element = node.right.element;
+            node.right = node.right.right;
+        } else {
+            // The element is part of the upper levels, replace it there by its predecessor
+            assert previous != null;
+            Object removed = node.element;
+            previous.right = node.right;
+            replace(removed, previous.element, key);
+        }
+        size--;
+        return true;
+    }
+
+    /**
+     * Replaces the specified element by its predecessor on all upper levels.
+     *
+     * @param element     the element to replace
+     * @param replacement the predecessor of the element
+     * @param key         the element to replace, used for the search
+     */
+    private void replace(Object element, Object replacement, T key) {
+        for (Node current = head; current != bottom; current = current.down) {
+            while (compare(current.element, key) < 0) {
+                current = current.right;
+            }
+            if (current.element == element) {
+                current.element = replacement;
+            }
+        }
+    }
+
+    /**
+     * Removes the highest levels as long as the level below the head contains only its last node.
+     */
+    private void lowerHead() {
+        while (head.down != bottom && head.down.element == INFINITY) {
+            head = head.down;
+            height--;
+        }
+    }
+
+    /**
+     * Performs the given action for each element of this list in ascending order.
+     *
+     * @param action the action to be performed for each element
+     */
+    @SuppressWarnings("unchecked")
+    public void forEach(Consumer<? super T> action) {
+        Node current = head;
+        while (current.down != bottom) {
+            current = current.down;
+        }
+        for (; current.element != INFINITY; current = current.right) {
+            action.accept((T) current.element);
+        }
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+        sb.append("[");
+        for (Node level = head.down; level != bottom; level = level.down) {
+            sb.append("[");
+            for (Node element = level; element.element != INFINITY; element = element.right) {
+                sb.append(element.element);
+                if (element.right.element != INFINITY) {
+                    sb.append(", ");
+                }
+            }
+            sb.append("]");
+            if (level.down != bottom) {
+                sb.append(", ");
+            }
+        }
+        sb.append("]");
+        return sb.toString();
+    }
+
+    /**
+     * A node of a level holding an element, its successor on the same level and the first node of its gap on the
+     * level below.
+     */
+    static final class Node {
+
+        /**
+         * The element of this node, shared by reference with the nodes of the same element on the lower levels.
+         */
+        Object element;
+
+        /**
+         * The successor of this node on the same level.
+         */
+        Node right;
+
+        /**
+         * The first node of the gap of this node on the level below.
+         */
+        Node down;
+
+        /**
+         * Constructs and initializes a node.
+         *
+         * @param element the element of the node
+         * @param right   the successor of the node on the same level
+         * @param down    the first node of the gap of the node on the level below
+         */
+        Node(Object element, Node right, Node down) {
+            this.element = element;
+            this.right = right;
+            this.down = down;
+        }
+
+    }
+
+}
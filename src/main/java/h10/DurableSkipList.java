@@ -0,0 +1,468 @@
+package h10;
+
+import org.jetbrains.annotations.Nullable;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.zip.CRC32;
+
+/**
+ * Represents a skip list whose modifications survive a crash. Every {@link #add(Object)} and {@link #remove(Object)}
+ * is appended to a write-ahead log before it is applied to the list in memory, and only returns after the log has
+ * been forced to the disk. Threads modifying the list concurrently share the forces: while one thread forces the log,
+ * the others append their records and wait, and the next force covers all of them (group commit).
+ *
+ * <p>A record of the log consists of the length of its payload, the payload, i.e. the operation and the element
+ * encoded with a {@link KeyCodec}, and the CRC-32 checksum of the payload. When a log is opened, its records are
+ * replayed, where consecutive insertions are added in bulk, and an incomplete or corrupt tail left by a crash is cut
+ * off.
+ *
+ * <p>Modifications are serialized, so the list can be read concurrently like a {@link SkipList} with a single writer.
+ * A modification is visible to readers as soon as it has been written to the log, possibly before it is durable.
+ *
+ * <p>A record which cannot be written completely is cut off again, so later records are not appended after a torn
+ * one which would hide them from the replay. If the record cannot be cut off or the log cannot be forced, the state
+ * of the log is unknown: the modifications since the last force are visible in memory but may or may not survive a
+ * crash, and all further modifications are refused.
+ *
+ * @param <T> the type of the elements in this list
+ */
+public class DurableSkipList<T> implements Closeable {
+
+    /**
+     * The operation of a log record adding an element.
+     */
+    private static final byte ADD = 1;
+
+    /**
+     * The operation of a log record removing an element.
+     */
+    private static final byte REMOVE = 2;
+
+    /**
+     * The number of bytes of a record besides its payload, i.e. the length and the checksum.
+     */
+    private static final int FRAME_SIZE = 2 * Integer.BYTES;
+
+    /**
+     * The channel of the log.
+     */
+    private final FileChannel channel;
+
+    /**
+     * The codec encoding the elements of the records.
+     */
+    private final KeyCodec<T> codec;
+
+    /**
+     * The buffer the payload of a record is encoded into.
+     */
+    private final ByteArrayOutputStream payload = new ByteArrayOutputStream();
+
+    /**
+     * The output encoding the payload of a record.
+     */
+    private final DataOutputStream payloadOut = new DataOutputStream(payload);
+
+    /**
+     * The list in memory.
+     */
+    private final SkipList<T> list;
+
+    /**
+     * The number of records written to the log since it has been opened.
+     */
+    private long written = 0;
+
+    /**
+     * The number of records known to be durable.
+     */
+    private long synced = 0;
+
+    /**
+     * Whether a thread is currently forcing the log.
+     */
+    private boolean syncing = false;
+
+    /**
+     * The number of forces of the log by modifications since it has been opened, which is smaller than the number of
+     * modifications if concurrent modifications have shared a force.
+     */
+    private long forces = 0;
+
+    /**
+     * The error which has left the log in an unknown state, or {@code null} if the log can still be appended to.
+     */
+    private @Nullable IOException failure;
+
+    /**
+     * Constructs and initializes a durable list appending to the specified log.
+     *
+     * @param channel the channel of the log, positioned at its end
+     * @param list    the list replayed from the log
+     * @param codec   the codec encoding the elements
+     */
+    private DurableSkipList(FileChannel channel, SkipList<T> list, KeyCodec<T> codec) {
+        this.channel = channel;
+        this.list = list;
+        this.codec = codec;
+    }
+
+    /**
+     * Opens the specified log, creating it if it does not exist, and replays its records.
+     *
+     * @param file        the file of the log
+     * @param cmp         the comparator used to maintain order in the list
+     * @param maxHeight   the maximum height of the list
+     * @param probability the probability function used to determine if a node should be added on another level
+     * @param codec       the codec encoding the elements
+     * @param <T>         the type of the elements in the list
+     *
+     * @return the durable list containing the replayed elements
+     *
+     * @throws IOException if an I/O error occurs
+     */
+    public static <T> DurableSkipList<T> open(Path file, Comparator<? super T> cmp, int maxHeight,
+                                              Probability probability, KeyCodec<T> codec) throws IOException {
+        FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ,
+            StandardOpenOption.WRITE);
+        return open(channel, cmp, maxHeight, probability, codec);
+    }
+
+    /**
+     * Replays the records of the log read from the specified channel, which is closed if the log cannot be replayed.
+     *
+     * @param channel     the channel of the log
+     * @param cmp         the comparator used to maintain order in the list
+     * @param maxHeight   the maximum height of the list
+     * @param probability the probability function used to determine if a node should be added on another level
+     * @param codec       the codec encoding the elements
+     * @param <T>         the type of the elements in the list
+     *
+     * @return the durable list containing the replayed elements
+     *
+     * @throws IOException if an I/O error occurs
+     * @see #open(Path, Comparator, int, Probability, KeyCodec)
+     */
+    static <T> DurableSkipList<T> open(FileChannel channel, Comparator<? super T> cmp, int maxHeight,
+                                       Probability probability, KeyCodec<T> codec) throws IOException {
+        try {
+            SkipList<T> list = replay(channel, cmp, maxHeight, probability, codec);
+            channel.position(channel.size());
+            return new DurableSkipList<>(channel, list, codec);
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Replays the records of the log and cuts off an incomplete or corrupt tail. Runs of consecutive insertions are
+     * collected and added with {@link SkipList#addAll(java.util.Collection)}, or with
+     * {@link SkipList#fromSorted(Iterable, Comparator, int, Probability)} into an empty list, instead of searching
+     * each element separately.
+     *
+     * @param channel     the channel of the log
+     * @param cmp         the comparator used to maintain order in the list
+     * @param maxHeight   the maximum height of the list
+     * @param probability the probability function used to determine if a node should be added on another level
+     * @param codec       the codec decoding the elements
+     * @param <T>         the type of the elements in the list
+     *
+     * @return the replayed list
+     *
+     * @throws IOException if an I/O error occurs
+     */
+    private static <T> SkipList<T> replay(FileChannel channel, Comparator<? super T> cmp, int maxHeight,
+                                          Probability probability, KeyCodec<T> codec) throws IOException {
+        SkipList<T> list = null;
+        List<T> additions = new ArrayList<>();
+        long size = channel.size();
+        long valid = 0;
+        DataInputStream in = new DataInputStream(new BufferedInputStream(Channels.newInputStream(channel.position(0))));
+        while (true) {
+            byte[] bytes;
+            try {
+                int length = in.readInt();
+                if (length <= 0 || length > size - valid - FRAME_SIZE) {
+                    break;
+                }
+                bytes = new byte[length];
+                in.readFully(bytes);
+                if (in.readInt() != checksum(bytes)) {
+                    break;
+                }
+            } catch (EOFException e) {
+                // Incomplete record
+                break;
+            }
+            DataInputStream record = new DataInputStream(new ByteArrayInputStream(bytes));
+            byte operation = record.readByte();
+            T element = codec.read(record);
+            if (operation == ADD) {
+                additions.add(element);
+            } else if (operation == REMOVE) {
+                list = addAll(list, additions, cmp, maxHeight, probability);
+                list.remove(element);
+            } else {
+                throw new IOException("Unknown log operation: %s".formatted(operation));
+            }
+            valid += bytes.length + FRAME_SIZE;
+        }
+        if (valid < size) {
+            channel.truncate(valid);
+        }
+        return addAll(list, additions, cmp, maxHeight, probability);
+    }
+
+    /**
+     * Adds the collected insertions to the list and clears them.
+     *
+     * @param list        the list, or {@code null} if it has not been created yet
+     * @param additions   the collected insertions in log order
+     * @param cmp         the comparator used to maintain order in the list
+     * @param maxHeight   the maximum height of the list
+     * @param probability the probability function used to determine if a node should be added on another level
+     * @param <T>         the type of the elements in the list
+     *
+     * @return the list containing the insertions
+     */
+    private static <T> SkipList<T> addAll(@Nullable SkipList<T> list, List<T> additions, Comparator<? super T> cmp,
+                                          int maxHeight, Probability probability) {
+        if (list == null) {
+            // Stable sorting keeps equal elements in log order like separate insertions
+            additions.sort(cmp);
+            list = SkipList.fromSorted(additions, cmp, maxHeight, probability);
+        } else if (!additions.isEmpty()) {
+            list.addAll(additions);
+        }
+        additions.clear();
+        return list;
+    }
+
+    /**
+     * Returns the CRC-32 checksum of the specified payload.
+     *
+     * @param bytes the payload
+     *
+     * @return the checksum
+     */
+    private static int checksum(byte[] bytes) {
+        CRC32 crc = new CRC32();
+        crc.update(bytes);
+        return (int) crc.getValue();
+    }
+
+    /**
+     * Returns the number of items in this list.
+     *
+     * @return the number of items in this list
+     */
+    public int size() {
+        return list.size();
+    }
+
+    /**
+     * Returns the number of times the log has been forced for modifications since it has been opened.
+     *
+     * @return the number of forces of the log
+     */
+    synchronized long forces() {
+        return forces;
+    }
+
+    /**
+     * Returns {@code true} if this list contains the specified element.
+     *
+     * @param key the element whose presence in this list is to be tested
+     *
+     * @return {@code true} if this list contains the specified element
+     */
+    public boolean contains(T key) {
+        return list.contains(key);
+    }
+
+    /**
+     * Performs the given action for each element of this list in ascending order.
+     *
+     * @param action the action to be performed for each element
+     */
+    public void forEach(Consumer<? super T> action) {
+        list.forEach(action);
+    }
+
+    /**
+     * Adds the specified element to this list and returns after the modification is durable.
+     *
+     * @param key the element to be added
+     *
+     * @throws IOException if the modification cannot be written to the log, or if the log cannot be forced, in which
+     *                     case the element has already been added in memory
+     * @see SkipList#add(Object)
+     */
+    public void add(T key) throws IOException {
+        commit(append(ADD, key));
+    }
+
+    /**
+     * Removes the first occurrence of the specified element from this list, if it is present, and returns after the
+     * modification is durable.
+     *
+     * @param key the element to be removed from this list, if present
+     *
+     * @throws IOException if the modification cannot be written to the log, or if the log cannot be forced, in which
+     *                     case the element has already been removed in memory
+     * @see SkipList#remove(Object)
+     */
+    public void remove(T key) throws IOException {
+        commit(append(REMOVE, key));
+    }
+
+    /**
+     * Writes a record to the log and applies it to the list in memory. A record which cannot be written completely is
+     * cut off again.
+     *
+     * @param operation the operation of the record
+     * @param key       the element of the record
+     *
+     * @return the number of records written up to and including this one
+     *
+     * @throws IOException if the record cannot be written or the log has failed before
+     */
+    private synchronized long append(byte operation, T key) throws IOException {
+        checkFailure();
+        payload.reset();
+        payloadOut.writeByte(operation);
+        codec.write(payloadOut, key);
+        byte[] bytes = payload.toByteArray();
+        ByteBuffer buffer = ByteBuffer.allocate(bytes.length + FRAME_SIZE)
+            .putInt(bytes.length)
+            .put(bytes)
+            .putInt(checksum(bytes))
+            .flip();
+        long start = channel.position();
+        try {
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+        } catch (IOException e) {
+            try {
+                channel.truncate(start);
+                channel.position(start);
+            } catch (IOException truncation) {
+                e.addSuppressed(truncation);
+                failure = e;
+            }
+            throw e;
+        }
+        if (operation == ADD) {
+            list.add(key);
+        } else {
+            list.remove(key);
+        }
+        return ++written;
+    }
+
+    /**
+     * Throws an exception if the log has been left in an unknown state.
+     *
+     * @throws IOException if the log has failed
+     */
+    private void checkFailure() throws IOException {
+        if (failure != null) {
+            throw new IOException("The log has failed", failure);
+        }
+    }
+
+    /**
+     * Waits until the specified number of records is durable. If no other thread is forcing the log, the calling
+     * thread forces it for all records written so far, otherwise it waits for that force to complete and starts the
+     * next one if its record is not covered yet.
+     *
+     * @param sequence the number of records which have to be durable
+     *
+     * @throws IOException if the log cannot be forced or has failed before
+     */
+    private void commit(long sequence) throws IOException {
+        long target;
+        synchronized (this) {
+            while (synced < sequence) {
+                if (!syncing) {
+                    break;
+                }
+                try {
+                    wait();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new InterruptedIOException("Interrupted while waiting for the log to be forced");
+                }
+            }
+            if (synced >= sequence) {
+                return;
+            }
+            // A force after a failed one may succeed without the records written before
+            checkFailure();
+            syncing = true;
+            target = written;
+        }
+        boolean forced = false;
+        try {
+            channel.force(false);
+            forced = true;
+        } catch (IOException e) {
+            synchronized (this) {
+                if (failure == null) {
+                    failure = e;
+                }
+            }
+            throw e;
+        } finally {
+            synchronized (this) {
+                syncing = false;
+                if (forced) {
+                    synced = Math.max(synced, target);
+                    forces++;
+                }
+                notifyAll();
+            }
+        }
+    }
+
+    /**
+     * Forces the log and closes it.
+     *
+     * @throws IOException if an I/O error occurs
+     */
+    @Override
+    public synchronized void close() throws IOException {
+        if (channel.isOpen()) {
+            try {
+                channel.force(false);
+            } finally {
+                channel.close();
+            }
+        }
+    }
+
+    @Override
+    public String toString() {
+        return list.toString();
+    }
+
+}
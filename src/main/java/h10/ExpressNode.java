@@ -2,6 +2,11 @@ package h10;
 
 import org.jetbrains.annotations.Nullable;
 
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 
 /**
@@ -64,12 +69,27 @@ public class ExpressNode<T> {
      */
     public @Nullable ListItem<ExpressNode<T>> down;
 
+    /**
+     * The number of elements on the lowest level from this node to its successor on the same level, including the
+     * successor. The last node of a level counts the elements up to the end of the list plus one.
+     */
+    public int span;
+
     /**
      * Constructs and initializes an empty express node.
      */
     public ExpressNode() {
     }
 
+    /**
+     * {@inheritDoc}
+     *
+     * <p>Two express nodes are equal if their values are equal and their predecessors, upper and lower nodes are equal
+     * sequences of list items, which makes the whole structures reachable from both nodes equal. The structures are
+     * compared iteratively in time linear in the number of their nodes.
+     *
+     * @see #equalStructures(Object, Object)
+     */
     @Override
     public boolean equals(Object o) {
         if (this == o) {
@@ -78,35 +98,106 @@ public class ExpressNode<T> {
         if (!(o instanceof ExpressNode<?> other)) {
             return false;
         }
-        return Objects.equals(value, other.value)
-            && Objects.equals(prev, other.prev)
-            && Objects.equals(up, other.up)
-            && Objects.equals(down, other.down);
+        return equalStructures(this, other);
     }
 
+    /**
+     * {@inheritDoc}
+     *
+     * <p>The hash code only covers the value and the number of nodes above and below this node in its tower, which
+     * are equal for equal nodes, so it is computed in time linear in the height of the tower.
+     */
     @Override
     public int hashCode() {
-        return Objects.hash(value, hashCode(prev), hashCode(up), hashCode(down));
+        return Objects.hash(value, nodesAbove(), nodesBelow());
+    }
+
+    /**
+     * Returns {@code true} if the structures reachable from the specified list items or express nodes are equal. The
+     * structures are traversed together without recursion: corresponding list items need equal keys and successors,
+     * corresponding express nodes need equal values, predecessors, upper and lower nodes, and all other keys are
+     * compared with {@link Object#equals(Object)}. Parts shared by both structures are equal. Since a node of one
+     * structure can only correspond to a single node of the other one, each node is visited once.
+     *
+     * @param node  the list item or express node of the first structure
+     * @param other the list item or express node of the second structure
+     *
+     * @return {@code true} if both structures are equal
+     */
+    static boolean equalStructures(@Nullable Object node, @Nullable Object other) {
+        // The nodes of the second structure corresponding to the nodes of the first one, and vice versa
+        Map<Object, Object> pairs = new IdentityHashMap<>();
+        Map<Object, Object> reversePairs = new IdentityHashMap<>();
+        // Pairs of nodes still to be compared, the second node of a pair is on top
+        List<Object> pending = new ArrayList<>();
+        pending.add(node);
+        pending.add(other);
+        while (!pending.isEmpty()) {
+            Object second = pending.remove(pending.size() - 1);
+            Object first = pending.remove(pending.size() - 1);
+            if (first == second) {
+                continue;
+            }
+            if (first instanceof ListItem<?> item) {
+                if (!(second instanceof ListItem<?> otherItem)) {
+                    return false;
+                }
+                Object paired = pairs.putIfAbsent(item, otherItem);
+                Object reversePaired = reversePairs.putIfAbsent(otherItem, item);
+                if (paired != null || reversePaired != null) {
+                    if (paired == otherItem && reversePaired == item) {
+                        // Already compared
+                        continue;
+                    }
+                    return false;
+                }
+                Collections.addAll(pending, item.key, otherItem.key, item.next, otherItem.next);
+            } else if (first instanceof ExpressNode<?> expressNode) {
+                if (!(second instanceof ExpressNode<?> otherNode) || !Objects.equals(expressNode.value, otherNode.value)) {
+                    return false;
+                }
+                Object paired = pairs.putIfAbsent(expressNode, otherNode);
+                Object reversePaired = reversePairs.putIfAbsent(otherNode, expressNode);
+                if (paired != null || reversePaired != null) {
+                    if (paired == otherNode && reversePaired == expressNode) {
+                        continue;
+                    }
+                    return false;
+                }
+                Collections.addAll(pending, expressNode.prev, otherNode.prev, expressNode.up, otherNode.up,
+                    expressNode.down, otherNode.down);
+            } else if (!Objects.equals(first, second)) {
+                return false;
+            }
+        }
+        return true;
     }
 
     /**
-     * Returns the hash code for the specified list item sequence using the following formula:
-     * <pre>{@code
-     *    for each value in the sequence:
-     *      31 * hashCode + (value == null ? 0 : value.hashCode())
-     *    }</pre>
+     * Returns the number of nodes of the tower of this node above this node.
      *
-     * @param item the list item sequence to compute the hash code for
+     * @return the number of nodes above this node
+     */
+    private int nodesAbove() {
+        int count = 0;
+        for (ListItem<ExpressNode<T>> current = up; current != null && current.key != null; current = current.key.up) {
+            count++;
+        }
+        return count;
+    }
+
+    /**
+     * Returns the number of nodes of the tower of this node below this node.
      *
-     * @return the hash code for the specified list item sequence
+     * @return the number of nodes below this node
      */
-    private int hashCode(ListItem<ExpressNode<T>> item) {
-        int hashCode = 1;
-        for (ListItem<ExpressNode<T>> current = item; current != null; current = current.next) {
-            hashCode = 31 * hashCode + ((current.key == null || current.key.value == null)
-                ? 0 : current.key.value.hashCode());
+    private int nodesBelow() {
+        int count = 0;
+        for (ListItem<ExpressNode<T>> current = down; current != null && current.key != null;
+             current = current.key.down) {
+            count++;
         }
-        return hashCode;
+        return count;
     }
 
     @Override
@@ -0,0 +1,78 @@
+package h10;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * A thread-safe level generator drawing geometrically distributed tower heights from {@link ThreadLocalRandom} with a
+ * single random number per tower.
+ *
+ * <p>If the probability is a power of 1/2, i.e. {@code p = 2^-k}, the number of additional levels is the number of
+ * trailing zero bits of a random long divided by {@code k}. Other probabilities use inverse transform sampling of a
+ * random double.
+ */
+public final class GeometricLevelGenerator implements LevelGenerator {
+
+    /**
+     * The probability to reach the next level.
+     */
+    private final double p;
+
+    /**
+     * The number of random bits per level if the probability is a power of 1/2, {@code 0} otherwise.
+     */
+    private final int bitsPerLevel;
+
+    /**
+     * The natural logarithm of the probability.
+     */
+    private final double logP;
+
+    /**
+     * Constructs and initializes a generator whose towers reach each further level with the specified probability.
+     *
+     * @param p the probability to reach the next level
+     *
+     * @throws IllegalArgumentException if the probability is not in the range [0, 1)
+     */
+    public GeometricLevelGenerator(double p) {
+        if (!(p >= 0 && p < 1)) {
+            throw new IllegalArgumentException("Probability must be in [0, 1): %s".formatted(p));
+        }
+        this.p = p;
+        int exponent = Math.getExponent(p);
+        this.bitsPerLevel = p > 0 && p == Math.scalb(1.0, exponent) ? -exponent : 0;
+        this.logP = Math.log(p);
+    }
+
+    /**
+     * Returns the probability to reach the next level.
+     *
+     * @return the probability to reach the next level
+     */
+    public double getProbability() {
+        return p;
+    }
+
+    @Override
+    public int nextHeight(int limit) {
+        if (limit <= 1 || p == 0) {
+            return 1;
+        }
+        int levels;
+        if (bitsPerLevel > 0) {
+            // Each bit is zero with probability 1/2, so k zero bits have probability 2^-k
+            levels = Long.numberOfTrailingZeros(ThreadLocalRandom.current().nextLong()) / bitsPerLevel;
+        } else {
+            // 1 - u is in (0, 1], so the logarithm is finite
+            double levelsDrawn = Math.log(1 - ThreadLocalRandom.current().nextDouble()) / logP;
+            levels = (int) Math.min(levelsDrawn, limit);
+        }
+        return 1 + Math.min(levels, limit - 1);
+    }
+
+    @Override
+    public String toString() {
+        return "%s%%".formatted(p * 100);
+    }
+
+}
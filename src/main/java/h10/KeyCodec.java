@@ -0,0 +1,151 @@
+package h10;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.io.UTFDataFormatException;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Represents the binary encoding of the elements of a {@link SkipList} snapshot.
+ *
+ * <p>The predefined codecs encode numbers as variable-length integers, so small values only take a few bytes:
+ * <pre>{@code
+ * list.writeSnapshot(out, KeyCodec.ints());
+ * SkipList<Integer> copy = SkipList.readSnapshot(in, Comparator.naturalOrder(), KeyCodec.ints());
+ * }</pre>
+ *
+ * @param <T> the type of the encoded elements
+ *
+ * @see SkipList#writeSnapshot(DataOutput, KeyCodec)
+ * @see SkipList#readSnapshot(DataInput, Comparator, KeyCodec)
+ */
+public interface KeyCodec<T> {
+
+    /**
+     * Writes the specified element to the output.
+     *
+     * @param out     the output to write to
+     * @param element the element to write
+     *
+     * @throws IOException if an I/O error occurs
+     */
+    void write(DataOutput out, T element) throws IOException;
+
+    /**
+     * Reads an element written by {@link #write(DataOutput, Object)} from the input.
+     *
+     * @param in the input to read from
+     *
+     * @return the element read
+     *
+     * @throws IOException if an I/O error occurs or the input is malformed
+     */
+    T read(DataInput in) throws IOException;
+
+    /**
+     * Returns a codec encoding integers as zigzag variable-length integers of one to five bytes.
+     *
+     * @return a codec for integers
+     */
+    static KeyCodec<Integer> ints() {
+        return new KeyCodec<>() {
+            @Override
+            public void write(DataOutput out, Integer element) throws IOException {
+                writeVarLong(out, Integer.toUnsignedLong((element << 1) ^ (element >> 31)));
+            }
+
+            @Override
+            public Integer read(DataInput in) throws IOException {
+                long value = readVarLong(in);
+                return (int) (value >>> 1) ^ -(int) (value & 1);
+            }
+        };
+    }
+
+    /**
+     * Returns a codec encoding longs as zigzag variable-length integers of one to ten bytes.
+     *
+     * @return a codec for longs
+     */
+    static KeyCodec<Long> longs() {
+        return new KeyCodec<>() {
+            @Override
+            public void write(DataOutput out, Long element) throws IOException {
+                writeVarLong(out, (element << 1) ^ (element >> 63));
+            }
+
+            @Override
+            public Long read(DataInput in) throws IOException {
+                long value = readVarLong(in);
+                return (value >>> 1) ^ -(value & 1);
+            }
+        };
+    }
+
+    /**
+     * Returns a codec encoding strings as their number of UTF-8 bytes followed by the bytes.
+     *
+     * @return a codec for strings
+     */
+    static KeyCodec<String> strings() {
+        return new KeyCodec<>() {
+            @Override
+            public void write(DataOutput out, String element) throws IOException {
+                byte[] bytes = element.getBytes(StandardCharsets.UTF_8);
+                writeVarLong(out, bytes.length);
+                out.write(bytes);
+            }
+
+            @Override
+            public String read(DataInput in) throws IOException {
+                long length = readVarLong(in);
+                if (length > Integer.MAX_VALUE - 8) {
+                    throw new UTFDataFormatException("String too long: %s bytes".formatted(length));
+                }
+                byte[] bytes = new byte[(int) length];
+                in.readFully(bytes);
+                return new String(bytes, StandardCharsets.UTF_8);
+            }
+        };
+    }
+
+    /**
+     * Writes the specified value as an unsigned variable-length integer with seven bits per byte, where the highest
+     * bit of each byte marks that another byte follows.
+     *
+     * @param out   the output to write to
+     * @param value the value to write, interpreted as unsigned
+     *
+     * @throws IOException if an I/O error occurs
+     */
+    static void writeVarLong(DataOutput out, long value) throws IOException {
+        while ((value & ~0x7FL) != 0) {
+            out.writeByte((int) (value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        out.writeByte((int) value);
+    }
+
+    /**
+     * Reads an unsigned variable-length integer written by {@link #writeVarLong(DataOutput, long)}.
+     *
+     * @param in the input to read from
+     *
+     * @return the value read
+     *
+     * @throws IOException if an I/O error occurs or the value has more than ten bytes
+     */
+    static long readVarLong(DataInput in) throws IOException {
+        long value = 0;
+        for (int shift = 0; shift < Long.SIZE; shift += 7) {
+            byte b = in.readByte();
+            value |= (long) (b & 0x7F) << shift;
+            if (b >= 0) {
+                return value;
+            }
+        }
+        throw new IOException("Malformed variable-length integer");
+    }
+
+}
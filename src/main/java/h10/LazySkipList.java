@@ -0,0 +1,470 @@
+package h10;
+
+import org.jetbrains.annotations.Nullable;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.Comparator;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Represents a concurrent skip list with fine-grained locking which can be accessed by multiple threads without
+ * external synchronization. In contrast to {@link SkipList}, the list does not contain duplicates.
+ *
+ * <p>Updates search optimistically without locks, then lock only the predecessors of the affected position on each
+ * level and validate that they are still unmarked and adjacent to the expected successors. If the validation fails,
+ * the locks are released and the update is retried. Updates on disjoint ranges of the list therefore do not block
+ * each other. A node is part of the list once it is fully linked and until it is marked, which lets
+ * {@link #contains(Object)} run wait-free without any locks.
+ *
+ * <p>The probability function is called concurrently and has to be thread-safe.
+ *
+ * @param <T> the type of the elements in this list
+ *
+ * @see LockFreeSkipList
+ * @see <a href="https://doi.org/10.1007/978-3-540-72951-8_11">Herlihy et al.: A Simple Optimistic Skiplist
+ *     Algorithm</a>
+ */
+public class LazySkipList<T> {
+
+    /**
+     * Accessor for the successor arrays of the nodes with acquire and release semantics.
+     */
+    private static final VarHandle NEXT = MethodHandles.arrayElementVarHandle(Node[].class);
+
+    /**
+     * The comparator used to maintain order in this list.
+     */
+    protected final Comparator<? super T> cmp;
+
+    /**
+     * The maximum height of the skip list.
+     */
+    final int maxHeight;
+
+    /**
+     * The probability function used to determine if a node should be added on another level, or {@code null} if the
+     * level generator has been set directly.
+     */
+    private volatile @Nullable Probability probability;
+
+    /**
+     * The thread-safe generator drawing the heights of new towers.
+     */
+    private volatile LevelGenerator levelGenerator;
+
+    /**
+     * The head of the skip list, a sentinel node spanning all possible levels.
+     */
+    final Node<T> head;
+
+    /**
+     * The highest number of levels used by a node so far.
+     */
+    private final AtomicInteger height = new AtomicInteger();
+
+    /**
+     * The number of items in the skip list, updated without contention between writers.
+     */
+    private final LongAdder size = new LongAdder();
+
+    /**
+     * Constructs and initializes an empty skip list without the probability to add elements on higher levels.
+     *
+     * @param cmp       the comparator used to maintain order in this list
+     * @param maxHeight the maximum height of the skip list
+     */
+    public LazySkipList(Comparator<? super T> cmp, int maxHeight) {
+        this(cmp, maxHeight, SkipList.DEFAULT_PROBABILITY);
+    }
+
+    /**
+     * Constructs and initializes an empty skip list.
+     *
+     * @param cmp         the comparator used to maintain order in this list
+     * @param maxHeight   the maximum height of the skip list
+     * @param probability the thread-safe probability function used to determine if a node should be added on another
+     *                    level
+     */
+    public LazySkipList(Comparator<? super T> cmp, int maxHeight, Probability probability) {
+        this(cmp, maxHeight, LevelGenerator.of(probability));
+        this.probability = probability;
+    }
+
+    /**
+     * Constructs and initializes an empty skip list whose tower heights are drawn by the specified generator.
+     *
+     * @param cmp            the comparator used to maintain order in this list
+     * @param maxHeight      the maximum height of the skip list
+     * @param levelGenerator the thread-safe generator drawing the heights of new towers, e.g. a
+     *                       {@link GeometricLevelGenerator}
+     */
+    public LazySkipList(Comparator<? super T> cmp, int maxHeight, LevelGenerator levelGenerator) {
+        this.cmp = cmp;
+        this.maxHeight = maxHeight;
+        this.levelGenerator = levelGenerator;
+        this.head = new Node<>(null, Math.max(1, maxHeight));
+        this.head.fullyLinked = true;
+    }
+
+    /**
+     * Returns the highest number of levels used by an element of this skip list so far.
+     *
+     * @return the highest number of levels used by an element of this skip list so far
+     */
+    public int getHeight() {
+        return height.get();
+    }
+
+    /**
+     * Returns the probability function used to determine if a node should be added on another level.
+     *
+     * @return the probability function used to determine if a node should be added on another level, or
+     *         {@code null} if the level generator has been set directly
+     */
+    public @Nullable Probability getProbability() {
+        return probability;
+    }
+
+    /**
+     * Sets the thread-safe probability function used to determine if a node should be added on another level.
+     *
+     * @param probability the probability function
+     */
+    public void setProbability(Probability probability) {
+        this.probability = probability;
+        this.levelGenerator = LevelGenerator.of(probability);
+    }
+
+    /**
+     * Returns the generator drawing the heights of new towers.
+     *
+     * @return the generator drawing the heights of new towers
+     */
+    public LevelGenerator getLevelGenerator() {
+        return levelGenerator;
+    }
+
+    /**
+     * Sets the thread-safe generator drawing the heights of new towers. The probability function is no longer used.
+     *
+     * @param levelGenerator the generator drawing the heights of new towers
+     */
+    public void setLevelGenerator(LevelGenerator levelGenerator) {
+        this.probability = null;
+        this.levelGenerator = levelGenerator;
+    }
+
+    /**
+     * Returns the number of items in this skip list. The result is exact if no update is in progress.
+     *
+     * @return the number of items in this skip list
+     */
+    public int size() {
+        return size.intValue();
+    }
+
+    /**
+     * Returns {@code true} if this list contains no elements.
+     *
+     * @return {@code true} if this list contains no elements
+     */
+    public boolean isEmpty() {
+        return size() == 0;
+    }
+
+    /**
+     * Returns the successor of the specified node on the specified level.
+     *
+     * @param node  the node
+     * @param level the level of the successor
+     * @param <T>   the type of the elements in the list
+     *
+     * @return the successor of the specified node on the specified level
+     */
+    @SuppressWarnings("unchecked")
+    private static <T> Node<T> next(Node<T> node, int level) {
+        return (Node<T>) NEXT.getAcquire(node.next, level);
+    }
+
+    /**
+     * Sets the successor of the specified node on the specified level and publishes all prior writes with it.
+     *
+     * @param node      the node
+     * @param level     the level of the successor
+     * @param successor the new successor
+     * @param <T>       the type of the elements in the list
+     */
+    private static <T> void setNext(Node<T> node, int level, Node<T> successor) {
+        NEXT.setRelease(node.next, level, successor);
+    }
+
+    /**
+     * Returns {@code true} if this list contains the specified element. The search does not take any locks.
+     *
+     * @param key the element whose presence in this list is to be tested
+     *
+     * @return {@code true} if this list contains the specified element
+     */
+    public boolean contains(T key) {
+        Node<T> predecessor = head;
+        for (int level = head.next.length - 1; level >= 0; level--) {
+            Node<T> current = next(predecessor, level);
+            while (current != null) {
+                int value = cmp.compare(current.value, key);
+                if (value == 0) {
+                    return current.fullyLinked && !current.marked;
+                } else if (value > 0) {
+                    // Key can be on the lower level
+                    break;
+                }
+                predecessor = current;
+                current = next(predecessor, level);
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Stores the last node smaller than the specified element and its successor of each level in the specified
+     * arrays.
+     *
+     * @param key          the element to search for
+     * @param predecessors the array to store the predecessors in
+     * @param successors   the array to store the successors in
+     *
+     * @return the highest level on which the element has been found, or {@code -1} if it has not been found
+     */
+    private int find(T key, Node<T>[] predecessors, Node<T>[] successors) {
+        int levelFound = -1;
+        Node<T> predecessor = head;
+        for (int level = head.next.length - 1; level >= 0; level--) {
+            Node<T> current = next(predecessor, level);
+            int value = 1;
+            while (current != null && (value = cmp.compare(current.value, key)) < 0) {
+                predecessor = current;
+                current = next(predecessor, level);
+            }
+            if (levelFound == -1 && current != null && value == 0) {
+                levelFound = level;
+            }
+            predecessors[level] = predecessor;
+            successors[level] = current;
+        }
+        return levelFound;
+    }
+
+    /**
+     * Returns the height of a new tower drawn by the level generator, which does not exceed the maximum height.
+     *
+     * @return the height of a new tower
+     */
+    private int randomHeight() {
+        return levelGenerator.nextHeight(head.next.length);
+    }
+
+    /**
+     * Creates an array for the nodes of each level.
+     *
+     * @return an array for the nodes of each level
+     */
+    @SuppressWarnings("unchecked")
+    private Node<T>[] newLevelArray() {
+        return (Node<T>[]) new Node<?>[head.next.length];
+    }
+
+    /**
+     * Releases the locks of the predecessors up to the specified level.
+     *
+     * @param predecessors  the locked predecessors
+     * @param highestLocked the highest locked level
+     */
+    private static void unlock(Node<?>[] predecessors, int highestLocked) {
+        for (int level = 0; level <= highestLocked; level++) {
+            predecessors[level].lock.unlock();
+        }
+    }
+
+    /**
+     * Adds the specified element to this list if it is not already present.
+     *
+     * @param key the element to be added
+     *
+     * @return {@code true} if the element was added
+     */
+    public boolean add(T key) {
+        int towerHeight = randomHeight();
+        Node<T>[] predecessors = newLevelArray();
+        Node<T>[] successors = newLevelArray();
+        while (true) {
+            int levelFound = find(key, predecessors, successors);
+            if (levelFound != -1) {
+                Node<T> found = successors[levelFound];
+                if (!found.marked) {
+                    // Wait until the concurrent insertion of the element is visible on all levels
+                    while (!found.fullyLinked) {
+                        Thread.onSpinWait();
+                    }
+                    return false;
+                }
+                // The element is being removed, retry afterwards
+                continue;
+            }
+            int highestLocked = -1;
+            try {
+                boolean valid = true;
+                for (int level = 0; valid && level < towerHeight; level++) {
+                    Node<T> predecessor = predecessors[level];
+                    Node<T> successor = successors[level];
+                    predecessor.lock.lock();
+                    highestLocked = level;
+                    valid = !predecessor.marked && (successor == null || !successor.marked)
+                        && next(predecessor, level) == successor;
+                }
+                if (!valid) {
+                    continue;
+                }
+                Node<T> node = new Node<>(key, towerHeight);
+                for (int level = 0; level < towerHeight; level++) {
+                    node.next[level] = successors[level];
+                }
+                for (int level = 0; level < towerHeight; level++) {
+                    setNext(predecessors[level], level, node);
+                }
+                node.fullyLinked = true;
+                size.increment();
+                height.accumulateAndGet(towerHeight, Math::max);
+                return true;
+            } finally {
+                unlock(predecessors, highestLocked);
+            }
+        }
+    }
+
+    /**
+     * Removes the specified element from this list, if it is present.
+     *
+     * @param key the element to be removed from this list, if present
+     *
+     * @return {@code true} if this call removed the element
+     */
+    public boolean remove(T key) {
+        Node<T>[] predecessors = newLevelArray();
+        Node<T>[] successors = newLevelArray();
+        Node<T> victim = null;
+        boolean marked = false;
+        while (true) {
+            int levelFound = find(key, predecessors, successors);
+            if (!marked) {
+                if (levelFound == -1) {
+                    return false;
+                }
+                victim = successors[levelFound];
+                // Only fully linked nodes found on their top level can be deleted
+                if (!victim.fullyLinked || victim.next.length - 1 != levelFound || victim.marked) {
+                    return false;
+                }
+                victim.lock.lock();
+                if (victim.marked) {
+                    victim.lock.unlock();
+                    return false;
+                }
+                // Logical deletion, the element is no longer part of the list
+                victim.marked = true;
+                marked = true;
+            }
+            int highestLocked = -1;
+            try {
+                boolean valid = true;
+                for (int level = 0; valid && level < victim.next.length; level++) {
+                    Node<T> predecessor = predecessors[level];
+                    predecessor.lock.lock();
+                    highestLocked = level;
+                    valid = !predecessor.marked && next(predecessor, level) == victim;
+                }
+                if (!valid) {
+                    continue;
+                }
+                for (int level = victim.next.length - 1; level >= 0; level--) {
+                    setNext(predecessors[level], level, next(victim, level));
+                }
+                victim.lock.unlock();
+                size.decrement();
+                return true;
+            } finally {
+                unlock(predecessors, highestLocked);
+            }
+        }
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+        sb.append("[");
+        for (int level = getHeight() - 1; level >= 0; level--) {
+            sb.append("[");
+            boolean first = true;
+            for (Node<T> element = next(head, level); element != null; element = next(element, level)) {
+                if (element.fullyLinked && !element.marked) {
+                    sb.append(first ? "" : ", ").append(element.value);
+                    first = false;
+                }
+            }
+            sb.append("]");
+            if (level > 0) {
+                sb.append(", ");
+            }
+        }
+        sb.append("]");
+        return sb.toString();
+    }
+
+    /**
+     * An element of the list holding its value, its successors on all levels it occupies and its lock.
+     *
+     * @param <T> type of value
+     */
+    static final class Node<T> {
+
+        /**
+         * The value of this node, {@code null} for the head of a list.
+         */
+        final T value;
+
+        /**
+         * The successor nodes of this node where the index is the level of the successor.
+         */
+        final Node<T>[] next;
+
+        /**
+         * The lock guarding the successors of this node.
+         */
+        final ReentrantLock lock = new ReentrantLock();
+
+        /**
+         * Whether this node has been removed logically.
+         */
+        volatile boolean marked;
+
+        /**
+         * Whether this node has been linked on all of its levels.
+         */
+        volatile boolean fullyLinked;
+
+        /**
+         * Constructs and initializes a node with the specified value and height.
+         *
+         * @param value  the value of the node
+         * @param height the number of levels the node occupies
+         */
+        @SuppressWarnings("unchecked")
+        Node(T value, int height) {
+            this.value = value;
+            this.next = (Node<T>[]) new Node<?>[height];
+        }
+
+    }
+
+}
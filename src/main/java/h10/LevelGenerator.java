@@ -0,0 +1,55 @@
+package h10;
+
+/**
+ * Represents a generator for the heights of new towers of a skip list. In contrast to a {@link Probability}, which is
+ * asked once for each additional level, a generator draws the whole height of a tower at once.
+ *
+ * @see GeometricLevelGenerator
+ */
+@FunctionalInterface
+public interface LevelGenerator {
+
+    /**
+     * Returns the height of a new tower, which is at least 1 and at most the specified limit. A limit smaller than 1
+     * is treated as 1.
+     *
+     * @param limit the maximum height of the tower
+     *
+     * @return the height of a new tower
+     */
+    int nextHeight(int limit);
+
+    /**
+     * Returns a generator which grows each tower by one level as long as the specified probability function returns
+     * {@code true} and the limit is not reached. The probability function is called exactly as often as by a skip list
+     * using it directly.
+     *
+     * @param probability the probability function used to determine if a node should be added on another level
+     *
+     * @return a generator backed by the specified probability function
+     */
+    static LevelGenerator of(Probability probability) {
+        return limit -> {
+            int height = 1;
+            while (height < limit && probability.nextBoolean()) {
+                height++;
+            }
+            return height;
+        };
+    }
+
+    /**
+     * Returns a thread-safe generator whose towers reach each further level with the specified probability.
+     *
+     * @param p the probability to reach the next level
+     *
+     * @return a geometric generator with the specified probability
+     *
+     * @throws IllegalArgumentException if the probability is not in the range [0, 1)
+     * @see GeometricLevelGenerator
+     */
+    static LevelGenerator geometric(double p) {
+        return new GeometricLevelGenerator(p);
+    }
+
+}
@@ -44,6 +44,13 @@ public class ListItem<T> {
     public ListItem() {
     }
 
+    /**
+     * {@inheritDoc}
+     *
+     * <p>Two list items are equal if their sequences of keys up to the end of the list are equal. The sequences are
+     * compared iteratively, so long lists do not overflow the stack. Sequences of {@link ExpressNode}s are compared
+     * together with the structures reachable from their nodes in a single traversal.
+     */
     @Override
     public boolean equals(Object o) {
         if (this == o) {
@@ -53,12 +60,38 @@ public class ListItem<T> {
         if (!(o instanceof ListItem<?> other)) {
             return false;
         }
-        return Objects.equals(key, other.key) && Objects.equals(next, other.next);
+        if (key instanceof ExpressNode<?> || other.key instanceof ExpressNode<?>) {
+            return ExpressNode.equalStructures(this, other);
+        }
+        ListItem<?> current = this;
+        ListItem<?> otherCurrent = other;
+        while (current != null && otherCurrent != null) {
+            if (current == otherCurrent) {
+                // Both sequences share the remaining items
+                return true;
+            }
+            if (!Objects.equals(current.key, otherCurrent.key)) {
+                return false;
+            }
+            current = current.next;
+            otherCurrent = otherCurrent.next;
+        }
+        return current == otherCurrent;
     }
 
+    /**
+     * {@inheritDoc}
+     *
+     * <p>The hash code is computed iteratively over the sequence of keys up to the end of the list like
+     * {@link java.util.List#hashCode()}.
+     */
     @Override
     public int hashCode() {
-        return Objects.hash(key, next);
+        int hashCode = 1;
+        for (ListItem<T> current = this; current != null; current = current.next) {
+            hashCode = 31 * hashCode + Objects.hashCode(current.key);
+        }
+        return hashCode;
     }
 
     @Override
@@ -0,0 +1,419 @@
+package h10;
+
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Comparator;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicMarkableReference;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Represents a lock-free skip list which can be accessed by multiple threads without external synchronization. In
+ * contrast to {@link SkipList}, the list does not contain duplicates.
+ *
+ * <p>Each node stores its successors in {@link AtomicMarkableReference}s, one per level. A node is removed by first
+ * marking its references from the top level down to the lowest level (logical deletion) and then unlinking it with a
+ * compare-and-set on the references of its predecessors (physical deletion), which every thread passing the node
+ * helps with. New nodes are linked bottom-up, so a node is part of the list as soon as it is linked on the lowest
+ * level.
+ *
+ * <p>{@link #contains(Object)} is wait-free, {@link #add(Object)} and {@link #remove(Object)} are lock-free. The
+ * probability function is called concurrently and has to be thread-safe.
+ *
+ * @param <T> the type of the elements in this list
+ *
+ * @see <a href="https://doi.org/10.1016/B978-0-12-415950-1.00014-2">Herlihy, Shavit: The Art of Multiprocessor
+ *     Programming, Chapter 14</a>
+ */
+public class LockFreeSkipList<T> {
+
+    /**
+     * The comparator used to maintain order in this list.
+     */
+    protected final Comparator<? super T> cmp;
+
+    /**
+     * The maximum height of the skip list.
+     */
+    final int maxHeight;
+
+    /**
+     * The probability function used to determine if a node should be added on another level, or {@code null} if the
+     * level generator has been set directly.
+     */
+    private volatile @Nullable Probability probability;
+
+    /**
+     * The thread-safe generator drawing the heights of new towers.
+     */
+    private volatile LevelGenerator levelGenerator;
+
+    /**
+     * The head of the skip list, a sentinel node spanning all possible levels.
+     */
+    final Node<T> head;
+
+    /**
+     * The highest number of levels used by a node so far.
+     */
+    private final AtomicInteger height = new AtomicInteger();
+
+    /**
+     * The number of items in the skip list, updated without contention between writers.
+     */
+    private final LongAdder size = new LongAdder();
+
+    /**
+     * Constructs and initializes an empty skip list without the probability to add elements on higher levels.
+     *
+     * @param cmp       the comparator used to maintain order in this list
+     * @param maxHeight the maximum height of the skip list
+     */
+    public LockFreeSkipList(Comparator<? super T> cmp, int maxHeight) {
+        this(cmp, maxHeight, SkipList.DEFAULT_PROBABILITY);
+    }
+
+    /**
+     * Constructs and initializes an empty skip list.
+     *
+     * @param cmp         the comparator used to maintain order in this list
+     * @param maxHeight   the maximum height of the skip list
+     * @param probability the thread-safe probability function used to determine if a node should be added on another
+     *                    level
+     */
+    public LockFreeSkipList(Comparator<? super T> cmp, int maxHeight, Probability probability) {
+        this(cmp, maxHeight, LevelGenerator.of(probability));
+        this.probability = probability;
+    }
+
+    /**
+     * Constructs and initializes an empty skip list whose tower heights are drawn by the specified generator.
+     *
+     * @param cmp            the comparator used to maintain order in this list
+     * @param maxHeight      the maximum height of the skip list
+     * @param levelGenerator the thread-safe generator drawing the heights of new towers, e.g. a
+     *                       {@link GeometricLevelGenerator}
+     */
+    public LockFreeSkipList(Comparator<? super T> cmp, int maxHeight, LevelGenerator levelGenerator) {
+        this.cmp = cmp;
+        this.maxHeight = maxHeight;
+        this.levelGenerator = levelGenerator;
+        this.head = new Node<>(null, Math.max(1, maxHeight));
+    }
+
+    /**
+     * Returns the highest number of levels used by an element of this skip list so far.
+     *
+     * @return the highest number of levels used by an element of this skip list so far
+     */
+    public int getHeight() {
+        return height.get();
+    }
+
+    /**
+     * Returns the probability function used to determine if a node should be added on another level.
+     *
+     * @return the probability function used to determine if a node should be added on another level, or
+     *         {@code null} if the level generator has been set directly
+     */
+    public @Nullable Probability getProbability() {
+        return probability;
+    }
+
+    /**
+     * Sets the thread-safe probability function used to determine if a node should be added on another level.
+     *
+     * @param probability the probability function
+     */
+    public void setProbability(Probability probability) {
+        this.probability = probability;
+        this.levelGenerator = LevelGenerator.of(probability);
+    }
+
+    /**
+     * Returns the generator drawing the heights of new towers.
+     *
+     * @return the generator drawing the heights of new towers
+     */
+    public LevelGenerator getLevelGenerator() {
+        return levelGenerator;
+    }
+
+    /**
+     * Sets the thread-safe generator drawing the heights of new towers. The probability function is no longer used.
+     *
+     * @param levelGenerator the generator drawing the heights of new towers
+     */
+    public void setLevelGenerator(LevelGenerator levelGenerator) {
+        this.probability = null;
+        this.levelGenerator = levelGenerator;
+    }
+
+    /**
+     * Returns the number of items in this skip list. The result is exact if no update is in progress.
+     *
+     * @return the number of items in this skip list
+     */
+    public int size() {
+        return size.intValue();
+    }
+
+    /**
+     * Returns {@code true} if this list contains no elements.
+     *
+     * @return {@code true} if this list contains no elements
+     */
+    public boolean isEmpty() {
+        return head.next[0].getReference() == null;
+    }
+
+    /**
+     * Returns {@code true} if this list contains the specified element. Marked nodes are skipped but not unlinked, so
+     * the search does not depend on other threads.
+     *
+     * @param key the element whose presence in this list is to be tested
+     *
+     * @return {@code true} if this list contains the specified element
+     */
+    public boolean contains(T key) {
+        boolean[] marked = {false};
+        Node<T> predecessor = head;
+        Node<T> current = null;
+        for (int level = head.next.length - 1; level >= 0; level--) {
+            current = predecessor.next[level].getReference();
+            while (current != null) {
+                Node<T> successor = current.next[level].get(marked);
+                // Skip logically deleted nodes
+                while (marked[0]) {
+                    current = successor;
+                    if (current == null) {
+                        break;
+                    }
+                    successor = current.next[level].get(marked);
+                }
+                if (current == null || cmp.compare(current.value, key) >= 0) {
+                    break;
+                }
+                predecessor = current;
+                current = successor;
+            }
+        }
+        return current != null && cmp.compare(current.value, key) == 0;
+    }
+
+    /**
+     * Stores the last node smaller than the specified element and its successor of each level in the specified
+     * arrays. Marked nodes on the way are unlinked.
+     *
+     * @param key          the element to search for
+     * @param predecessors the array to store the predecessors in
+     * @param successors   the array to store the successors in
+     *
+     * @return {@code true} if the successor on the lowest level is equal to the element
+     */
+    private boolean find(T key, Node<T>[] predecessors, Node<T>[] successors) {
+        boolean[] marked = {false};
+        retry:
+        while (true) {
+            Node<T> predecessor = head;
+            for (int level = head.next.length - 1; level >= 0; level--) {
+                Node<T> current = predecessor.next[level].getReference();
+                while (current != null) {
+                    Node<T> successor = current.next[level].get(marked);
+                    // Help removing logically deleted nodes
+                    while (marked[0]) {
+                        if (!predecessor.next[level].compareAndSet(current, successor, false, false)) {
+                            // The predecessor changed or has been marked itself
+                            continue retry;
+                        }
+                        current = successor;
+                        if (current == null) {
+                            break;
+                        }
+                        successor = current.next[level].get(marked);
+                    }
+                    if (current == null || cmp.compare(current.value, key) >= 0) {
+                        break;
+                    }
+                    predecessor = current;
+                    current = successor;
+                }
+                predecessors[level] = predecessor;
+                successors[level] = current;
+            }
+            return successors[0] != null && cmp.compare(successors[0].value, key) == 0;
+        }
+    }
+
+    /**
+     * Returns the height of a new tower drawn by the level generator, which does not exceed the maximum height.
+     *
+     * @return the height of a new tower
+     */
+    private int randomHeight() {
+        return levelGenerator.nextHeight(head.next.length);
+    }
+
+    /**
+     * Creates an array for the nodes of each level.
+     *
+     * @return an array for the nodes of each level
+     */
+    @SuppressWarnings("unchecked")
+    private Node<T>[] newLevelArray() {
+        return (Node<T>[]) new Node<?>[head.next.length];
+    }
+
+    /**
+     * Adds the specified element to this list if it is not already present. The element is linked from the lowest
+     * level upwards.
+     *
+     * @param key the element to be added
+     *
+     * @return {@code true} if the element was added
+     */
+    public boolean add(T key) {
+        int towerHeight = randomHeight();
+        Node<T>[] predecessors = newLevelArray();
+        Node<T>[] successors = newLevelArray();
+        while (true) {
+            if (find(key, predecessors, successors)) {
+                return false;
+            }
+            Node<T> node = new Node<>(key, towerHeight);
+            for (int level = 0; level < towerHeight; level++) {
+                node.next[level].set(successors[level], false);
+            }
+            // Linking on the lowest level adds the element to the list
+            if (!predecessors[0].next[0].compareAndSet(successors[0], node, false, false)) {
+                continue;
+            }
+            size.increment();
+            height.accumulateAndGet(towerHeight, Math::max);
+            for (int level = 1; level < towerHeight; level++) {
+                while (true) {
+                    boolean[] marked = {false};
+                    Node<T> successor = node.next[level].get(marked);
+                    if (marked[0]) {
+                        // The node is being removed, do not link it any further
+                        return true;
+                    }
+                    if (successor != successors[level]
+                        && !node.next[level].compareAndSet(successor, successors[level], false, false)) {
+                        continue;
+                    }
+                    if (predecessors[level].next[level].compareAndSet(successors[level], node, false, false)) {
+                        break;
+                    }
+                    find(key, predecessors, successors);
+                    if (successors[0] != node) {
+                        // The node has already been removed
+                        return true;
+                    }
+                }
+            }
+            return true;
+        }
+    }
+
+    /**
+     * Removes the specified element from this list, if it is present. The element is marked from the highest level
+     * downwards and unlinked afterwards.
+     *
+     * @param key the element to be removed from this list, if present
+     *
+     * @return {@code true} if this call removed the element
+     */
+    public boolean remove(T key) {
+        Node<T>[] predecessors = newLevelArray();
+        Node<T>[] successors = newLevelArray();
+        if (!find(key, predecessors, successors)) {
+            return false;
+        }
+        Node<T> node = successors[0];
+        boolean[] marked = {false};
+        for (int level = node.next.length - 1; level > 0; level--) {
+            Node<T> successor = node.next[level].get(marked);
+            while (!marked[0]) {
+                node.next[level].compareAndSet(successor, successor, false, true);
+                successor = node.next[level].get(marked);
+            }
+        }
+        // Marking the lowest level removes the element from the list
+        Node<T> successor = node.next[0].get(marked);
+        while (true) {
+            boolean markedByThisThread = node.next[0].compareAndSet(successor, successor, false, true);
+            successor = node.next[0].get(marked);
+            if (markedByThisThread) {
+                size.decrement();
+                // Unlink the node physically
+                find(key, predecessors, successors);
+                return true;
+            } else if (marked[0]) {
+                // Another thread removed the element
+                return false;
+            }
+        }
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+        sb.append("[");
+        boolean[] marked = {false};
+        for (int level = getHeight() - 1; level >= 0; level--) {
+            sb.append("[");
+            boolean first = true;
+            for (Node<T> element = head.next[level].getReference(); element != null; ) {
+                Node<T> next = element.next[level].get(marked);
+                if (!marked[0]) {
+                    sb.append(first ? "" : ", ").append(element.value);
+                    first = false;
+                }
+                element = next;
+            }
+            sb.append("]");
+            if (level > 0) {
+                sb.append(", ");
+            }
+        }
+        sb.append("]");
+        return sb.toString();
+    }
+
+    /**
+     * An element of the list holding its value and its markable successors on all levels it occupies.
+     *
+     * @param <T> type of value
+     */
+    static final class Node<T> {
+
+        /**
+         * The value of this node, {@code null} for the head of a list.
+         */
+        final T value;
+
+        /**
+         * The successors of this node where the index is the level of the successor. The mark of a reference is set
+         * if this node has been removed on that level.
+         */
+        final AtomicMarkableReference<Node<T>>[] next;
+
+        /**
+         * Constructs and initializes a node with the specified value and height.
+         *
+         * @param value  the value of the node
+         * @param height the number of levels the node occupies
+         */
+        @SuppressWarnings("unchecked")
+        Node(T value, int height) {
+            this.value = value;
+            this.next = (AtomicMarkableReference<Node<T>>[]) new AtomicMarkableReference<?>[height];
+            for (int level = 0; level < height; level++) {
+                next[level] = new AtomicMarkableReference<>(null, false);
+            }
+        }
+
+    }
+
+}
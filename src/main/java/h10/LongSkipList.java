@@ -0,0 +1,254 @@
+package h10;
+
+/**
+ * Represents a skip list of {@code long} elements in ascending order. It uses the layout of {@link TowerSkipList} but
+ * stores the elements as primitives and compares them with the natural order of {@code long}, so neither
+ * {@link #add(long)}, {@link #contains(long)} nor {@link #remove(long)} box their argument or call a comparator.
+ *
+ * @see TowerSkipList
+ */
+public class LongSkipList {
+
+    /**
+     * The maximum height of the skip list.
+     */
+    final int maxHeight;
+
+    /**
+     * The probability function used to determine if a node should be added on another level.
+     */
+    private Probability probability;
+
+    /**
+     * The head of the skip list, a sentinel node spanning all possible levels.
+     */
+    final Node head;
+
+    /**
+     * The predecessors of the last searched position on each level, reused by every update to avoid allocations.
+     */
+    private final Node[] update;
+
+    /**
+     * The current height of the skip list.
+     */
+    int height = 0;
+
+    /**
+     * The number of items in the skip list.
+     */
+    int size = 0;
+
+    /**
+     * Constructs and initializes an empty skip list without the probability to add elements on higher levels.
+     *
+     * @param maxHeight the maximum height of the skip list
+     */
+    public LongSkipList(int maxHeight) {
+        this(maxHeight, SkipList.DEFAULT_PROBABILITY);
+    }
+
+    /**
+     * Constructs and initializes an empty skip list.
+     *
+     * @param maxHeight   the maximum height of the skip list
+     * @param probability the probability function used to determine if a node should be added on another level
+     */
+    public LongSkipList(int maxHeight, Probability probability) {
+        this.maxHeight = maxHeight;
+        this.probability = probability;
+        this.head = new Node(0, Math.max(1, maxHeight));
+        this.update = new Node[head.next.length];
+    }
+
+    /**
+     * Returns the current height of this skip list.
+     *
+     * @return the current height of this skip list
+     */
+    public int getHeight() {
+        return height;
+    }
+
+    /**
+     * Returns the probability function used to determine if a node should be added on another level.
+     *
+     * @return the probability function used to determine if a node should be added on another level
+     */
+    public Probability getProbability() {
+        return probability;
+    }
+
+    /**
+     * Sets the probability function used to determine if a node should be added on another level.
+     *
+     * @param probability the probability function
+     */
+    public void setProbability(Probability probability) {
+        this.probability = probability;
+    }
+
+    /**
+     * Returns the number of items in this skip list.
+     *
+     * @return the number of items in this skip list
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Returns {@code true} if this list contains no elements.
+     *
+     * @return {@code true} if this list contains no elements
+     */
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Returns {@code true} if this list contains the specified element.
+     *
+     * @param key the element whose presence in this list is to be tested
+     *
+     * @return {@code true} if this list contains the specified element
+     */
+    public boolean contains(long key) {
+        Node current = head;
+        for (int level = height - 1; level >= 0; level--) {
+            for (Node next = current.next[level]; next != null && next.value <= key; next = current.next[level]) {
+                if (next.value == key) {
+                    return true;
+                }
+                current = next;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Stores the last node of each level whose value is smaller than (or equal to, if {@code inclusive} is set) the
+     * specified element in {@link #update}.
+     *
+     * @param key       the element to search for
+     * @param inclusive whether nodes equal to the element are skipped as well
+     */
+    private void findPredecessors(long key, boolean inclusive) {
+        Node current = head;
+        for (int level = height - 1; level >= 0; level--) {
+            for (Node next = current.next[level];
+                 next != null && (next.value < key || inclusive && next.value == key);
+                 next = current.next[level]) {
+                current = next;
+            }
+            update[level] = current;
+        }
+    }
+
+    /**
+     * Returns the height of a new tower. The tower grows by one level as long as the probability function returns
+     * {@code true} and the maximum height is not reached.
+     *
+     * @return the height of a new tower
+     */
+    private int randomHeight() {
+        int towerHeight = 1;
+        while (towerHeight < head.next.length && probability.nextBoolean()) {
+            towerHeight++;
+        }
+        return towerHeight;
+    }
+
+    /**
+     * Adds the specified element to this list. The element will be added after all equal elements on the lowest level
+     * and on the next levels if the probability function returns {@code true}.
+     *
+     * @param key the element to be added
+     */
+    public void add(long key) {
+        findPredecessors(key, true);
+        Node node = new Node(key, randomHeight());
+        // New levels start at the head
+        for (int level = height; level < node.next.length; level++) {
+            update[level] = head;
+        }
+        height = Math.max(height, node.next.length);
+        for (int level = 0; level < node.next.length; level++) {
+            node.next[level] = update[level].next[level];
+            update[level].next[level] = node;
+        }
+        size++;
+    }
+
+    /**
+     * Removes the first occurrence of the specified element from this list, if it is present. The element will be
+     * removed from all levels.
+     *
+     * @param key the element to be removed from this list, if present
+     */
+    public void remove(long key) {
+        findPredecessors(key, false);
+        Node node = height == 0 ? null : update[0].next[0];
+        if (node == null || node.value != key) {
+            return;
+        }
+        for (int level = 0; level < node.next.length; level++) {
+            update[level].next[level] = node.next[level];
+        }
+        // Remove empty levels
+        while (height > 0 && head.next[height - 1] == null) {
+            height--;
+        }
+        size--;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+        sb.append("[");
+        for (int level = height - 1; level >= 0; level--) {
+            sb.append("[");
+            for (Node element = head.next[level]; element != null; element = element.next[level]) {
+                sb.append(element.value);
+                if (element.next[level] != null) {
+                    sb.append(", ");
+                }
+            }
+            sb.append("]");
+            if (level > 0) {
+                sb.append(", ");
+            }
+        }
+        sb.append("]");
+        return sb.toString();
+    }
+
+    /**
+     * An element of the list holding its value and its successors on all levels it occupies.
+     */
+    static final class Node {
+
+        /**
+         * The value of this node.
+         */
+        final long value;
+
+        /**
+         * The successor nodes of this node where the index is the level of the successor.
+         */
+        final Node[] next;
+
+        /**
+         * Constructs and initializes a node with the specified value and height.
+         *
+         * @param value  the value of the node
+         * @param height the number of levels the node occupies
+         */
+        Node(long value, int height) {
+            this.value = value;
+            this.next = new Node[height];
+        }
+
+    }
+
+}
@@ -0,0 +1,614 @@
+package h10;
+
+import org.jetbrains.annotations.Nullable;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.UncheckedIOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.PriorityQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.BiConsumer;
+
+/**
+ * Represents an embedded ordered key-value store based on a log-structured merge tree. Writes go to a {@link SkipList}
+ * in memory, the memtable. Once the memtable reaches its size limit, it is frozen and a background thread flushes it
+ * into an immutable {@linkplain SortedRun sorted run} file, so the data written to the disk is sequential. When
+ * enough runs have accumulated, the background thread merges all of them into a single run, dropping overwritten
+ * values and deletions.
+ *
+ * <p>Reads consult the memtable, the frozen memtable and the runs from the newest to the oldest, and the first entry
+ * found for a key wins. A deletion is stored as an entry without a value which hides older values of its key.
+ *
+ * <p>Each run file is named after the range of memtable generations merged into it. When the store is opened, runs
+ * whose range is covered by another run are left over from an interrupted compaction and are deleted. Writes which
+ * have not been flushed yet are lost on a crash; combine the store with a write-ahead log like in
+ * {@link DurableSkipList} if they have to survive.
+ *
+ * <p>Writes are serialized, reads can run concurrently with writes and with the background thread.
+ *
+ * @param <K> the type of the keys
+ * @param <V> the type of the values
+ */
+public class LsmStore<K, V> implements Closeable {
+
+    /**
+     * The file extension of run files.
+     */
+    private static final String RUN_EXTENSION = ".run";
+
+    /**
+     * The file extension of run files which are being written.
+     */
+    private static final String TEMPORARY_EXTENSION = ".tmp";
+
+    /**
+     * The directory of the run files.
+     */
+    private final Path directory;
+
+    /**
+     * The comparator of the keys.
+     */
+    private final Comparator<? super K> cmp;
+
+    /**
+     * The comparator of the memtable entries, comparing their keys.
+     */
+    private final Comparator<Entry<K, V>> entryCmp;
+
+    /**
+     * The codec of the keys.
+     */
+    private final KeyCodec<K> keyCodec;
+
+    /**
+     * The codec of the values.
+     */
+    private final KeyCodec<V> valueCodec;
+
+    /**
+     * The number of entries after which the memtable is flushed.
+     */
+    private final int memtableLimit;
+
+    /**
+     * The number of runs which triggers a compaction.
+     */
+    private final int compactionThreshold;
+
+    /**
+     * The thread flushing memtables and compacting runs.
+     */
+    private final ExecutorService background = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "lsm-store-background");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    /**
+     * The memtable receiving the writes.
+     */
+    private volatile SkipList<Entry<K, V>> memtable;
+
+    /**
+     * The frozen memtable which is being flushed, or {@code null} if there is none.
+     */
+    private volatile @Nullable SkipList<Entry<K, V>> frozen;
+
+    /**
+     * The pending flush of the frozen memtable, or {@code null} if there is none.
+     */
+    private @Nullable Future<?> flush;
+
+    /**
+     * The runs from the newest to the oldest, replaced as a whole when runs are added or merged.
+     */
+    private volatile List<SortedRun<K, V>> runs;
+
+    /**
+     * The generation of the next flushed memtable.
+     */
+    private long nextGeneration;
+
+    /**
+     * Constructs and initializes a store with the specified runs.
+     *
+     * @param directory           the directory of the run files
+     * @param cmp                 the comparator of the keys
+     * @param keyCodec            the codec of the keys
+     * @param valueCodec          the codec of the values
+     * @param memtableLimit       the number of entries after which the memtable is flushed
+     * @param compactionThreshold the number of runs which triggers a compaction
+     * @param runs                the runs from the newest to the oldest
+     */
+    private LsmStore(Path directory, Comparator<? super K> cmp, KeyCodec<K> keyCodec, KeyCodec<V> valueCodec,
+                     int memtableLimit, int compactionThreshold, List<SortedRun<K, V>> runs) {
+        this.directory = directory;
+        this.cmp = cmp;
+        this.entryCmp = (a, b) -> cmp.compare(a.key(), b.key());
+        this.keyCodec = keyCodec;
+        this.valueCodec = valueCodec;
+        this.memtableLimit = memtableLimit;
+        this.compactionThreshold = compactionThreshold;
+        this.memtable = newMemtable();
+        this.runs = runs;
+        this.nextGeneration = runs.isEmpty() ? 0 : runs.get(0).lastGeneration + 1;
+    }
+
+    /**
+     * Opens the store in the specified directory, creating the directory if it does not exist.
+     *
+     * @param directory           the directory of the run files
+     * @param cmp                 the comparator of the keys
+     * @param keyCodec            the codec of the keys
+     * @param valueCodec          the codec of the values
+     * @param memtableLimit       the number of entries after which the memtable is flushed
+     * @param compactionThreshold the number of runs which triggers a compaction
+     * @param <K>                 the type of the keys
+     * @param <V>                 the type of the values
+     *
+     * @return the opened store
+     *
+     * @throws IOException              if an I/O error occurs or a run file is malformed
+     * @throws IllegalArgumentException if the memtable limit is not positive or the compaction threshold is smaller
+     *                                  than 2
+     */
+    public static <K, V> LsmStore<K, V> open(Path directory, Comparator<? super K> cmp, KeyCodec<K> keyCodec,
+                                             KeyCodec<V> valueCodec, int memtableLimit, int compactionThreshold)
+        throws IOException {
+        if (memtableLimit <= 0) {
+            throw new IllegalArgumentException("Memtable limit must be positive: %s".formatted(memtableLimit));
+        }
+        if (compactionThreshold < 2) {
+            throw new IllegalArgumentException("Compaction threshold must be at least 2: %s"
+                .formatted(compactionThreshold));
+        }
+        Files.createDirectories(directory);
+        List<long[]> generations = new ArrayList<>();
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory)) {
+            for (Path file : files) {
+                String name = file.getFileName().toString();
+                if (name.endsWith(TEMPORARY_EXTENSION)) {
+                    // Run which has not been completed
+                    Files.delete(file);
+                } else if (name.endsWith(RUN_EXTENSION)) {
+                    String[] range = name.substring(0, name.length() - RUN_EXTENSION.length()).split("-");
+                    generations.add(new long[]{Long.parseLong(range[0], 16), Long.parseLong(range[1], 16)});
+                }
+            }
+        }
+        // Newest runs first, wider runs first among runs ending with the same generation
+        generations.sort(Comparator.<long[]>comparingLong(range -> range[1]).reversed()
+            .thenComparingLong(range -> range[0]));
+        List<SortedRun<K, V>> runs = new ArrayList<>();
+        long covered = Long.MAX_VALUE;
+        for (long[] range : generations) {
+            Path file = directory.resolve(runName(range[0], range[1]));
+            if (range[1] >= covered) {
+                // Left over from a compaction which merged it into a newer run
+                Files.delete(file);
+                continue;
+            }
+            runs.add(SortedRun.open(file, range[0], range[1], cmp, keyCodec, valueCodec));
+            covered = range[0];
+        }
+        return new LsmStore<>(directory, cmp, keyCodec, valueCodec, memtableLimit, compactionThreshold,
+            List.copyOf(runs));
+    }
+
+    /**
+     * Returns the file name of the run merging the specified range of generations.
+     *
+     * @param firstGeneration the generation of the oldest memtable merged into the run
+     * @param lastGeneration  the generation of the newest memtable merged into the run
+     *
+     * @return the file name of the run
+     */
+    private static String runName(long firstGeneration, long lastGeneration) {
+        return "%016x-%016x%s".formatted(firstGeneration, lastGeneration, RUN_EXTENSION);
+    }
+
+    /**
+     * Returns a new empty memtable.
+     *
+     * @return a new empty memtable
+     */
+    private SkipList<Entry<K, V>> newMemtable() {
+        return SkipList.adaptive(entryCmp, 0.5);
+    }
+
+    /**
+     * Returns the number of runs of this store.
+     *
+     * @return the number of runs of this store
+     */
+    public int runCount() {
+        return runs.size();
+    }
+
+    /**
+     * Returns the value of the specified key.
+     *
+     * @param key the key whose value is to be returned
+     *
+     * @return the value of the key, or {@code null} if the store does not contain the key
+     *
+     * @throws UncheckedIOException if an entry of a run cannot be decoded
+     */
+    public @Nullable V get(K key) {
+        Entry<K, V> probe = new Entry<>(key, null);
+        Entry<K, V> entry = find(memtable, probe);
+        if (entry == null) {
+            SkipList<Entry<K, V>> frozen = this.frozen;
+            entry = frozen == null ? null : find(frozen, probe);
+        }
+        if (entry == null) {
+            for (SortedRun<K, V> run : runs) {
+                entry = run.get(key);
+                if (entry != null) {
+                    break;
+                }
+            }
+        }
+        return entry == null ? null : entry.value();
+    }
+
+    /**
+     * Returns the newest entry of the specified key in a memtable. Since newer entries are added after equal ones,
+     * it is the last entry not greater than the key.
+     *
+     * @param memtable the memtable to search
+     * @param probe    an entry with the key to search for
+     *
+     * @return the newest entry of the key, or {@code null} if the memtable does not contain the key
+     */
+    private @Nullable Entry<K, V> find(SkipList<Entry<K, V>> memtable, Entry<K, V> probe) {
+        ListItem<ExpressNode<Entry<K, V>>> node = memtable.floorNode(probe, true);
+        if (node == null || entryCmp.compare(node.key.value, probe) != 0) {
+            return null;
+        }
+        return node.key.value;
+    }
+
+    /**
+     * Associates the specified value with the specified key.
+     *
+     * @param key   the key
+     * @param value the value, not {@code null}
+     *
+     * @throws IOException if a previous flush failed
+     */
+    public void put(K key, V value) throws IOException {
+        write(new Entry<>(key, Objects.requireNonNull(value, "value")));
+    }
+
+    /**
+     * Removes the value of the specified key, if present.
+     *
+     * @param key the key
+     *
+     * @throws IOException if a previous flush failed
+     */
+    public void delete(K key) throws IOException {
+        write(new Entry<>(key, null));
+    }
+
+    /**
+     * Adds the specified entry to the memtable and freezes the memtable once it reaches its limit.
+     *
+     * @param entry the entry to add
+     *
+     * @throws IOException if a previous flush failed
+     */
+    private synchronized void write(Entry<K, V> entry) throws IOException {
+        memtable.add(entry);
+        if (memtable.size() >= memtableLimit) {
+            freeze();
+        }
+    }
+
+    /**
+     * Freezes the memtable and schedules its flush. If the previous frozen memtable has not been flushed yet, the
+     * calling thread waits for it, which limits the memory used by unflushed memtables.
+     *
+     * @throws IOException if the previous flush failed
+     */
+    private synchronized void freeze() throws IOException {
+        awaitFlush();
+        if (memtable.isEmpty()) {
+            return;
+        }
+        SkipList<Entry<K, V>> table = memtable;
+        long generation = nextGeneration++;
+        frozen = table;
+        memtable = newMemtable();
+        flush = background.submit(() -> {
+            flush(table, generation);
+            return null;
+        });
+    }
+
+    /**
+     * Waits for the pending flush to complete.
+     *
+     * @throws IOException if the flush failed
+     */
+    private synchronized void awaitFlush() throws IOException {
+        if (flush == null) {
+            return;
+        }
+        try {
+            flush.get();
+            flush = null;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting for a flush");
+        } catch (ExecutionException e) {
+            throw e.getCause() instanceof IOException cause ? cause : new IOException(e.getCause());
+        }
+    }
+
+    /**
+     * Flushes the memtable and waits until it has been written to a run.
+     *
+     * @throws IOException if the flush fails
+     */
+    public synchronized void flush() throws IOException {
+        freeze();
+        awaitFlush();
+    }
+
+    /**
+     * Writes the specified frozen memtable to a run and compacts the runs if there are enough of them. Called by the
+     * background thread.
+     *
+     * @param table      the frozen memtable
+     * @param generation the generation of the memtable
+     *
+     * @throws IOException if an I/O error occurs
+     */
+    private void flush(SkipList<Entry<K, V>> table, long generation) throws IOException {
+        SortedRun<K, V> run = writeRun(generation, generation, newest(table.iterator()));
+        List<SortedRun<K, V>> runs = new ArrayList<>();
+        runs.add(run);
+        runs.addAll(this.runs);
+        // Publish the run before the memtable is dropped, so its entries are always visible
+        this.runs = List.copyOf(runs);
+        frozen = null;
+        if (runs.size() >= compactionThreshold) {
+            compact();
+        }
+    }
+
+    /**
+     * Merges all runs into a single run, keeping only the newest entry of each key and dropping deletions, since
+     * there are no older runs left which they would have to hide. Called by the background thread.
+     *
+     * @throws IOException if an I/O error occurs
+     */
+    private void compact() throws IOException {
+        List<SortedRun<K, V>> runs = this.runs;
+        List<Iterator<Entry<K, V>>> sources = new ArrayList<>();
+        for (SortedRun<K, V> run : runs) {
+            sources.add(run.iterator());
+        }
+        Iterator<Entry<K, V>> merged = new MergingIterator(sources);
+        SortedRun<K, V> run = writeRun(runs.get(runs.size() - 1).firstGeneration, runs.get(0).lastGeneration, merged);
+        this.runs = List.of(run);
+        for (SortedRun<K, V> old : runs) {
+            // Mapped files stay readable for concurrent readers after they have been deleted
+            Files.deleteIfExists(old.file);
+        }
+    }
+
+    /**
+     * Writes the specified entries to a temporary file and moves it to the file of a run when it is complete.
+     *
+     * @param firstGeneration the generation of the oldest memtable merged into the run
+     * @param lastGeneration  the generation of the newest memtable merged into the run
+     * @param entries         the entries with distinct keys in ascending order
+     *
+     * @return the written run
+     *
+     * @throws IOException if an I/O error occurs
+     */
+    private SortedRun<K, V> writeRun(long firstGeneration, long lastGeneration, Iterator<Entry<K, V>> entries)
+        throws IOException {
+        String name = runName(firstGeneration, lastGeneration);
+        Path temporary = directory.resolve(name + TEMPORARY_EXTENSION);
+        Path file = directory.resolve(name);
+        SortedRun.write(temporary, entries, keyCodec, valueCodec);
+        Files.move(temporary, file, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        return SortedRun.open(file, firstGeneration, lastGeneration, cmp, keyCodec, valueCodec);
+    }
+
+    /**
+     * Performs the given action for each key and value of this store in ascending order of the keys.
+     *
+     * @param action the action to be performed for each key and value
+     *
+     * @throws UncheckedIOException if an entry of a run cannot be decoded
+     */
+    public void forEach(BiConsumer<? super K, ? super V> action) {
+        List<Iterator<Entry<K, V>>> sources = new ArrayList<>();
+        // Read the runs last, so entries moving from the memtables to the runs meanwhile are not missed
+        sources.add(newest(memtable.iterator()));
+        SkipList<Entry<K, V>> frozen = this.frozen;
+        if (frozen != null) {
+            sources.add(newest(frozen.iterator()));
+        }
+        for (SortedRun<K, V> run : runs) {
+            sources.add(run.iterator());
+        }
+        for (Iterator<Entry<K, V>> iterator = new MergingIterator(sources); iterator.hasNext(); ) {
+            Entry<K, V> entry = iterator.next();
+            action.accept(entry.key(), entry.value());
+        }
+    }
+
+    /**
+     * Returns an iterator over the newest entry of each key of a memtable, which is the last one of the equal
+     * entries.
+     *
+     * @param entries the entries of a memtable in ascending order
+     *
+     * @return an iterator over the newest entries
+     */
+    private Iterator<Entry<K, V>> newest(Iterator<Entry<K, V>> entries) {
+        return new Iterator<>() {
+            private @Nullable Entry<K, V> next = entries.hasNext() ? entries.next() : null;
+
+            @Override
+            public boolean hasNext() {
+                return next != null;
+            }
+
+            @Override
+            public Entry<K, V> next() {
+                if (next == null) {
+                    throw new NoSuchElementException();
+                }
+                Entry<K, V> current = next;
+                next = null;
+                while (entries.hasNext()) {
+                    Entry<K, V> entry = entries.next();
+                    if (entryCmp.compare(entry, current) != 0) {
+                        next = entry;
+                        break;
+                    }
+                    current = entry;
+                }
+                return current;
+            }
+        };
+    }
+
+    /**
+     * Flushes the memtable and stops the background thread.
+     *
+     * @throws IOException if the flush fails
+     */
+    @Override
+    public synchronized void close() throws IOException {
+        try {
+            flush();
+        } finally {
+            background.shutdown();
+        }
+    }
+
+    /**
+     * An entry of a memtable or a run. An entry without a value marks the deletion of its key.
+     *
+     * @param key   the key
+     * @param value the value, or {@code null} if the key has been deleted
+     * @param <K>   the type of the key
+     * @param <V>   the type of the value
+     */
+    record Entry<K, V>(K key, @Nullable V value) {
+    }
+
+    /**
+     * An iterator merging sources of entries with distinct keys in ascending order and skipping deletions. If several
+     * sources contain the same key, the entry of the source with the smallest index wins.
+     */
+    private final class MergingIterator implements Iterator<Entry<K, V>> {
+
+        /**
+         * The sources of entries.
+         */
+        private final List<Iterator<Entry<K, V>>> sources;
+
+        /**
+         * The next entry of each source which has not been consumed.
+         */
+        private final List<@Nullable Entry<K, V>> heads;
+
+        /**
+         * The indices of the sources with a next entry, ordered by the key of the entry and then by index.
+         */
+        private final PriorityQueue<Integer> queue;
+
+        /**
+         * The next entry to return, or {@code null} if it has to be determined.
+         */
+        private @Nullable Entry<K, V> next;
+
+        /**
+         * Constructs and initializes an iterator merging the specified sources.
+         *
+         * @param sources the sources from the newest to the oldest
+         */
+        MergingIterator(List<Iterator<Entry<K, V>>> sources) {
+            this.sources = sources;
+            this.heads = new ArrayList<>(sources.size());
+            this.queue = new PriorityQueue<>(Math.max(1, sources.size()), (a, b) -> {
+                int value = entryCmp.compare(heads.get(a), heads.get(b));
+                return value != 0 ? value : Integer.compare(a, b);
+            });
+            for (int i = 0; i < sources.size(); i++) {
+                heads.add(null);
+                advance(i);
+            }
+        }
+
+        /**
+         * Replaces the consumed entry of the specified source with its next entry.
+         *
+         * @param source the index of the source
+         */
+        private void advance(int source) {
+            Iterator<Entry<K, V>> iterator = sources.get(source);
+            if (iterator.hasNext()) {
+                heads.set(source, iterator.next());
+                queue.add(source);
+            } else {
+                heads.set(source, null);
+            }
+        }
+
+        @Override
+        public boolean hasNext() {
+            while (next == null && !queue.isEmpty()) {
+                int source = queue.remove();
+                Entry<K, V> entry = heads.get(source);
+                assert entry != null;
+                advance(source);
+                // Skip the older entries of the same key
+                while (!queue.isEmpty() && entryCmp.compare(heads.get(queue.element()), entry) == 0) {
+                    advance(queue.remove());
+                }
+                if (entry.value() != null) {
+                    next = entry;
+                }
+            }
+            return next != null;
+        }
+
+        @Override
+        public Entry<K, V> next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            Entry<K, V> current = next;
+            next = null;
+            return current;
+        }
+
+    }
+
+}
@@ -0,0 +1,423 @@
+package h10;
+
+import org.jetbrains.annotations.Nullable;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * Represents a read-only skip list stored in a file which is mapped into memory. Searches follow the towers directly
+ * on the mapped bytes and only decode the elements they compare with, so opening a file does not rebuild the list,
+ * and processes mapping the same file share its pages.
+ *
+ * <p>The file starts with a magic number followed by one record per element in descending order and the record of the
+ * head, and ends with a trailer. A record consists of its tower height {@code h}, the offsets of the next records on
+ * the levels {@code 0} to {@code h - 1} ({@code 0} at the end of a level) and the element encoded with a
+ * {@link KeyCodec}. The head record has the height of the list and no element. Since every record only refers to
+ * records written before it, the file is written sequentially. All numbers are 4-byte big-endian integers, so a file
+ * is limited to 2 GB.
+ * <pre>{@code
+ * magic | record_{n-1} | ... | record_0 | head | magic size height head-offset
+ * }</pre>
+ *
+ * @param <T> the type of the elements in this list
+ *
+ * @see #write(SkipList, Path, KeyCodec)
+ * @see #open(Path, Comparator, KeyCodec)
+ */
+public class MappedSkipList<T> implements Iterable<T> {
+
+    /**
+     * The magic number at the start and in the trailer of a file.
+     */
+    private static final int MAGIC = 0x534B4D31;
+
+    /**
+     * The number of bytes of the trailer at the end of a file.
+     */
+    private static final int TRAILER_SIZE = 4 * Integer.BYTES;
+
+    /**
+     * The comparator used to search this list.
+     */
+    protected final Comparator<? super T> cmp;
+
+    /**
+     * The codec decoding the elements of the records.
+     */
+    private final KeyCodec<? extends T> codec;
+
+    /**
+     * The mapped file.
+     */
+    private final ByteBuffer buffer;
+
+    /**
+     * The number of elements in this list.
+     */
+    private final int size;
+
+    /**
+     * The height of this list.
+     */
+    private final int height;
+
+    /**
+     * The offset of the record of the head.
+     */
+    private final int head;
+
+    /**
+     * Constructs and initializes a list reading the specified mapped file.
+     *
+     * @param buffer the mapped file
+     * @param cmp    the comparator used to search the list
+     * @param codec  the codec decoding the elements
+     * @param size   the number of elements in the list
+     * @param height the height of the list
+     * @param head   the offset of the record of the head
+     */
+    private MappedSkipList(ByteBuffer buffer, Comparator<? super T> cmp, KeyCodec<? extends T> codec, int size,
+                           int height, int head) {
+        this.buffer = buffer;
+        this.cmp = cmp;
+        this.codec = codec;
+        this.size = size;
+        this.height = height;
+        this.head = head;
+    }
+
+    /**
+     * Writes the specified list to a file which can be opened with {@link #open(Path, Comparator, KeyCodec)}. The
+     * towers keep their heights, and the elements are written from the last to the first one, so each record refers to
+     * records which have already been written. The list must not be modified while it is written.
+     *
+     * @param list  the list to write
+     * @param file  the file to write to, which is replaced if it exists
+     * @param codec the codec encoding the elements
+     * @param <T>   the type of the elements in the list
+     *
+     * @throws IOException if an I/O error occurs or the file would exceed 2 GB
+     */
+    public static <T> void write(SkipList<T> list, Path file, KeyCodec<? super T> codec) throws IOException {
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(file)))) {
+            out.writeInt(MAGIC);
+            int height = list.height;
+            // Offset of the last written record on each level, which is the next record of the current one
+            int[] next = new int[height];
+            int size = 0;
+            for (ListItem<ExpressNode<T>> node = list.lastNode(); node != null && node.key.prev != null;
+                 node = node.key.prev) {
+                int offset = offset(out);
+                int towerHeight = 1;
+                for (ListItem<ExpressNode<T>> upper = node.key.up; upper != null; upper = upper.key.up) {
+                    towerHeight++;
+                }
+                out.writeInt(towerHeight);
+                for (int level = 0; level < towerHeight; level++) {
+                    out.writeInt(next[level]);
+                    next[level] = offset;
+                }
+                codec.write(out, node.key.value);
+                size++;
+            }
+            int headOffset = offset(out);
+            out.writeInt(height);
+            for (int level = 0; level < height; level++) {
+                out.writeInt(next[level]);
+            }
+            out.writeInt(MAGIC);
+            out.writeInt(size);
+            out.writeInt(height);
+            out.writeInt(headOffset);
+            offset(out);
+        }
+    }
+
+    /**
+     * Returns the offset of the next byte written to the specified output.
+     *
+     * @param out the output
+     *
+     * @return the offset of the next byte
+     *
+     * @throws IOException if the output exceeds 2 GB
+     */
+    private static int offset(DataOutputStream out) throws IOException {
+        // The counter of the stream stops at the maximum value
+        if (out.size() == Integer.MAX_VALUE) {
+            throw new IOException("Mapped skip list files are limited to 2 GB");
+        }
+        return out.size();
+    }
+
+    /**
+     * Opens a file written by {@link #write(SkipList, Path, KeyCodec)} by mapping it into memory. The mapping stays
+     * valid until the list is garbage collected.
+     *
+     * @param file  the file to open
+     * @param cmp   the comparator the list was sorted with
+     * @param codec the codec decoding the elements
+     * @param <T>   the type of the elements in the list
+     *
+     * @return the mapped list
+     *
+     * @throws IOException if an I/O error occurs or the file is not a mapped skip list file
+     */
+    public static <T> MappedSkipList<T> open(Path file, Comparator<? super T> cmp, KeyCodec<? extends T> codec)
+        throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long length = channel.size();
+            if (length < Integer.BYTES * 2 + TRAILER_SIZE || length > Integer.MAX_VALUE) {
+                throw new IOException("Not a mapped skip list file: %s".formatted(file));
+            }
+            ByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, length);
+            int trailer = (int) length - TRAILER_SIZE;
+            int size = buffer.getInt(trailer + Integer.BYTES);
+            int height = buffer.getInt(trailer + 2 * Integer.BYTES);
+            int head = buffer.getInt(trailer + 3 * Integer.BYTES);
+            if (buffer.getInt(0) != MAGIC || buffer.getInt(trailer) != MAGIC || size < 0 || height < 0
+                || head < Integer.BYTES || head > trailer - Integer.BYTES * (height + 1)
+                || buffer.getInt(head) != height) {
+                throw new IOException("Not a mapped skip list file: %s".formatted(file));
+            }
+            return new MappedSkipList<>(buffer, cmp, codec, size, height, head);
+        }
+    }
+
+    /**
+     * Returns the number of elements in this list.
+     *
+     * @return the number of elements in this list
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Returns {@code true} if this list contains no elements.
+     *
+     * @return {@code true} if this list contains no elements
+     */
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Returns the height of this list.
+     *
+     * @return the height of this list
+     */
+    public int getHeight() {
+        return height;
+    }
+
+    /**
+     * Returns the offset of the next record of the specified record on the specified level.
+     *
+     * @param record the offset of the record
+     * @param level  the level, smaller than the tower height of the record
+     *
+     * @return the offset of the next record, or {@code 0} if the record is the last one on the level
+     */
+    private int next(int record, int level) {
+        return buffer.getInt(record + Integer.BYTES * (level + 1));
+    }
+
+    /**
+     * Decodes the element of the specified record.
+     *
+     * @param input  the input to decode with
+     * @param record the offset of the record
+     *
+     * @return the element of the record
+     *
+     * @throws UncheckedIOException if the element cannot be decoded
+     */
+    private T element(ByteBufferInput input, int record) {
+        try {
+            return codec.read(input.seek(record + Integer.BYTES * (buffer.getInt(record) + 1)));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Returns the first record whose element is greater than (or equal to) the specified element. The search descends
+     * from the head like in {@link SkipList}.
+     *
+     * @param input     the input to decode with
+     * @param key       the element to search for
+     * @param inclusive whether an equal element is accepted
+     *
+     * @return the offset of the record, or {@code 0} if there is no such element
+     */
+    private int ceiling(ByteBufferInput input, T key, boolean inclusive) {
+        int current = head;
+        for (int level = height - 1; level >= 0; level--) {
+            // Move forward while the next element is smaller (or equal)
+            for (int next = next(current, level); next != 0; next = next(current, level)) {
+                int value = cmp.compare(element(input, next), key);
+                if (value > 0 || inclusive && value == 0) {
+                    break;
+                }
+                current = next;
+            }
+        }
+        return height == 0 ? 0 : next(current, 0);
+    }
+
+    /**
+     * Returns {@code true} if this list contains the specified element.
+     *
+     * @param key the element whose presence in this list is to be tested
+     *
+     * @return {@code true} if this list contains the specified element
+     *
+     * @throws UncheckedIOException if an element cannot be decoded
+     */
+    public boolean contains(T key) {
+        ByteBufferInput input = new ByteBufferInput(buffer);
+        int record = ceiling(input, key, true);
+        return record != 0 && cmp.compare(element(input, record), key) == 0;
+    }
+
+    /**
+     * Returns an iterator over the elements of this list in ascending order.
+     *
+     * @return an iterator over the elements of this list
+     */
+    @Override
+    public Iterator<T> iterator() {
+        return new RecordIterator(height == 0 ? 0 : next(head, 0), null, false);
+    }
+
+    /**
+     * Returns the elements of this list between the specified bounds in ascending order. The first element is
+     * searched with the towers, the following ones are read from the lowest level.
+     *
+     * @param fromKey       the lower bound
+     * @param fromInclusive whether the lower bound is included
+     * @param toKey         the upper bound
+     * @param toInclusive   whether the upper bound is included
+     *
+     * @return the elements between the bounds
+     *
+     * @throws IllegalArgumentException if the lower bound is greater than the upper bound
+     */
+    public Iterable<T> range(T fromKey, boolean fromInclusive, T toKey, boolean toInclusive) {
+        if (cmp.compare(fromKey, toKey) > 0) {
+            throw new IllegalArgumentException("Lower bound is greater than upper bound: %s > %s"
+                .formatted(fromKey, toKey));
+        }
+        return () -> new RecordIterator(ceiling(new ByteBufferInput(buffer), fromKey, fromInclusive), toKey,
+            toInclusive);
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+        sb.append("[");
+        for (Iterator<T> iterator = iterator(); iterator.hasNext(); ) {
+            sb.append(iterator.next());
+            if (iterator.hasNext()) {
+                sb.append(", ");
+            }
+        }
+        sb.append("]");
+        return sb.toString();
+    }
+
+    /**
+     * An iterator over the records of the lowest level up to an optional upper bound. The element of the next record
+     * is decoded in advance to check the bound.
+     */
+    private final class RecordIterator implements Iterator<T> {
+
+        /**
+         * The input decoding the elements.
+         */
+        private final ByteBufferInput input = new ByteBufferInput(buffer);
+
+        /**
+         * The upper bound, or {@code null} if the iteration ends with the last record.
+         */
+        private final @Nullable T toKey;
+
+        /**
+         * Whether the upper bound is included.
+         */
+        private final boolean toInclusive;
+
+        /**
+         * The offset of the next record, or {@code 0} if the iteration has ended.
+         */
+        private int next;
+
+        /**
+         * The element of the next record.
+         */
+        private @Nullable T element;
+
+        /**
+         * Constructs and initializes an iterator starting at the specified record.
+         *
+         * @param next        the offset of the first record, or {@code 0} if there is none
+         * @param toKey       the upper bound, or {@code null} if the iteration ends with the last record
+         * @param toInclusive whether the upper bound is included
+         */
+        RecordIterator(int next, @Nullable T toKey, boolean toInclusive) {
+            this.toKey = toKey;
+            this.toInclusive = toInclusive;
+            advance(next);
+        }
+
+        /**
+         * Moves this iterator to the specified record and ends the iteration if its element exceeds the upper bound.
+         *
+         * @param record the offset of the record, or {@code 0} if there is none
+         */
+        private void advance(int record) {
+            next = record;
+            if (record == 0) {
+                element = null;
+                return;
+            }
+            element = element(input, record);
+            if (toKey != null) {
+                int value = cmp.compare(element, toKey);
+                if (value > 0 || !toInclusive && value == 0) {
+                    next = 0;
+                    element = null;
+                }
+            }
+        }
+
+        @Override
+        public boolean hasNext() {
+            return next != 0;
+        }
+
+        @Override
+        public T next() {
+            if (next == 0) {
+                throw new NoSuchElementException();
+            }
+            T current = element;
+            advance(MappedSkipList.this.next(next, 0));
+            return current;
+        }
+
+    }
+
+}
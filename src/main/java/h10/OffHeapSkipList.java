@@ -0,0 +1,449 @@
+package h10;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Arrays;
+
+/**
+ * Represents a skip list of {@code long} elements in ascending order whose nodes are stored outside the Java heap. The
+ * nodes are laid out in direct {@link ByteBuffer} chunks and reference each other by their address in the arena, so
+ * the number of elements does not affect the work of the garbage collector.
+ *
+ * <p>Each node has the following fixed-width layout, where {@code h} is the height of the node:
+ * <pre>{@code
+ *  offset  0: long key
+ *  offset  8: int  height h
+ *  offset 12: int  unused
+ *  offset 16: long address of the successor on level 0 .. h - 1
+ * }</pre>
+ *
+ * <p>Nodes never cross a chunk boundary. The space of removed nodes is kept in a free list per height and reused by
+ * later insertions of the same height.
+ *
+ * @see LongSkipList
+ */
+public class OffHeapSkipList {
+
+    /**
+     * The address representing a missing node.
+     */
+    private static final long NIL = -1;
+
+    /**
+     * The offset of the key in a node.
+     */
+    private static final int KEY = 0;
+
+    /**
+     * The offset of the height in a node.
+     */
+    private static final int HEIGHT = 8;
+
+    /**
+     * The offset of the first successor address in a node.
+     */
+    private static final int NEXT = 16;
+
+    /**
+     * The default size of a chunk as a power of two.
+     */
+    private static final int DEFAULT_CHUNK_SHIFT = 20;
+
+    /**
+     * The maximum height of the skip list.
+     */
+    final int maxHeight;
+
+    /**
+     * The probability function used to determine if a node should be added on another level.
+     */
+    private Probability probability;
+
+    /**
+     * The size of a chunk as a power of two.
+     */
+    private final int chunkShift;
+
+    /**
+     * The chunks of the arena.
+     */
+    private ByteBuffer[] chunks = new ByteBuffer[0];
+
+    /**
+     * The address of the next unused byte in the arena.
+     */
+    private long top = 0;
+
+    /**
+     * The first free node of each height, linked by their successor on the lowest level.
+     */
+    private final long[] free;
+
+    /**
+     * The address of the head of the skip list, a sentinel node spanning all possible levels.
+     */
+    private final long head;
+
+    /**
+     * The predecessors of the last searched position on each level, reused by every update.
+     */
+    private final long[] update;
+
+    /**
+     * The current height of the skip list.
+     */
+    int height = 0;
+
+    /**
+     * The number of items in the skip list.
+     */
+    int size = 0;
+
+    /**
+     * Constructs and initializes an empty skip list without the probability to add elements on higher levels.
+     *
+     * @param maxHeight the maximum height of the skip list
+     */
+    public OffHeapSkipList(int maxHeight) {
+        this(maxHeight, SkipList.DEFAULT_PROBABILITY);
+    }
+
+    /**
+     * Constructs and initializes an empty skip list with chunks of 1 MiB.
+     *
+     * @param maxHeight   the maximum height of the skip list
+     * @param probability the probability function used to determine if a node should be added on another level
+     */
+    public OffHeapSkipList(int maxHeight, Probability probability) {
+        this(maxHeight, probability, DEFAULT_CHUNK_SHIFT);
+    }
+
+    /**
+     * Constructs and initializes an empty skip list.
+     *
+     * @param maxHeight   the maximum height of the skip list
+     * @param probability the probability function used to determine if a node should be added on another level
+     * @param chunkShift  the size of a chunk of the arena as a power of two
+     *
+     * @throws IllegalArgumentException if a node of the maximum height does not fit into a chunk
+     */
+    public OffHeapSkipList(int maxHeight, Probability probability, int chunkShift) {
+        int levels = Math.max(1, maxHeight);
+        if (chunkShift < 0 || chunkShift > 30 || nodeSize(levels) > 1L << chunkShift) {
+            throw new IllegalArgumentException("Chunks of 2^%d bytes cannot hold nodes of height %d"
+                .formatted(chunkShift, levels));
+        }
+        this.maxHeight = maxHeight;
+        this.probability = probability;
+        this.chunkShift = chunkShift;
+        this.free = new long[levels + 1];
+        Arrays.fill(free, NIL);
+        this.update = new long[levels];
+        this.head = allocate(0, levels);
+    }
+
+    /**
+     * Returns the number of bytes a node of the specified height occupies.
+     *
+     * @param height the height of the node
+     *
+     * @return the number of bytes a node of the specified height occupies
+     */
+    private static int nodeSize(int height) {
+        return NEXT + Long.BYTES * height;
+    }
+
+    /**
+     * Returns the chunk containing the specified address.
+     *
+     * @param address the address of a node
+     *
+     * @return the chunk containing the specified address
+     */
+    private ByteBuffer chunk(long address) {
+        return chunks[(int) (address >>> chunkShift)];
+    }
+
+    /**
+     * Returns the position of the specified address in its chunk.
+     *
+     * @param address the address of a node
+     *
+     * @return the position of the specified address in its chunk
+     */
+    private int offset(long address) {
+        return (int) (address & ((1L << chunkShift) - 1));
+    }
+
+    /**
+     * Returns the key of the specified node.
+     *
+     * @param node the address of the node
+     *
+     * @return the key of the specified node
+     */
+    private long key(long node) {
+        return chunk(node).getLong(offset(node) + KEY);
+    }
+
+    /**
+     * Returns the height of the specified node.
+     *
+     * @param node the address of the node
+     *
+     * @return the height of the specified node
+     */
+    private int height(long node) {
+        return chunk(node).getInt(offset(node) + HEIGHT);
+    }
+
+    /**
+     * Returns the successor of the specified node on the specified level.
+     *
+     * @param node  the address of the node
+     * @param level the level of the successor
+     *
+     * @return the address of the successor or {@link #NIL} if there is none
+     */
+    private long next(long node, int level) {
+        return chunk(node).getLong(offset(node) + NEXT + Long.BYTES * level);
+    }
+
+    /**
+     * Sets the successor of the specified node on the specified level.
+     *
+     * @param node      the address of the node
+     * @param level     the level of the successor
+     * @param successor the address of the successor or {@link #NIL} if there is none
+     */
+    private void setNext(long node, int level, long successor) {
+        chunk(node).putLong(offset(node) + NEXT + Long.BYTES * level, successor);
+    }
+
+    /**
+     * Allocates a node with the specified key and height, reusing the space of a removed node if possible. All
+     * references of the new node are {@link #NIL}.
+     *
+     * @param key    the key of the node
+     * @param height the height of the node
+     *
+     * @return the address of the new node
+     */
+    private long allocate(long key, int height) {
+        long node = free[height];
+        if (node != NIL) {
+            free[height] = next(node, 0);
+        } else {
+            int nodeSize = nodeSize(height);
+            int chunkSize = 1 << chunkShift;
+            // Nodes do not cross chunk boundaries
+            if (top == (long) chunks.length << chunkShift || offset(top) + nodeSize > chunkSize) {
+                chunks = Arrays.copyOf(chunks, chunks.length + 1);
+                chunks[chunks.length - 1] = ByteBuffer.allocateDirect(chunkSize).order(ByteOrder.nativeOrder());
+                top = (long) (chunks.length - 1) << chunkShift;
+            }
+            node = top;
+            top += nodeSize;
+        }
+        ByteBuffer chunk = chunk(node);
+        int offset = offset(node);
+        chunk.putLong(offset + KEY, key);
+        chunk.putInt(offset + HEIGHT, height);
+        for (int level = 0; level < height; level++) {
+            chunk.putLong(offset + NEXT + Long.BYTES * level, NIL);
+        }
+        return node;
+    }
+
+    /**
+     * Returns the space of the specified node to the free list of its height.
+     *
+     * @param node the address of the node
+     */
+    private void release(long node) {
+        int nodeHeight = height(node);
+        setNext(node, 0, free[nodeHeight]);
+        free[nodeHeight] = node;
+    }
+
+    /**
+     * Returns the current height of this skip list.
+     *
+     * @return the current height of this skip list
+     */
+    public int getHeight() {
+        return height;
+    }
+
+    /**
+     * Returns the probability function used to determine if a node should be added on another level.
+     *
+     * @return the probability function used to determine if a node should be added on another level
+     */
+    public Probability getProbability() {
+        return probability;
+    }
+
+    /**
+     * Sets the probability function used to determine if a node should be added on another level.
+     *
+     * @param probability the probability function
+     */
+    public void setProbability(Probability probability) {
+        this.probability = probability;
+    }
+
+    /**
+     * Returns the number of items in this skip list.
+     *
+     * @return the number of items in this skip list
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Returns {@code true} if this list contains no elements.
+     *
+     * @return {@code true} if this list contains no elements
+     */
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Returns the number of bytes reserved outside the Java heap by this list.
+     *
+     * @return the number of bytes reserved outside the Java heap by this list
+     */
+    public long reservedBytes() {
+        return (long) chunks.length << chunkShift;
+    }
+
+    /**
+     * Returns {@code true} if this list contains the specified element.
+     *
+     * @param key the element whose presence in this list is to be tested
+     *
+     * @return {@code true} if this list contains the specified element
+     */
+    public boolean contains(long key) {
+        long current = head;
+        for (int level = height - 1; level >= 0; level--) {
+            for (long next = next(current, level); next != NIL; next = next(current, level)) {
+                long value = key(next);
+                if (value == key) {
+                    return true;
+                } else if (value > key) {
+                    // Key can be on the lower level
+                    break;
+                }
+                current = next;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Stores the last node of each level whose key is smaller than (or equal to, if {@code inclusive} is set) the
+     * specified element in {@link #update}.
+     *
+     * @param key       the element to search for
+     * @param inclusive whether nodes equal to the element are skipped as well
+     */
+    private void findPredecessors(long key, boolean inclusive) {
+        long current = head;
+        for (int level = height - 1; level >= 0; level--) {
+            for (long next = next(current, level); next != NIL; next = next(current, level)) {
+                long value = key(next);
+                if (value > key || value == key && !inclusive) {
+                    break;
+                }
+                current = next;
+            }
+            update[level] = current;
+        }
+    }
+
+    /**
+     * Returns the height of a new tower. The tower grows by one level as long as the probability function returns
+     * {@code true} and the maximum height is not reached.
+     *
+     * @return the height of a new tower
+     */
+    private int randomHeight() {
+        int towerHeight = 1;
+        while (towerHeight < update.length && probability.nextBoolean()) {
+            towerHeight++;
+        }
+        return towerHeight;
+    }
+
+    /**
+     * Adds the specified element to this list. The element will be added after all equal elements on the lowest level
+     * and on the next levels if the probability function returns {@code true}.
+     *
+     * @param key the element to be added
+     */
+    public void add(long key) {
+        findPredecessors(key, true);
+        int nodeHeight = randomHeight();
+        long node = allocate(key, nodeHeight);
+        // New levels start at the head
+        for (int level = height; level < nodeHeight; level++) {
+            update[level] = head;
+        }
+        height = Math.max(height, nodeHeight);
+        for (int level = 0; level < nodeHeight; level++) {
+            setNext(node, level, next(update[level], level));
+            setNext(update[level], level, node);
+        }
+        size++;
+    }
+
+    /**
+     * Removes the first occurrence of the specified element from this list, if it is present. The element will be
+     * removed from all levels.
+     *
+     * @param key the element to be removed from this list, if present
+     */
+    public void remove(long key) {
+        findPredecessors(key, false);
+        long node = height == 0 ? NIL : next(update[0], 0);
+        if (node == NIL || key(node) != key) {
+            return;
+        }
+        int nodeHeight = height(node);
+        for (int level = 0; level < nodeHeight; level++) {
+            setNext(update[level], level, next(node, level));
+        }
+        release(node);
+        // Remove empty levels
+        while (height > 0 && next(head, height - 1) == NIL) {
+            height--;
+        }
+        size--;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+        sb.append("[");
+        for (int level = height - 1; level >= 0; level--) {
+            sb.append("[");
+            for (long element = next(head, level); element != NIL; element = next(element, level)) {
+                sb.append(key(element));
+                if (next(element, level) != NIL) {
+                    sb.append(", ");
+                }
+            }
+            sb.append("]");
+            if (level > 0) {
+                sb.append(", ");
+            }
+        }
+        sb.append("]");
+        return sb.toString();
+    }
+
+}
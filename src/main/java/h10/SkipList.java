@@ -2,8 +2,34 @@ package h10;
 
 import org.jetbrains.annotations.Nullable;
 
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInput;
+import java.io.DataInputStream;
+import java.io.DataOutput;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.channels.Channels;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.util.AbstractCollection;
+import java.util.Arrays;
+import java.util.Collection;
 import java.util.Comparator;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
 import java.util.Objects;
+import java.util.Spliterator;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.function.BiFunction;
+import java.util.function.BinaryOperator;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 /**
  * Represents a skip list. A skip list is a randomized data structure that allows fast access to elements in a sorted
@@ -23,17 +49,26 @@ import java.util.Objects;
  *   | 5 -- 12 -- 17 -- 47 -- 72 -- 98
  * }</pre>
  *
+ * <p>The list can be shared between a single writer and any number of readers without locks. Updates initialize new
+ * nodes completely before linking them and write every link with release semantics, while readers read the links with
+ * acquire semantics, so {@link #contains(Object)}, {@link #size()} and {@link #forEach(Consumer)} only ever observe
+ * fully initialized nodes in list order. Multiple writers still need external synchronization.
+ *
+ * <p>Every node stores the {@linkplain ExpressNode#span number of elements} its link to the successor skips, so the
+ * positional methods {@link #get(int)}, {@link #rank(Object)}, {@link #indexOf(Object)} and {@link #removeAt(int)}
+ * run in expected logarithmic time like the searches by value.
+ *
  * @param <T> the type of the elements in this list
  *
  * @author Nhan Huynh
  * @see <a href="https://en.wikipedia.org/wiki/Skip_list">Skip list</a>
  */
-public class SkipList<T> {
+public class SkipList<T> implements Iterable<T> {
 
     /**
      * The default probability to not add elements on higher levels.
      */
-    private static final Probability DEFAULT_PROBABILITY = new Probability() {
+    static final Probability DEFAULT_PROBABILITY = new Probability() {
         @Override
         public boolean nextBoolean() {
             return false;
@@ -45,6 +80,53 @@ public class SkipList<T> {
         }
     };
 
+    /**
+     * The first four bytes of a snapshot written by {@link #writeSnapshot(DataOutput, KeyCodec)}.
+     */
+    private static final int SNAPSHOT_MAGIC = 0x534B4C31;
+
+    /**
+     * The maximum number of elements per level written by {@link #toString()}.
+     */
+    private static final int TO_STRING_LIMIT = 1000;
+
+    /**
+     * The number of segments per worker thread of the fork/join pool the parallel bulk operations aim for.
+     */
+    private static final int SEGMENTS_PER_THREAD = 4;
+
+    /**
+     * Accessor for {@link ListItem#next} with acquire and release semantics.
+     */
+    private static final VarHandle NEXT;
+
+    /**
+     * Accessor for {@link ExpressNode#prev} with acquire and release semantics.
+     */
+    private static final VarHandle PREV;
+
+    /**
+     * Accessor for {@link ExpressNode#up} with acquire and release semantics.
+     */
+    private static final VarHandle UP;
+
+    /**
+     * Accessor for {@link ExpressNode#down} with acquire and release semantics.
+     */
+    private static final VarHandle DOWN;
+
+    static {
+        try {
+            MethodHandles.Lookup lookup = MethodHandles.lookup();
+            NEXT = lookup.findVarHandle(ListItem.class, "next", ListItem.class);
+            PREV = lookup.findVarHandle(ExpressNode.class, "prev", ListItem.class);
+            UP = lookup.findVarHandle(ExpressNode.class, "up", ListItem.class);
+            DOWN = lookup.findVarHandle(ExpressNode.class, "down", ListItem.class);
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
     /**
      * The comparator used to maintain order in this list.
      */
@@ -56,24 +138,63 @@ public class SkipList<T> {
     final int maxHeight;
 
     /**
-     * The probability function used to determine if a node should be added on another level.
+     * The probability function used to determine if a node should be added on another level, or {@code null} if the
+     * level generator has been set directly.
+     */
+    private @Nullable Probability probability;
+
+    /**
+     * The generator drawing the heights of new towers.
+     */
+    private LevelGenerator levelGenerator;
+
+    /**
+     * The probability to reach the next level the height cap of an adaptive list is derived from, or {@code 0} if the
+     * maximum height is fixed.
      */
-    private Probability probability;
+    private final double adaptiveProbability;
 
     /**
      * The head of the skip list.
      */
-    @Nullable ListItem<ExpressNode<T>> head;
+    volatile @Nullable ListItem<ExpressNode<T>> head;
 
     /**
      * The current height of the skip list.
      */
-    int height = 0;
+    volatile int height = 0;
 
     /**
      * The number of items in the skip list.
      */
-    int size = 0;
+    volatile int size = 0;
+
+    /**
+     * The number of structural modifications of the skip list, used to detect outdated {@link Finger}s.
+     */
+    volatile int modCount = 0;
+
+    /**
+     * The number of times a level has been added to or removed from the skip list, used to detect whether the path of
+     * a {@link Finger} still ends at the current levels after a modification through the finger.
+     */
+    private int levelModCount = 0;
+
+    /**
+     * The variant of the content hash returned by {@link #contentHash()}.
+     */
+    private ContentHashing contentHashing = ContentHashing.UNORDERED;
+
+    /**
+     * The sum of the mixed hashes of all elements, maintained on every insertion and removal.
+     */
+    private volatile long unorderedHash = 0;
+
+    /**
+     * The sum of the mixed hashes of all pairs of adjacent elements, only maintained if the content hashing is
+     * {@link ContentHashing#ORDERED}.
+     */
+    private volatile long orderedHash = 0;
 
     /**
      * Constructs and initializes an empty skip list without the probability to add elements on higher levels.
@@ -96,298 +217,2380 @@ public class SkipList<T> {
         this.cmp = cmp;
         this.maxHeight = maxHeight;
         this.probability = probability;
+        this.levelGenerator = LevelGenerator.of(probability);
+        this.adaptiveProbability = 0;
     }
 
     /**
-     * Returns the current height of this skip list.
+     * Constructs and initializes an empty skip list whose tower heights are drawn by the specified generator.
      *
-     * @return the current height of this skip list
+     * @param cmp            the comparator used to maintain order in this list
+     * @param maxHeight      the maximum height of the skip list
+     * @param levelGenerator the generator drawing the heights of new towers
      */
-    public int getHeight() {
-        return height;
+    public SkipList(Comparator<? super T> cmp, int maxHeight, LevelGenerator levelGenerator) {
+        this(cmp, maxHeight, levelGenerator, 0);
     }
 
     /**
-     * Returns the probability function used to determine if a node should be added on another level.
+     * Constructs and initializes an empty skip list whose tower heights are drawn by the specified generator.
      *
-     * @return the probability function used to determine if a node should be added on another leve
+     * @param cmp                 the comparator used to maintain order in this list
+     * @param maxHeight           the maximum height of the skip list
+     * @param levelGenerator      the generator drawing the heights of new towers
+     * @param adaptiveProbability the probability the height cap is derived from, or {@code 0} for a fixed maximum
+     *                            height
      */
-    public Probability getProbability() {
-        return probability;
+    private SkipList(Comparator<? super T> cmp, int maxHeight, LevelGenerator levelGenerator,
+                     double adaptiveProbability) {
+        this.cmp = cmp;
+        this.maxHeight = maxHeight;
+        this.levelGenerator = levelGenerator;
+        this.adaptiveProbability = adaptiveProbability;
     }
 
     /**
-     * Sets the probability function used to determine if a node should be added on another level.
+     * Constructs and initializes an empty skip list whose height cap adapts to its size. Towers reach each further
+     * level with the specified probability {@code p}, but not beyond {@code ceil(log_{1/p}(n))} levels for a list of
+     * size {@code n}. When the cap grows, the nodes of the highest level are promoted to a new level with probability
+     * {@code p}, so the list keeps the shape of a list built with the larger cap. When the size shrinks well below the
+     * cap, the highest levels are removed. The maximum height is the cap of the largest possible list.
      *
-     * @param probability the probability function
+     * @param cmp the comparator used to maintain order in the list
+     * @param p   the probability to reach the next level
+     * @param <T> the type of the elements in the list
+     *
+     * @return an empty skip list with an adaptive height cap
+     *
+     * @throws IllegalArgumentException if the probability is not in the range (0, 1)
      */
-    public void setProbability(Probability probability) {
-        this.probability = probability;
+    public static <T> SkipList<T> adaptive(Comparator<? super T> cmp, double p) {
+        if (!(p > 0 && p < 1)) {
+            throw new IllegalArgumentException("Probability must be in (0, 1): %s".formatted(p));
+        }
+        int maxHeight = targetHeight(Integer.MAX_VALUE, p, Integer.MAX_VALUE);
+        return new SkipList<>(cmp, maxHeight, LevelGenerator.geometric(p), p);
     }
 
     /**
-     * Returns the number of items in this skip list.
+     * Returns the height cap of a list of the specified size, i.e. {@code ceil(log_{1/p}(size))} but at least 1 and at
+     * most the maximum height.
      *
-     * @return the number of items in this skip list
+     * @param size      the size of the list
+     * @param p         the probability to reach the next level
+     * @param maxHeight the maximum height of the list
+     *
+     * @return the height cap of a list of the specified size
      */
-    public int size() {
-        return size;
+    private static int targetHeight(int size, double p, int maxHeight) {
+        if (size <= 1) {
+            return 1;
+        }
+        int height = (int) Math.ceil(Math.log(size) / -Math.log(p));
+        return Math.max(1, Math.min(height, maxHeight));
     }
 
     /**
-     * Returns the first occurrence of the specified element in this list, or {@code null} if this list does not
-     * contain the element. The first element is on the lowest level.
+     * Returns {@code true} if the height cap of this list adapts to its size.
      *
-     * @param key the element to search for
+     * @return {@code true} if the height cap of this list adapts to its size
      *
-     * @return the first occurrence of the specified element in this list, or {@code null} if this list does not
-     *         contain the element
+     * @see #adaptive(Comparator, double)
      */
-    private ListItem<ExpressNode<T>> get(T key) {
-        if (isEmpty()) {
-            return null;
-        }
-        ListItem<ExpressNode<T>> current = head;
-        // Remember sentinel value for going down if the first element is greater than the searched one
-        while (current != null) {
-            // If we are on the last node of the current level, go down
-            if (current.next == null) {
-                current = current.key.down;
-                continue;
-            }
-            // Skip the sentinel node
-            ListItem<ExpressNode<T>> successor = current.next;
-            int value = cmp.compare(successor.key.value, key);
-            if (value == 0) {
-                // Key found
-                return successor;
-            } else if (value < 0) {
-                // Key can be on the same level
-                current = current.next;
-            } else {
-                // Key can be on the lower level
-                current = current.key.down;
-            }
-        }
-        return null;
+    public boolean isAdaptive() {
+        return adaptiveProbability > 0;
     }
 
     /**
-     * Returns {@code true} if this list contains the specified element.
+     * Constructs a skip list containing the specified elements without the probability to add elements on higher
+     * levels.
      *
-     * @param key the element whose presence in this list is to be tested
+     * @param elements  the elements in ascending order
+     * @param cmp       the comparator used to maintain order in the list
+     * @param maxHeight the maximum height of the skip list
+     * @param <T>       the type of the elements in the list
      *
-     * @return {@code true} if this list contains the specified element
+     * @return a skip list containing the specified elements
+     *
+     * @throws IllegalArgumentException if the elements are not in ascending order
+     * @see #fromSorted(Iterable, Comparator, int, Probability)
      */
-    public boolean contains(T key) {
-        return get(key) != null;
+    public static <T> SkipList<T> fromSorted(Iterable<? extends T> elements, Comparator<? super T> cmp,
+                                             int maxHeight) {
+        return fromSorted(elements, cmp, maxHeight, DEFAULT_PROBABILITY);
     }
 
     /**
-     * Returns all possible insertion points for the specified element in this list. The order is from the lowest level
-     * to the highest level.
+     * Constructs a skip list containing the specified elements. The list is built in a single pass over the elements
+     * by appending each tower to the last node of every level it occupies, so no element is searched and the number
+     * of comparisons is linear. Only consecutive elements are compared to reject unsorted input.
      *
-     * @param key the element to insert
+     * @param elements    the elements in ascending order
+     * @param cmp         the comparator used to maintain order in the list
+     * @param maxHeight   the maximum height of the skip list
+     * @param probability the probability function used to determine if a node should be added on another level
+     * @param <T>         the type of the elements in the list
      *
-     * @return all possible insertion points for the specified element in this list
+     * @return a skip list containing the specified elements
+     *
+     * @throws IllegalArgumentException if the elements are not in ascending order
      */
-    private ListItem<ListItem<ExpressNode<T>>> getInsertionPositions(T key) {
-        ListItem<ExpressNode<T>> current = head;
-        // Store the potential previous nodes for each level where an insertion
-        ListItem<ListItem<ExpressNode<T>>> positions = null;
-        // Find insertion position on all levels
-        while (current != null) {
-            // If we are on the last node of the current level, go down
-            if (current.next == null) {
-                ListItem<ListItem<ExpressNode<T>>> node = new ListItem<>();
-                node.key = current;
-                // The lowest level will be the first element in the list
-                // Insertion at the beginning of the list
-                node.next = positions;
-                positions = node;
-                current = current.key.down;
-                continue;
-            }
-            ListItem<ExpressNode<T>> sucessor = current.next;
-            int value = cmp.compare(sucessor.key.value, key);
-            if (value <= 0) {
-                // Key can be on the same level
-                current = current.next;
-            } else {
-                // Go down, remember potential insertion position
-                ListItem<ListItem<ExpressNode<T>>> node = new ListItem<>();
-                node.key = current;
-                // The lowest level will be the first element in the list
-                // Insertion at the beginning of the list
-                node.next = positions;
-                positions = node;
-                current = current.key.down;
+    public static <T> SkipList<T> fromSorted(Iterable<? extends T> elements, Comparator<? super T> cmp,
+                                             int maxHeight, Probability probability) {
+        SkipList<T> list = new SkipList<>(cmp, maxHeight, probability);
+        Appender<T> appender = new Appender<>(list);
+        T previous = null;
+        for (T element : elements) {
+            if (appender.size > 0 && cmp.compare(previous, element) > 0) {
+                throw new IllegalArgumentException("Elements are not in ascending order: %s > %s"
+                    .formatted(previous, element));
             }
+            appender.append(element, list.randomHeight());
+            previous = element;
         }
-        return positions;
+        return appender.finish();
     }
 
     /**
-     * Adds the specified element to this list. The element will be added on the highest floor of the skip list and on
-     * the next levels if the probability function returns {@code true}.
+     * Writes a snapshot of this list to the specified output. The snapshot contains the maximum height, the height cap
+     * of an adaptive list and the elements of the lowest level in ascending order, each preceded by the height of its
+     * tower, so {@link #readSnapshot(DataInput, Comparator, KeyCodec)} restores the same shape. Heights and the size
+     * are written as variable-length integers, the elements with the specified codec.
      *
-     * @param key the element to be added
+     * @param out   the output to write to
+     * @param codec the codec writing the elements
+     *
+     * @throws IOException if an I/O error occurs
      */
-    public void add(T key) {
-        ListItem<ListItem<ExpressNode<T>>> positions = getInsertionPositions(key);
-        // Potential insertions on each level
-        int currentHeight = 1;
-        ListItem<ExpressNode<T>> lowerLevelNode = null;
-        do {
-            if (head == null) {
-                // Empty list, create the first level and sentinel node
-                head = new ListItem<>();
-                head.key = new ExpressNode<>();
-
-                // Insertion position on the first level
-                ListItem<ListItem<ExpressNode<T>>> node = new ListItem<>();
-                node.key = head;
-                positions = node;
-                height++;
-            } else if (currentHeight > height) {
-                // Create new level if it does not exist (new upper level)
-                ListItem<ExpressNode<T>> newHead = new ListItem<>();
-                newHead.key = new ExpressNode<>();
-                newHead.key.down = head;
-                head.key.up = newHead;
-                head = newHead;
-
-                ListItem<ListItem<ExpressNode<T>>> node = new ListItem<>();
-                node.key = head;
-                positions = node;
-                height++;
+    public void writeSnapshot(DataOutput out, KeyCodec<? super T> codec) throws IOException {
+        out.writeInt(SNAPSHOT_MAGIC);
+        KeyCodec.writeVarLong(out, maxHeight);
+        out.writeDouble(adaptiveProbability);
+        KeyCodec.writeVarLong(out, size);
+        for (ListItem<ExpressNode<T>> current = firstNode(); current != null; current = next(current)) {
+            int towerHeight = 1;
+            for (ListItem<ExpressNode<T>> node = current.key.up; node != null; node = node.key.up) {
+                towerHeight++;
             }
-            ListItem<ExpressNode<T>> node = new ListItem<>();
-            node.key = new ExpressNode<>();
-            node.key.value = key;
+            KeyCodec.writeVarLong(out, towerHeight);
+            codec.write(out, current.key.value);
+        }
+    }
 
-            // Connect lower and upper levels
-            if (lowerLevelNode != null) {
-                node.key.down = lowerLevelNode;
-                lowerLevelNode.key.up = node;
-            }
+    /**
+     * Writes a snapshot of this list to the specified channel. The channel is not closed.
+     *
+     * @param channel the channel to write to
+     * @param codec   the codec writing the elements
+     *
+     * @throws IOException if an I/O error occurs
+     * @see #writeSnapshot(DataOutput, KeyCodec)
+     */
+    public void writeSnapshot(WritableByteChannel channel, KeyCodec<? super T> codec) throws IOException {
+        DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Channels.newOutputStream(channel)));
+        writeSnapshot((DataOutput) out, codec);
+        out.flush();
+    }
 
-            assert positions != null;
-            ListItem<ExpressNode<T>> current = positions.key;
-            if (current.next != null) {
-                // Last node does not have a next node, so we do not need to adjust the references
-                current.next.key.prev = node;
-                node.next = current.next;
-            }
+    /**
+     * Reads a snapshot written by {@link #writeSnapshot(DataOutput, KeyCodec)} and rebuilds the list with the same
+     * towers in a single pass over the elements. The elements are trusted to be in ascending order, so the comparator
+     * is not called. A snapshot of an {@linkplain #adaptive(Comparator, double) adaptive} list restores an adaptive
+     * list. The probability function or level generator of any other list is not part of the snapshot, so the
+     * restored list falls back to the default probability and adds new elements to the lowest level only; use
+     * {@link #readSnapshot(DataInput, Comparator, KeyCodec, LevelGenerator)} to keep drawing tower heights.
+     *
+     * @param in    the input to read from
+     * @param cmp   the comparator used to maintain order in the list
+     * @param codec the codec reading the elements
+     * @param <T>   the type of the elements in the list
+     *
+     * @return the restored skip list
+     *
+     * @throws IOException if an I/O error occurs or the input is not a valid snapshot
+     */
+    public static <T> SkipList<T> readSnapshot(DataInput in, Comparator<? super T> cmp, KeyCodec<? extends T> codec)
+        throws IOException {
+        return restore(in, cmp, codec, null);
+    }
 
-            node.key.prev = current;
-            current.next = node;
+    /**
+     * Reads a snapshot written by {@link #writeSnapshot(DataOutput, KeyCodec)} like
+     * {@link #readSnapshot(DataInput, Comparator, KeyCodec)}, but the restored list draws the heights of new towers
+     * with the specified generator. A list restored from a snapshot of an adaptive list keeps adapting its height cap.
+     *
+     * @param in             the input to read from
+     * @param cmp            the comparator used to maintain order in the list
+     * @param codec          the codec reading the elements
+     * @param levelGenerator the generator drawing the heights of new towers
+     * @param <T>            the type of the elements in the list
+     *
+     * @return the restored skip list
+     *
+     * @throws IOException if an I/O error occurs or the input is not a valid snapshot
+     */
+    public static <T> SkipList<T> readSnapshot(DataInput in, Comparator<? super T> cmp, KeyCodec<? extends T> codec,
+                                               LevelGenerator levelGenerator) throws IOException {
+        return restore(in, cmp, codec, Objects.requireNonNull(levelGenerator, "levelGenerator"));
+    }
 
-            positions = positions.next;
-            currentHeight++;
-            lowerLevelNode = node;
-        } while ((positions != null || currentHeight <= maxHeight) && probability.nextBoolean());
-        size++;
+    /**
+     * Reads a snapshot from the specified channel. The channel is not closed, but it may be read beyond the end of
+     * the snapshot.
+     *
+     * @param channel the channel to read from
+     * @param cmp     the comparator used to maintain order in the list
+     * @param codec   the codec reading the elements
+     * @param <T>     the type of the elements in the list
+     *
+     * @return the restored skip list
+     *
+     * @throws IOException if an I/O error occurs or the input is not a valid snapshot
+     * @see #readSnapshot(DataInput, Comparator, KeyCodec)
+     */
+    public static <T> SkipList<T> readSnapshot(ReadableByteChannel channel, Comparator<? super T> cmp,
+                                               KeyCodec<? extends T> codec) throws IOException {
+        DataInput in = new DataInputStream(new BufferedInputStream(Channels.newInputStream(channel)));
+        return readSnapshot(in, cmp, codec);
     }
 
     /**
-     * Removes the first occurrence of the specified element from this list, if it is present. The element will be
-     * removed from all levels.
+     * Reads a snapshot from the specified channel and draws the heights of new towers with the specified generator.
+     * The channel is not closed, but it may be read beyond the end of the snapshot.
      *
-     * @param key the element to be removed from this list, if present
+     * @param channel        the channel to read from
+     * @param cmp            the comparator used to maintain order in the list
+     * @param codec          the codec reading the elements
+     * @param levelGenerator the generator drawing the heights of new towers
+     * @param <T>            the type of the elements in the list
+     *
+     * @return the restored skip list
+     *
+     * @throws IOException if an I/O error occurs or the input is not a valid snapshot
+     * @see #readSnapshot(DataInput, Comparator, KeyCodec, LevelGenerator)
      */
-    public void remove(T key) {
-        // Get the first occurrence of the element
-        ListItem<ExpressNode<T>> current = get(key);
+    public static <T> SkipList<T> readSnapshot(ReadableByteChannel channel, Comparator<? super T> cmp,
+                                               KeyCodec<? extends T> codec, LevelGenerator levelGenerator)
+        throws IOException {
+        DataInput in = new DataInputStream(new BufferedInputStream(Channels.newInputStream(channel)));
+        return readSnapshot(in, cmp, codec, levelGenerator);
+    }
 
-        // If the element is not null, that means it is present in the list
-        if (current != null) {
-            size--;
+    /**
+     * Reads a snapshot and rebuilds the list with the same towers.
+     *
+     * @param in             the input to read from
+     * @param cmp            the comparator used to maintain order in the list
+     * @param codec          the codec reading the elements
+     * @param levelGenerator the generator drawing the heights of new towers, or {@code null} for the default of the
+     *                       snapshot
+     * @param <T>            the type of the elements in the list
+     *
+     * @return the restored skip list
+     *
+     * @throws IOException if an I/O error occurs or the input is not a valid snapshot
+     */
+    private static <T> SkipList<T> restore(DataInput in, Comparator<? super T> cmp, KeyCodec<? extends T> codec,
+                                           @Nullable LevelGenerator levelGenerator) throws IOException {
+        int magic = in.readInt();
+        if (magic != SNAPSHOT_MAGIC) {
+            throw new IOException("Not a skip list snapshot: %08x".formatted(magic));
         }
-
-        // Removal of element on all levels
-        while (current != null) {
-            ListItem<ExpressNode<T>> lowerLevel = current.key.down;
-            // Cannot be null since get returns non-null values if the element is found
-            // We checked that walker != null
-            assert current.key.prev != null;
-            if (current.key.prev.key.value == null && current.next == null) {
-                // Single element list
-                if (current.key.up == null) {
-                    // Head should be deleted
-                    // Since walker is non-null, the list is not empty
-                    assert head != null;
-                    head = head.key.down;
-                    if (lowerLevel != null) {
-                        lowerLevel.key.up = null;
-                    }
-                } else {
-                    // Adjust reference from up and down levels
-                    assert current.key.prev.key.up != null;
-                    current.key.prev.key.up.key.down = current.key.prev.key.down;
-                    // Since walker is non-null, the list is not empty
-                    assert current.key.prev.key.down != null;
-                    current.key.prev.key.down.key.up = current.key.prev.key.up;
-                }
-                height--;
-            } else {
-                // Adjust reference from prev and next nodes
-                current.key.prev.next = current.next;
-                if (current.next != null) {
-                    current.next.key.prev = current.key.prev;
-                }
+        long maxHeight = KeyCodec.readVarLong(in);
+        double p = in.readDouble();
+        long size = KeyCodec.readVarLong(in);
+        if (maxHeight > Integer.MAX_VALUE || size > Integer.MAX_VALUE || !(p == 0 || p > 0 && p < 1)) {
+            throw new IOException("Invalid snapshot header: maxHeight=%s, p=%s, size=%s"
+                .formatted(maxHeight, p, size));
+        }
+        SkipList<T> list;
+        if (p > 0) {
+            list = new SkipList<>(cmp, (int) maxHeight, levelGenerator != null ? levelGenerator
+                : LevelGenerator.geometric(p), p);
+        } else if (levelGenerator != null) {
+            list = new SkipList<>(cmp, (int) maxHeight, levelGenerator);
+        } else {
+            list = new SkipList<>(cmp, (int) maxHeight);
+        }
+        Appender<T> appender = new Appender<>(list);
+        for (long i = 0; i < size; i++) {
+            long towerHeight = KeyCodec.readVarLong(in);
+            if (towerHeight < 1 || towerHeight > appender.sentinels.length) {
+                throw new IOException("Invalid tower height: %s".formatted(towerHeight));
             }
-            current = lowerLevel;
+            appender.append(codec.read(in), (int) towerHeight);
         }
+        return appender.finish();
     }
 
     /**
-     * Returns {@code true} if this list contains no elements.
+     * Publishes levels which have been linked outside of this empty list, e.g. by {@link SkipListJson}. The nodes
+     * must be linked completely except for their spans, which are computed here together with the size and the
+     * content hash in a single pass over all levels from the lowest one upwards. This is the only way to publish such
+     * levels, since assigning {@link #head} directly leaves the spans and the content hash unset.
      *
-     * @return {@code true} if this list contains no elements
+     * @param head the sentinel node of the highest level, or {@code null} if the list stays empty
      */
-    public boolean isEmpty() {
-        return head == null;
-    }
-
-    @Override
-    public boolean equals(Object o) {
-        if (this == o) {
-            return true;
-        }
-        // Check instance of to avoid ClassCastException
-        if (!(o instanceof SkipList<?> other)) {
-            return false;
+    void attach(@Nullable ListItem<ExpressNode<T>> head) {
+        if (head == null) {
+            return;
         }
-        return height == other.height
-            && size == other.size
-            && Objects.equals(head, other.head);
+        index(head);
+        // The list has not been shared yet, so it can be published by the caller as a whole
+        this.head = head;
     }
 
-    @Override
-    public int hashCode() {
-        return Objects.hash(maxHeight, head, height, size);
-    }
+    /**
+     * Computes the spans of all nodes, the height, the size and the content hash of the levels starting at the
+     * specified head in a single pass over all levels from the lowest one upwards.
+     *
+     * @param head the sentinel node of the highest level, or {@code null} if the levels are empty
+     */
+    private void index(@Nullable ListItem<ExpressNode<T>> head) {
+        int height = 0;
+        int size = 0;
+        long hash = 0;
+        ListItem<ExpressNode<T>> lower = head;
+        if (lower != null) {
+            height = 1;
+            while (lower.key.down != null) {
+                lower = lower.key.down;
+                height++;
+            }
+            // Each node of the lowest level spans exactly one element
+            for (ListItem<ExpressNode<T>> node = lower; node != null; node = node.next) {
+                node.key.span = 1;
+                if (node != lower) {
+                    size++;
+                    hash += ContentHashing.hash(node.key.value);
+                }
+            }
+        }
+        long orderedHash = contentHashing == ContentHashing.ORDERED
+            ? orderedHash(lower == null ? null : lower.next) : 0;
+        // The nodes of an upper level span the nodes of the level below up to the node of their successor
+        for (ListItem<ExpressNode<T>> upper = lower == null ? null : lower.key.up; upper != null;
+             lower = upper, upper = upper.key.up) {
+            ListItem<ExpressNode<T>> below = lower;
+            for (ListItem<ExpressNode<T>> node = upper; node != null; node = node.next) {
+                ListItem<ExpressNode<T>> end = node.next == null ? null : node.next.key.down;
+                int span = 0;
+                for (; below != end; below = below.next) {
+                    assert below != null;
+                    span += below.key.span;
+                }
+                node.key.span = span;
+            }
+        }
+        this.height = height;
+        this.size = size;
+        this.unorderedHash = hash;
+        this.orderedHash = orderedHash;
+    }
+
+    /**
+     * Returns the current height of this skip list.
+     *
+     * @return the current height of this skip list
+     */
+    public int getHeight() {
+        return height;
+    }
+
+    /**
+     * Returns the probability function used to determine if a node should be added on another level.
+     *
+     * @return the probability function used to determine if a node should be added on another leve, or {@code null}
+     *         if the level generator has been set directly
+     */
+    public @Nullable Probability getProbability() {
+        return probability;
+    }
+
+    /**
+     * Sets the probability function used to determine if a node should be added on another level.
+     *
+     * @param probability the probability function
+     */
+    public void setProbability(Probability probability) {
+        this.probability = probability;
+        this.levelGenerator = LevelGenerator.of(probability);
+    }
+
+    /**
+     * Returns the generator drawing the heights of new towers.
+     *
+     * @return the generator drawing the heights of new towers
+     */
+    public LevelGenerator getLevelGenerator() {
+        return levelGenerator;
+    }
+
+    /**
+     * Sets the generator drawing the heights of new towers. The probability function is no longer used.
+     *
+     * @param levelGenerator the generator drawing the heights of new towers
+     */
+    public void setLevelGenerator(LevelGenerator levelGenerator) {
+        this.probability = null;
+        this.levelGenerator = levelGenerator;
+    }
+
+    /**
+     * Returns the number of items in this skip list.
+     *
+     * @return the number of items in this skip list
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Returns the variant of the content hash returned by {@link #contentHash()}.
+     *
+     * @return the variant of the content hash
+     */
+    public ContentHashing getContentHashing() {
+        return contentHashing;
+    }
+
+    /**
+     * Sets the variant of the content hash returned by {@link #contentHash()}. Switching to
+     * {@link ContentHashing#ORDERED} computes the hash over all elements once, afterwards it is maintained in constant
+     * time again.
+     *
+     * @param contentHashing the variant of the content hash
+     */
+    public void setContentHashing(ContentHashing contentHashing) {
+        if (contentHashing == ContentHashing.ORDERED && this.contentHashing != ContentHashing.ORDERED) {
+            orderedHash = orderedHash(firstNode());
+        }
+        this.contentHashing = contentHashing;
+    }
+
+    /**
+     * Computes the ordered content hash of the elements on the lowest level starting at the specified node.
+     *
+     * @param first the node of the first element on the lowest level, or {@code null} if there is none
+     * @param <T>   the type of the elements in the list
+     *
+     * @return the ordered content hash of the elements
+     */
+    private static <T> long orderedHash(@Nullable ListItem<ExpressNode<T>> first) {
+        long hash = 0;
+        long previous = ContentHashing.BOUNDARY;
+        for (ListItem<ExpressNode<T>> current = first; current != null; current = current.next) {
+            long element = ContentHashing.hash(current.key.value);
+            hash += ContentHashing.hash(previous, element);
+            previous = element;
+        }
+        return hash + ContentHashing.hash(previous, ContentHashing.BOUNDARY);
+    }
+
+    /**
+     * Returns the content hash of this list in constant time. Lists with equal elements in the same order on the
+     * lowest level have the same content hash regardless of the heights of their towers, so it can be used as a
+     * fingerprint of the contents. The elements must not change their hash codes while they are in this list.
+     *
+     * @return the content hash of this list
+     *
+     * @see #setContentHashing(ContentHashing)
+     */
+    public long contentHash() {
+        return contentHashing == ContentHashing.ORDERED ? orderedHash : unorderedHash;
+    }
+
+    /**
+     * Adds the element of the specified node on the lowest level to the content hash. The node must already be
+     * linked to its neighbors.
+     *
+     * @param node the new node on the lowest level
+     */
+    private void hashInserted(ListItem<ExpressNode<T>> node) {
+        long element = ContentHashing.hash(node.key.value);
+        unorderedHash += element;
+        if (contentHashing == ContentHashing.ORDERED) {
+            long previous = previousHash(node);
+            long next = node.next == null ? ContentHashing.BOUNDARY : ContentHashing.hash(node.next.key.value);
+            orderedHash += ContentHashing.hash(previous, element) + ContentHashing.hash(element, next)
+                - ContentHashing.hash(previous, next);
+        }
+    }
+
+    /**
+     * Removes the element of the specified node on the lowest level from the content hash. The node must still be
+     * linked to its neighbors.
+     *
+     * @param node the node to be removed from the lowest level
+     */
+    private void hashRemoved(ListItem<ExpressNode<T>> node) {
+        long element = ContentHashing.hash(node.key.value);
+        unorderedHash -= element;
+        if (contentHashing == ContentHashing.ORDERED) {
+            long previous = previousHash(node);
+            long next = node.next == null ? ContentHashing.BOUNDARY : ContentHashing.hash(node.next.key.value);
+            orderedHash += ContentHashing.hash(previous, next) - ContentHashing.hash(previous, element)
+                - ContentHashing.hash(element, next);
+        }
+    }
+
+    /**
+     * Returns the hash of the predecessor of the specified node on the lowest level for the content hash.
+     *
+     * @param node the node on the lowest level
+     *
+     * @return the hash of the predecessor, or {@link ContentHashing#BOUNDARY} if the node is the first node
+     */
+    private static long previousHash(ListItem<? extends ExpressNode<?>> node) {
+        ListItem<? extends ExpressNode<?>> previous = node.key.prev;
+        assert previous != null;
+        // Sentinel nodes do not have a predecessor
+        return previous.key.prev == null ? ContentHashing.BOUNDARY : ContentHashing.hash(previous.key.value);
+    }
+
+    /**
+     * Returns the successor of the specified node with acquire semantics.
+     *
+     * @param item the node
+     * @param <T>  the type of the elements in the list
+     *
+     * @return the successor of the specified node
+     */
+    @SuppressWarnings("unchecked")
+    static <T> @Nullable ListItem<ExpressNode<T>> next(ListItem<ExpressNode<T>> item) {
+        return (ListItem<ExpressNode<T>>) NEXT.getAcquire(item);
+    }
+
+    /**
+     * Returns the node on the lower level of the specified node with acquire semantics.
+     *
+     * @param item the node
+     * @param <T>  the type of the elements in the list
+     *
+     * @return the node on the lower level of the specified node
+     */
+    @SuppressWarnings("unchecked")
+    static <T> @Nullable ListItem<ExpressNode<T>> down(ListItem<ExpressNode<T>> item) {
+        return (ListItem<ExpressNode<T>>) DOWN.getAcquire(item.key);
+    }
+
+    /**
+     * Returns the predecessor of the specified node with acquire semantics.
+     *
+     * @param item the node
+     * @param <T>  the type of the elements in the list
+     *
+     * @return the predecessor of the specified node
+     */
+    @SuppressWarnings("unchecked")
+    static <T> @Nullable ListItem<ExpressNode<T>> prev(ListItem<ExpressNode<T>> item) {
+        return (ListItem<ExpressNode<T>>) PREV.getAcquire(item.key);
+    }
+
+    /**
+     * Sets the successor of the specified node with release semantics.
+     *
+     * @param item the node
+     * @param next the new successor
+     * @param <T>  the type of the elements in the list
+     */
+    static <T> void setNext(ListItem<ExpressNode<T>> item, @Nullable ListItem<ExpressNode<T>> next) {
+        NEXT.setRelease(item, next);
+    }
+
+    /**
+     * Sets the predecessor of the specified node with release semantics.
+     *
+     * @param item the node
+     * @param prev the new predecessor
+     * @param <T>  the type of the elements in the list
+     */
+    static <T> void setPrev(ListItem<ExpressNode<T>> item, @Nullable ListItem<ExpressNode<T>> prev) {
+        PREV.setRelease(item.key, prev);
+    }
+
+    /**
+     * Sets the node on the upper level of the specified node with release semantics.
+     *
+     * @param item the node
+     * @param up   the new node on the upper level
+     * @param <T>  the type of the elements in the list
+     */
+    static <T> void setUp(ListItem<ExpressNode<T>> item, @Nullable ListItem<ExpressNode<T>> up) {
+        UP.setRelease(item.key, up);
+    }
+
+    /**
+     * Sets the node on the lower level of the specified node with release semantics.
+     *
+     * @param item the node
+     * @param down the new node on the lower level
+     * @param <T>  the type of the elements in the list
+     */
+    static <T> void setDown(ListItem<ExpressNode<T>> item, @Nullable ListItem<ExpressNode<T>> down) {
+        DOWN.setRelease(item.key, down);
+    }
+
+    /**
+     * Returns the first occurrence of the specified element in this list, or {@code null} if this list does not
+     * contain the element. The first element is on the lowest level.
+     *
+     * @param key the element to search for
+     *
+     * @return the first occurrence of the specified element in this list, or {@code null} if this list does not
+     *         contain the element
+     */
+    private ListItem<ExpressNode<T>> get(T key) {
+        if (isEmpty()) {
+            return null;
+        }
+        ListItem<ExpressNode<T>> current = head;
+        // Remember sentinel value for going down if the first element is greater than the searched one
+        while (current != null) {
+            ListItem<ExpressNode<T>> successor = next(current);
+            // If we are on the last node of the current level, go down
+            if (successor == null) {
+                current = down(current);
+                continue;
+            }
+            // Skip the sentinel node
+            int value = cmp.compare(successor.key.value, key);
+            if (value == 0) {
+                // Key found
+                return successor;
+            } else if (value < 0) {
+                // Key can be on the same level
+                current = successor;
+            } else {
+                // Key can be on the lower level
+                current = down(current);
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Returns {@code true} if this list contains the specified element.
+     *
+     * @param key the element whose presence in this list is to be tested
+     *
+     * @return {@code true} if this list contains the specified element
+     */
+    public boolean contains(T key) {
+        return get(key) != null;
+    }
+
+    /**
+     * Returns the node of the element at the specified position on the highest level of its tower. The position of
+     * the first element is 1.
+     *
+     * @param position the position of the element, between 1 and the size of this list
+     *
+     * @return the node of the element at the specified position on the highest level of its tower
+     */
+    private ListItem<ExpressNode<T>> nodeAt(int position) {
+        ListItem<ExpressNode<T>> current = head;
+        int currentPosition = 0;
+        while (true) {
+            assert current != null;
+            // Move forward as long as the element is not skipped
+            while (current.next != null && currentPosition + current.key.span <= position) {
+                currentPosition += current.key.span;
+                current = current.next;
+            }
+            if (currentPosition == position) {
+                return current;
+            }
+            current = current.key.down;
+        }
+    }
+
+    /**
+     * Returns the element at the specified index in this list.
+     *
+     * @param index the index of the element to return
+     *
+     * @return the element at the specified index in this list
+     *
+     * @throws IndexOutOfBoundsException if the index is out of range ({@code index < 0 || index >= size()})
+     */
+    public T get(int index) {
+        Objects.checkIndex(index, size);
+        return nodeAt(index + 1).key.value;
+    }
+
+    /**
+     * Returns the number of elements in this list which are smaller than the specified element, i.e. the index at
+     * which the element is or would be inserted before all equal elements.
+     *
+     * @param key the element
+     *
+     * @return the number of elements in this list which are smaller than the specified element
+     */
+    public int rank(T key) {
+        return count(key, false);
+    }
+
+    /**
+     * Returns {@code true} if the first element is smaller than the second element, or equal to it if
+     * {@code inclusive} is {@code true}.
+     *
+     * @param element   the first element
+     * @param key       the second element
+     * @param inclusive whether equal elements are accepted
+     *
+     * @return {@code true} if the first element is smaller than the second element, or equal to it if
+     *         {@code inclusive} is {@code true}
+     */
+    private boolean isBefore(T element, T key, boolean inclusive) {
+        int value = cmp.compare(element, key);
+        return value < 0 || inclusive && value == 0;
+    }
+
+    /**
+     * Returns the number of elements in this list which are smaller than the specified element, or smaller than or
+     * equal to it if {@code inclusive} is {@code true}.
+     *
+     * @param key       the element
+     * @param inclusive whether equal elements are counted
+     *
+     * @return the number of elements in this list before the specified element
+     */
+    int count(T key, boolean inclusive) {
+        ListItem<ExpressNode<T>> current = head;
+        int position = 0;
+        while (current != null) {
+            while (current.next != null && isBefore(current.next.key.value, key, inclusive)) {
+                position += current.key.span;
+                current = current.next;
+            }
+            current = current.key.down;
+        }
+        return position;
+    }
+
+    /**
+     * Returns the first node on the lowest level whose element is greater than the specified element, or greater
+     * than or equal to it if {@code inclusive} is {@code true}. The node is located with the express lanes.
+     *
+     * @param key       the element
+     * @param inclusive whether an equal element is accepted
+     *
+     * @return the first node on the lowest level after the specified element, or {@code null} if there is none
+     */
+    @Nullable ListItem<ExpressNode<T>> ceilingNode(T key, boolean inclusive) {
+        ListItem<ExpressNode<T>> current = head;
+        if (current == null) {
+            return null;
+        }
+        while (true) {
+            ListItem<ExpressNode<T>> successor = next(current);
+            while (successor != null && isBefore(successor.key.value, key, !inclusive)) {
+                current = successor;
+                successor = next(current);
+            }
+            ListItem<ExpressNode<T>> lower = down(current);
+            if (lower == null) {
+                return successor;
+            }
+            current = lower;
+        }
+    }
+
+    /**
+     * Returns the last node on the lowest level whose element is smaller than the specified element, or smaller than
+     * or equal to it if {@code inclusive} is {@code true}. The node is located with the express lanes.
+     *
+     * @param key       the element
+     * @param inclusive whether an equal element is accepted
+     *
+     * @return the last node on the lowest level before the specified element, or {@code null} if there is none
+     */
+    @Nullable ListItem<ExpressNode<T>> floorNode(T key, boolean inclusive) {
+        ListItem<ExpressNode<T>> current = head;
+        if (current == null) {
+            return null;
+        }
+        while (true) {
+            ListItem<ExpressNode<T>> successor = next(current);
+            while (successor != null && isBefore(successor.key.value, key, inclusive)) {
+                current = successor;
+                successor = next(current);
+            }
+            ListItem<ExpressNode<T>> lower = down(current);
+            if (lower == null) {
+                // Sentinel nodes do not have a predecessor
+                return current.key.prev == null ? null : current;
+            }
+            current = lower;
+        }
+    }
+
+    /**
+     * Returns the node of the first element on the lowest level.
+     *
+     * @return the node of the first element on the lowest level, or {@code null} if this list is empty
+     */
+    @Nullable ListItem<ExpressNode<T>> firstNode() {
+        ListItem<ExpressNode<T>> sentinel = lowestLevel();
+        return sentinel == null ? null : next(sentinel);
+    }
+
+    /**
+     * Returns the node of the last element on the lowest level. The node is located with the express lanes.
+     *
+     * @return the node of the last element on the lowest level, or {@code null} if this list is empty
+     */
+    @Nullable ListItem<ExpressNode<T>> lastNode() {
+        ListItem<ExpressNode<T>> current = head;
+        if (current == null) {
+            return null;
+        }
+        while (true) {
+            for (ListItem<ExpressNode<T>> successor = next(current); successor != null; successor = next(current)) {
+                current = successor;
+            }
+            ListItem<ExpressNode<T>> lower = down(current);
+            if (lower == null) {
+                return current.key.prev == null ? null : current;
+            }
+            current = lower;
+        }
+    }
+
+    /**
+     * Removes the element of the specified node from this list. The element will be removed from all levels.
+     *
+     * @param node a node of the element on any level
+     */
+    void removeNode(ListItem<ExpressNode<T>> node) {
+        while (node.key.up != null) {
+            node = node.key.up;
+        }
+        removeTower(node);
+    }
+
+    /**
+     * Returns a view of the elements of this list from {@code from} to {@code to} in ascending order. The view is
+     * backed by this list and does not copy any element: its iterator locates the first element with the express
+     * lanes and then walks the lowest level until the upper bound is passed.
+     *
+     * @param from          the lower bound of the view
+     * @param fromInclusive whether the lower bound is part of the view
+     * @param to            the upper bound of the view
+     * @param toInclusive   whether the upper bound is part of the view
+     *
+     * @return a view of the elements of this list between both bounds
+     *
+     * @throws IllegalArgumentException if {@code from} is greater than {@code to}
+     */
+    public Range range(T from, boolean fromInclusive, T to, boolean toInclusive) {
+        if (cmp.compare(from, to) > 0) {
+            throw new IllegalArgumentException("Lower bound is greater than upper bound: %s > %s".formatted(from, to));
+        }
+        return new Range(true, from, fromInclusive, true, to, toInclusive);
+    }
+
+    /**
+     * Returns a view of the elements of this list which are smaller than {@code to}, or equal to it if
+     * {@code inclusive} is {@code true}.
+     *
+     * @param to        the upper bound of the view
+     * @param inclusive whether the upper bound is part of the view
+     *
+     * @return a view of the elements of this list up to the upper bound
+     *
+     * @see #range(Object, boolean, Object, boolean)
+     */
+    public Range headList(T to, boolean inclusive) {
+        return new Range(false, null, false, true, to, inclusive);
+    }
+
+    /**
+     * Returns a view of the elements of this list which are greater than {@code from}, or equal to it if
+     * {@code inclusive} is {@code true}.
+     *
+     * @param from      the lower bound of the view
+     * @param inclusive whether the lower bound is part of the view
+     *
+     * @return a view of the elements of this list from the lower bound
+     *
+     * @see #range(Object, boolean, Object, boolean)
+     */
+    public Range tailList(T from, boolean inclusive) {
+        return new Range(true, from, inclusive, false, null, false);
+    }
+
+    /**
+     * Returns the index of the first occurrence of the specified element in this list, or {@code -1} if this list
+     * does not contain the element.
+     *
+     * @param key the element to search for
+     *
+     * @return the index of the first occurrence of the specified element in this list, or {@code -1} if this list
+     *         does not contain the element
+     */
+    public int indexOf(T key) {
+        int index = rank(key);
+        if (index < size && cmp.compare(nodeAt(index + 1).key.value, key) == 0) {
+            return index;
+        }
+        return -1;
+    }
+
+    /**
+     * Removes the element at the specified index from this list. The element will be removed from all levels.
+     *
+     * @param index the index of the element to be removed
+     *
+     * @return the removed element
+     *
+     * @throws IndexOutOfBoundsException if the index is out of range ({@code index < 0 || index >= size()})
+     */
+    public T removeAt(int index) {
+        Objects.checkIndex(index, size);
+        ListItem<ExpressNode<T>> node = nodeAt(index + 1);
+        removeTower(node);
+        return node.key.value;
+    }
+
+    /**
+     * Returns all possible insertion points for the specified element in this list. The order is from the lowest level
+     * to the highest level.
+     *
+     * @param key the element to insert
+     *
+     * @return all possible insertion points for the specified element in this list
+     */
+    private ListItem<ListItem<ExpressNode<T>>> getInsertionPositions(T key) {
+        ListItem<ExpressNode<T>> current = head;
+        // Store the potential previous nodes for each level where an insertion
+        ListItem<ListItem<ExpressNode<T>>> positions = null;
+        // Find insertion position on all levels
+        while (current != null) {
+            // If we are on the last node of the current level, go down
+            if (current.next == null) {
+                ListItem<ListItem<ExpressNode<T>>> node = new ListItem<>();
+                node.key = current;
+                // The lowest level will be the first element in the list
+                // Insertion at the beginning of the list
+                node.next = positions;
+                positions = node;
+                current = current.key.down;
+                continue;
+            }
+            ListItem<ExpressNode<T>> sucessor = current.next;
+            int value = cmp.compare(sucessor.key.value, key);
+            if (value <= 0) {
+                // Key can be on the same level
+                current = current.next;
+            } else {
+                // Go down, remember potential insertion position
+                ListItem<ListItem<ExpressNode<T>>> node = new ListItem<>();
+                node.key = current;
+                // The lowest level will be the first element in the list
+                // Insertion at the beginning of the list
+                node.next = positions;
+                positions = node;
+                current = current.key.down;
+            }
+        }
+        return positions;
+    }
+
+    /**
+     * Returns the height of a new tower drawn by the level generator. The tower exceeds neither the current nor the
+     * maximum height of this list, or the height cap of the size after the insertion if this list is adaptive.
+     *
+     * @return the height of a new tower
+     */
+    private int randomHeight() {
+        if (isAdaptive()) {
+            return levelGenerator.nextHeight(targetHeight(size + 1, adaptiveProbability, maxHeight));
+        }
+        return levelGenerator.nextHeight(Math.max(height, maxHeight));
+    }
+
+    /**
+     * Adapts the height of an adaptive list to its size. If the height cap exceeds the height, the nodes of the highest
+     * level are promoted to a new level. If the height exceeds the height cap by more than one level, the highest
+     * levels are removed, so a list whose size oscillates around a power of {@code 1/p} does not rebuild its highest
+     * level on every update.
+     *
+     * @param predecessors the last node of each level smaller than or equal to the last inserted element, which is
+     *                     extended by the new level, or {@code null}
+     */
+    private void adaptHeight(@Nullable ListItem<ExpressNode<T>>[] predecessors) {
+        int target = targetHeight(size, adaptiveProbability, maxHeight);
+        if (height > 0 && target > height) {
+            promoteLevel(predecessors);
+        }
+        while (height > target + 1) {
+            removeLevel();
+        }
+    }
+
+    /**
+     * Promotes each node of the highest level with the probability of the level generator to a new level above. The
+     * new level is built completely before it is published as the new head. Nothing changes if no node is promoted.
+     *
+     * @param predecessors the last node of each level smaller than or equal to the last inserted element, which is
+     *                     extended by the new level, or {@code null}
+     */
+    private void promoteLevel(@Nullable ListItem<ExpressNode<T>>[] predecessors) {
+        ListItem<ExpressNode<T>> top = head;
+        assert top != null;
+        ListItem<ExpressNode<T>> reference = predecessors != null ? predecessors[height - 1] : null;
+        ListItem<ExpressNode<T>> sentinel = new ListItem<>();
+        sentinel.key = new ExpressNode<>();
+        sentinel.key.down = top;
+        ListItem<ExpressNode<T>> last = sentinel;
+        ListItem<ExpressNode<T>> predecessor = sentinel;
+        int lastPosition = 0;
+        int position = 0;
+        for (ListItem<ExpressNode<T>> node = top; node != null; node = node.next) {
+            // The sentinel node is always part of the new level
+            if (node != top && levelGenerator.nextHeight(2) == 2) {
+                ListItem<ExpressNode<T>> promoted = new ListItem<>();
+                promoted.key = new ExpressNode<>();
+                promoted.key.value = node.key.value;
+                promoted.key.down = node;
+                promoted.key.prev = last;
+                last.next = promoted;
+                last.key.span = position - lastPosition;
+                last = promoted;
+                lastPosition = position;
+            }
+            if (node == reference) {
+                predecessor = last;
+            }
+            position += node.key.span;
+        }
+        if (last == sentinel) {
+            return;
+        }
+        last.key.span = size + 1 - lastPosition;
+        // Publish the new level only after it has been initialized completely
+        for (ListItem<ExpressNode<T>> node = sentinel; node != null; node = node.next) {
+            assert node.key.down != null;
+            setUp(node.key.down, node);
+        }
+        head = sentinel;
+        height++;
+        modCount++;
+        levelModCount++;
+        if (predecessors != null) {
+            predecessors[height - 1] = predecessor;
+        }
+    }
+
+    /**
+     * Removes the highest level of this list. The elements of the level remain on the lower levels.
+     */
+    private void removeLevel() {
+        ListItem<ExpressNode<T>> top = head;
+        assert top != null && top.key.down != null;
+        for (ListItem<ExpressNode<T>> node = top; node != null; node = node.next) {
+            assert node.key.down != null;
+            setUp(node.key.down, null);
+        }
+        head = top.key.down;
+        height--;
+        modCount++;
+        levelModCount++;
+    }
+
+    /**
+     * Adds a new level above the highest level of this list and returns its sentinel node.
+     *
+     * @return the sentinel node of the new level
+     */
+    private ListItem<ExpressNode<T>> addLevel() {
+        ListItem<ExpressNode<T>> sentinel = new ListItem<>();
+        sentinel.key = new ExpressNode<>();
+        // The new level does not contain any element yet
+        sentinel.key.span = size + 1;
+        if (head != null) {
+            sentinel.key.down = head;
+            setUp(head, sentinel);
+        }
+        head = sentinel;
+        height++;
+        levelModCount++;
+        return sentinel;
+    }
+
+    /**
+     * Creates a node containing the specified element and links it after the specified node. The node is initialized
+     * completely before it becomes reachable from the list.
+     *
+     * <p>The span of the specified node is split between both nodes. The distance between the specified node and the
+     * new node is summed up on the lower level, where the new tower has already been linked.
+     *
+     * @param current        the node after which the new node is linked
+     * @param key            the element of the new node
+     * @param lowerLevelNode the node of the element on the lower level, or {@code null} on the lowest level
+     *
+     * @return the linked node
+     */
+    private ListItem<ExpressNode<T>> link(ListItem<ExpressNode<T>> current, T key,
+                                          @Nullable ListItem<ExpressNode<T>> lowerLevelNode) {
+        ListItem<ExpressNode<T>> node = new ListItem<>();
+        node.key = new ExpressNode<>();
+        node.key.value = key;
+
+        // Connect lower and upper levels
+        node.key.down = lowerLevelNode;
+
+        ListItem<ExpressNode<T>> successor = current.next;
+        node.next = successor;
+        node.key.prev = current;
+
+        int distance = 1;
+        if (lowerLevelNode != null) {
+            distance = 0;
+            for (ListItem<ExpressNode<T>> lower = current.key.down; lower != lowerLevelNode; lower = lower.next) {
+                assert lower != null;
+                distance += lower.key.span;
+            }
+        }
+        node.key.span = current.key.span - distance + 1;
+        current.key.span = distance;
+
+        // Publish the node only after it has been initialized completely
+        if (successor != null) {
+            // Last node does not have a next node, so we do not need to adjust the references
+            setPrev(successor, node);
+        }
+        setNext(current, node);
+        if (lowerLevelNode != null) {
+            setUp(lowerLevelNode, node);
+        }
+        return node;
+    }
+
+    /**
+     * Adds the specified element to this list. The element will be added on the highest floor of the skip list and on
+     * as many next levels as the level generator draws.
+     *
+     * @param key the element to be added
+     */
+    public void add(T key) {
+        ListItem<ListItem<ExpressNode<T>>> positions = getInsertionPositions(key);
+        // Draw the height of the whole tower at once
+        int towerHeight = randomHeight();
+        // Potential insertions on each level
+        ListItem<ExpressNode<T>> lowerLevelNode = null;
+        for (int currentHeight = 1; currentHeight <= towerHeight; currentHeight++) {
+            if (currentHeight > height) {
+                // Create the first level or a new upper level if it does not exist
+                ListItem<ListItem<ExpressNode<T>>> node = new ListItem<>();
+                node.key = addLevel();
+                positions = node;
+            }
+            assert positions != null;
+            ListItem<ExpressNode<T>> node = link(positions.key, key, lowerLevelNode);
+            if (lowerLevelNode == null) {
+                hashInserted(node);
+            }
+
+            positions = positions.next;
+            lowerLevelNode = node;
+        }
+        // The nodes above the tower span the new element
+        for (; positions != null; positions = positions.next) {
+            positions.key.key.span++;
+        }
+        size++;
+        modCount++;
+        if (isAdaptive()) {
+            adaptHeight(null);
+        }
+    }
+
+    /**
+     * Adds all of the specified elements to this list. The elements are sorted first and then inserted in a single
+     * forward sweep: the insertion position of each element is searched starting from the predecessors of the
+     * previous element, climbing only as many levels as needed to pass the nodes between both elements. The cost per
+     * element is therefore logarithmic in its distance to the previous element instead of the size of this list.
+     *
+     * <p>Each element is added after all equal elements like in {@link #add(Object)}.
+     *
+     * @param elements the elements to be added
+     */
+    @SuppressWarnings("unchecked")
+    public void addAll(Collection<? extends T> elements) {
+        if (elements.isEmpty()) {
+            return;
+        }
+        T[] sorted = (T[]) elements.toArray();
+        Arrays.sort(sorted, cmp);
+
+        // The last node of each level which is smaller than or equal to the current element, index 0 is the lowest
+        ListItem<ExpressNode<T>>[] predecessors =
+            (ListItem<ExpressNode<T>>[]) new ListItem<?>[Math.max(1, Math.max(height, maxHeight))];
+        int level = height - 1;
+        for (ListItem<ExpressNode<T>> sentinel = head; sentinel != null; sentinel = sentinel.key.down) {
+            predecessors[level--] = sentinel;
+        }
+
+        for (T key : sorted) {
+            // Climb while the predecessor of the previous element is no longer the predecessor on that level
+            int levels = 0;
+            while (levels < height && predecessors[levels].next != null
+                && cmp.compare(predecessors[levels].next.key.value, key) <= 0) {
+                levels++;
+            }
+            // Descend and move forward from the predecessors found on the upper level
+            ListItem<ExpressNode<T>> upper = null;
+            for (level = levels - 1; level >= 0; level--) {
+                ListItem<ExpressNode<T>> current = upper != null ? upper.key.down : predecessors[level];
+                assert current != null;
+                while (current.next != null && cmp.compare(current.next.key.value, key) <= 0) {
+                    current = current.next;
+                }
+                upper = current != predecessors[level] ? current : null;
+                predecessors[level] = current;
+            }
+
+            insert(predecessors, key);
+        }
+    }
+
+    /**
+     * Inserts a new tower containing the specified element after the specified predecessors and replaces the
+     * predecessors on the levels of the tower with its nodes. Missing levels are created.
+     *
+     * @param predecessors the last node of each level smaller than or equal to the element, index 0 is the lowest
+     *                     level, with room for all levels a tower can reach
+     * @param key          the element to be added
+     */
+    private void insert(ListItem<ExpressNode<T>>[] predecessors, T key) {
+        int towerHeight = randomHeight();
+        ListItem<ExpressNode<T>> lowerLevelNode = null;
+        for (int level = 0; level < towerHeight; level++) {
+            if (level == height) {
+                predecessors[level] = addLevel();
+            }
+            lowerLevelNode = link(predecessors[level], key, lowerLevelNode);
+            predecessors[level] = lowerLevelNode;
+        }
+        hashInserted(predecessors[0]);
+        // The predecessors above the tower span the new element
+        for (int level = towerHeight; level < height; level++) {
+            predecessors[level].key.span++;
+        }
+        size++;
+        modCount++;
+        if (isAdaptive()) {
+            adaptHeight(predecessors);
+        }
+    }
+
+    /**
+     * Removes the first occurrence of the specified element from this list, if it is present. The element will be
+     * removed from all levels.
+     *
+     * @param key the element to be removed from this list, if present
+     */
+    public void remove(T key) {
+        // Get the first occurrence of the element
+        ListItem<ExpressNode<T>> current = get(key);
+
+        // If the element is not null, that means it is present in the list
+        if (current != null) {
+            removeTower(current);
+        }
+    }
+
+    /**
+     * Removes the tower of an element from this list. The predecessors on the levels above the tower are found by
+     * walking backwards from the predecessor on the highest level of the tower until a node reaches the next level.
+     *
+     * @param node the node of the tower on its highest level
+     */
+    private void removeTower(ListItem<ExpressNode<T>> node) {
+        int towerHeight = 1;
+        ListItem<ExpressNode<T>> lowest = node;
+        while (lowest.key.down != null) {
+            lowest = lowest.key.down;
+            towerHeight++;
+        }
+        ListItem<ExpressNode<T>> predecessor = node.key.prev;
+        for (int level = towerHeight; level < height; level++) {
+            assert predecessor != null;
+            while (predecessor.key.up == null) {
+                predecessor = predecessor.key.prev;
+                assert predecessor != null;
+            }
+            predecessor = predecessor.key.up;
+            // The predecessors above the tower no longer span the element
+            predecessor.key.span--;
+        }
+        hashRemoved(lowest);
+        size--;
+        modCount++;
+        unlink(node);
+        if (isAdaptive()) {
+            adaptHeight(null);
+        }
+    }
+
+    /**
+     * Removes the tower of an element from the specified node downwards to the lowest level. Levels which become
+     * empty are removed.
+     *
+     * @param current the node of the tower on its highest level, or {@code null} to do nothing
+     */
+    private void unlink(@Nullable ListItem<ExpressNode<T>> current) {
+        // Removal of element on all levels
+        while (current != null) {
+            ListItem<ExpressNode<T>> lowerLevel = current.key.down;
+            // Cannot be null since get returns non-null values if the element is found
+            // We checked that walker != null
+            assert current.key.prev != null;
+            if (current.key.prev.key.value == null && current.next == null) {
+                // Single element list
+                if (current.key.up == null) {
+                    // Head should be deleted
+                    // Since walker is non-null, the list is not empty
+                    assert head != null;
+                    head = head.key.down;
+                    // The new head must not reach the removed level
+                    if (head != null) {
+                        setUp(head, null);
+                    }
+                    if (lowerLevel != null) {
+                        setUp(lowerLevel, null);
+                    }
+                } else {
+                    // Adjust reference from up and down levels
+                    assert current.key.prev.key.up != null;
+                    setDown(current.key.prev.key.up, current.key.prev.key.down);
+                    // Since walker is non-null, the list is not empty
+                    assert current.key.prev.key.down != null;
+                    setUp(current.key.prev.key.down, current.key.prev.key.up);
+                }
+                height--;
+                levelModCount++;
+            } else {
+                // Adjust reference from prev and next nodes
+                current.key.prev.key.span += current.key.span - 1;
+                setNext(current.key.prev, current.next);
+                if (current.next != null) {
+                    setPrev(current.next, current.key.prev);
+                }
+            }
+            current = lowerLevel;
+        }
+    }
+
+    /**
+     * Returns a new finger for searches in this list with locality. A finger is not thread-safe, each thread should
+     * use its own finger.
+     *
+     * @return a new finger for this list
+     *
+     * @see Finger
+     */
+    public Finger finger() {
+        return new Finger();
+    }
+
+    /**
+     * Returns {@code true} if this list contains no elements.
+     *
+     * @return {@code true} if this list contains no elements
+     */
+    public boolean isEmpty() {
+        return head == null;
+    }
+
+    /**
+     * Returns the sentinel node of the lowest level, or {@code null} if this list is empty.
+     *
+     * @return the sentinel node of the lowest level
+     */
+    @Nullable ListItem<ExpressNode<T>> lowestLevel() {
+        ListItem<ExpressNode<T>> current = head;
+        if (current == null) {
+            return null;
+        }
+        for (ListItem<ExpressNode<T>> lower = down(current); lower != null; lower = down(current)) {
+            current = lower;
+        }
+        return current;
+    }
+
+    /**
+     * Performs the given action for each element of this list in ascending order. The elements are read from the
+     * lowest level without locks, so this method may run concurrently to the single writer of this list.
+     *
+     * @param action the action to be performed for each element
+     */
+    @Override
+    public void forEach(Consumer<? super T> action) {
+        ListItem<ExpressNode<T>> sentinel = lowestLevel();
+        if (sentinel == null) {
+            return;
+        }
+        for (ListItem<ExpressNode<T>> current = next(sentinel); current != null; current = next(current)) {
+            action.accept(current.key.value);
+        }
+    }
+
+    /**
+     * Returns an iterator over the elements of this list in ascending order. Like {@link #forEach(Consumer)}, the
+     * iterator may be used concurrently to the single writer of this list.
+     *
+     * @return an iterator over the elements of this list in ascending order
+     */
+    @Override
+    public Iterator<T> iterator() {
+        ListItem<ExpressNode<T>> first = firstNode();
+        return new Iterator<>() {
+
+            /**
+             * The node of the next element to return.
+             */
+            private @Nullable ListItem<ExpressNode<T>> next = first;
+
+            /**
+             * The node of the element returned last.
+             */
+            private @Nullable ListItem<ExpressNode<T>> lastReturned;
+
+            @Override
+            public boolean hasNext() {
+                return next != null;
+            }
+
+            @Override
+            public T next() {
+                ListItem<ExpressNode<T>> current = next;
+                if (current == null) {
+                    throw new NoSuchElementException();
+                }
+                next = SkipList.next(current);
+                lastReturned = current;
+                return current.key.value;
+            }
+
+            @Override
+            public void remove() {
+                if (lastReturned == null) {
+                    throw new IllegalStateException();
+                }
+                removeNode(lastReturned);
+                lastReturned = null;
+            }
+        };
+    }
+
+    /**
+     * Returns a spliterator over the elements of this list in ascending order. The spliterator splits its range at
+     * nodes of the upper levels which are found with the express lanes, so parallel streams divide the lowest level
+     * into balanced chunks. The sizes of the chunks are computed exactly from the spans of the nodes.
+     *
+     * <p>The spliterator covers the elements at the time of its creation and must not be split while this list is
+     * modified.
+     *
+     * @return a spliterator over the elements of this list
+     */
+    @Override
+    public Spliterator<T> spliterator() {
+        return spliterator(0);
+    }
+
+    /**
+     * Returns a spliterator over the elements of this list in ascending order with additional characteristics.
+     *
+     * @param characteristics the additional characteristics of the spliterator
+     *
+     * @return a spliterator over the elements of this list
+     *
+     * @see #spliterator()
+     */
+    Spliterator<T> spliterator(int characteristics) {
+        return new LevelSpliterator(firstNode(), 1, size + 1,
+            characteristics | Spliterator.ORDERED | Spliterator.SORTED | Spliterator.SIZED | Spliterator.SUBSIZED);
+    }
+
+    /**
+     * Returns a sequential stream over the elements of this list in ascending order.
+     *
+     * @return a sequential stream over the elements of this list
+     */
+    public Stream<T> stream() {
+        return StreamSupport.stream(spliterator(), false);
+    }
+
+    /**
+     * Returns a parallel stream over the elements of this list in ascending order.
+     *
+     * @return a parallel stream over the elements of this list
+     */
+    public Stream<T> parallelStream() {
+        return StreamSupport.stream(spliterator(), true);
+    }
+
+    /**
+     * Processes the lowest level in parallel segments and combines their results. The boundaries of the segments are
+     * the nodes of the highest level which has at least {@value #SEGMENTS_PER_THREAD} nodes per worker thread of the
+     * common fork/join pool, so the list is partitioned without copying it. Lists without upper levels are processed
+     * as a single segment.
+     *
+     * @param segment  the function processing the elements from the first node up to the end node (exclusive) of a
+     *                 segment on the lowest level
+     * @param combiner the function combining the results of adjacent segments
+     * @param <R>      the type of the result
+     *
+     * @return the combined result of all segments
+     */
+    private <R> R parallel(BiFunction<ListItem<ExpressNode<T>>, ListItem<ExpressNode<T>>, R> segment,
+                           BinaryOperator<R> combiner) {
+        ListItem<ExpressNode<T>> sentinel = head;
+        if (sentinel == null) {
+            return segment.apply(null, null);
+        }
+        if (down(sentinel) == null) {
+            return segment.apply(next(sentinel), null);
+        }
+        // Descend until the level has enough nodes, but never use the lowest level as boundaries
+        int target = ForkJoinPool.getCommonPoolParallelism() * SEGMENTS_PER_THREAD;
+        int boundaries = countNodes(sentinel);
+        for (ListItem<ExpressNode<T>> lower = down(sentinel); boundaries < target && lower != null
+            && down(lower) != null; lower = down(sentinel)) {
+            sentinel = lower;
+            boundaries = countNodes(sentinel);
+        }
+        return new SegmentTask<>(sentinel, boundaries, segment, combiner).invoke();
+    }
+
+    /**
+     * Returns the number of nodes on a level including its sentinel node.
+     *
+     * @param sentinel the sentinel node of the level
+     * @param <T>      the type of the elements in the list
+     *
+     * @return the number of nodes on the level
+     */
+    private static <T> int countNodes(ListItem<ExpressNode<T>> sentinel) {
+        int count = 0;
+        for (ListItem<ExpressNode<T>> current = sentinel; current != null; current = next(current)) {
+            count++;
+        }
+        return count;
+    }
+
+    /**
+     * Performs the given action for each element of this list in parallel. The action is called concurrently for
+     * elements of different segments and has to be thread-safe. The list must not be modified during the operation.
+     *
+     * @param action the action to be performed for each element
+     *
+     * @see #parallel(BiFunction, BinaryOperator)
+     */
+    public void parallelForEach(Consumer<? super T> action) {
+        this.<Void>parallel((first, end) -> {
+            for (ListItem<ExpressNode<T>> current = first; current != end; current = next(current)) {
+                assert current != null;
+                action.accept(current.key.value);
+            }
+            return null;
+        }, (left, right) -> null);
+    }
+
+    /**
+     * Reduces the elements of this list in parallel. Each segment is reduced in ascending order starting with the
+     * identity, the results of adjacent segments are combined in ascending order. The list must not be modified
+     * during the operation.
+     *
+     * @param identity    the identity value of the combiner
+     * @param accumulator the function adding an element to a partial result
+     * @param combiner    the function combining two partial results, which must be compatible with the accumulator
+     * @param <R>         the type of the result
+     *
+     * @return the result of the reduction
+     *
+     * @see Stream#reduce(Object, BiFunction, BinaryOperator)
+     */
+    public <R> R parallelReduce(R identity, BiFunction<R, ? super T, R> accumulator, BinaryOperator<R> combiner) {
+        return parallel((first, end) -> {
+            R result = identity;
+            for (ListItem<ExpressNode<T>> current = first; current != end; current = next(current)) {
+                assert current != null;
+                result = accumulator.apply(result, current.key.value);
+            }
+            return result;
+        }, combiner);
+    }
+
+    /**
+     * Returns the number of elements of this list matching the given predicate, which are counted in parallel. The
+     * list must not be modified during the operation.
+     *
+     * @param predicate the thread-safe predicate to apply to the elements
+     *
+     * @return the number of elements matching the predicate
+     */
+    public long parallelCount(Predicate<? super T> predicate) {
+        return parallel((first, end) -> {
+            long count = 0;
+            for (ListItem<ExpressNode<T>> current = first; current != end; current = next(current)) {
+                assert current != null;
+                if (predicate.test(current.key.value)) {
+                    count++;
+                }
+            }
+            return count;
+        }, Long::sum);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        // Check instance of to avoid ClassCastException
+        if (!(o instanceof SkipList<?> other)) {
+            return false;
+        }
+        return height == other.height
+            && size == other.size
+            && ExpressNode.equalStructures(head, other.head);
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * <p>The hash code is derived from the unordered content hash in constant time, which is the same for equal lists
+     * regardless of their {@linkplain #getContentHashing() content hashing}.
+     */
+    @Override
+    public int hashCode() {
+        return Long.hashCode(unorderedHash);
+    }
+
+    /**
+     * Writes the levels of this list from the highest to the lowest level to the specified appendable as the elements
+     * are traversed, so no intermediate string of the whole list is built. Depending on the options, each level is
+     * written with all elements, with at most a limited number of elements followed by {@code ...}, or only with its
+     * number of elements.
+     *
+     * <p>Example outputs of the same list:
+     * <pre>{@code
+     * WriteOptions.FULL:       [[12, 47], [5, 12, 17, 47, 72]]
+     * WriteOptions.limited(3): [[12, 47], [5, 12, 17, ...]]
+     * WriteOptions.SUMMARY:    [levels: 2, 5]
+     * }</pre>
+     *
+     * @param out     the appendable to write to
+     * @param options the options controlling how many elements are written
+     *
+     * @throws IOException if the appendable throws an I/O exception
+     */
+    public void writeTo(Appendable out, WriteOptions options) throws IOException {
+        if (options.summary()) {
+            out.append("[levels: ");
+            for (ListItem<ExpressNode<T>> current = head; current != null; current = down(current)) {
+                int count = 0;
+                for (ListItem<ExpressNode<T>> element = next(current); element != null; element = next(element)) {
+                    count++;
+                }
+                out.append(Integer.toString(count));
+                if (down(current) != null) {
+                    out.append(", ");
+                }
+            }
+            out.append("]");
+            return;
+        }
+        out.append("[");
+        for (ListItem<ExpressNode<T>> current = head; current != null; current = down(current)) {
+            out.append("[");
+            int count = 0;
+            for (ListItem<ExpressNode<T>> element = next(current); element != null; element = next(element)) {
+                if (count++ == options.maxElementsPerLevel()) {
+                    // Omit the remaining elements of the level
+                    out.append("...");
+                    break;
+                }
+                out.append(String.valueOf(element.key.value));
+                if (next(element) != null) {
+                    out.append(", ");
+                }
+            }
+            out.append("]");
+            if (down(current) != null) {
+                out.append(", ");
+            }
+        }
+        out.append("]");
+    }
 
+    /**
+     * {@inheritDoc}
+     *
+     * <p>The levels are written with at most {@value #TO_STRING_LIMIT} elements each, so accidentally printing a large
+     * list stays cheap. Use {@link #writeTo(Appendable, WriteOptions)} to write all elements.
+     */
     @Override
     public String toString() {
         StringBuilder sb = new StringBuilder();
-        sb.append("[");
-        for (ListItem<ExpressNode<T>> current = head; current != null; current = current.key.down) {
-            sb.append("[");
-            for (ListItem<ExpressNode<T>> element = current.next; element != null; element = element.next) {
-                sb.append(element.key.value);
-                if (element.next != null) {
-                    sb.append(", ");
+        try {
+            writeTo(sb, WriteOptions.limited(TO_STRING_LIMIT));
+        } catch (IOException e) {
+            // StringBuilder does not throw I/O exceptions
+            throw new AssertionError(e);
+        }
+        return sb.toString();
+    }
+
+    /**
+     * A fork/join task processing the segments between consecutive nodes of an upper level. The segment of a boundary
+     * node reaches from its node on the lowest level up to the node of the next boundary on the lowest level.
+     *
+     * @param <R> the type of the result
+     */
+    @SuppressWarnings("serial")
+    private final class SegmentTask<R> extends RecursiveTask<R> {
+
+        /**
+         * The first boundary node of this task.
+         */
+        private final ListItem<ExpressNode<T>> first;
+
+        /**
+         * The number of boundary nodes of this task.
+         */
+        private final int boundaries;
+
+        /**
+         * The function processing a single segment.
+         */
+        private final BiFunction<ListItem<ExpressNode<T>>, ListItem<ExpressNode<T>>, R> segment;
+
+        /**
+         * The function combining the results of adjacent segments.
+         */
+        private final BinaryOperator<R> combiner;
+
+        /**
+         * Constructs and initializes a task processing the segments of the specified boundary nodes.
+         *
+         * @param first      the first boundary node
+         * @param boundaries the number of boundary nodes
+         * @param segment    the function processing a single segment
+         * @param combiner   the function combining the results of adjacent segments
+         */
+        private SegmentTask(ListItem<ExpressNode<T>> first, int boundaries,
+                            BiFunction<ListItem<ExpressNode<T>>, ListItem<ExpressNode<T>>, R> segment,
+                            BinaryOperator<R> combiner) {
+            this.first = first;
+            this.boundaries = boundaries;
+            this.segment = segment;
+            this.combiner = combiner;
+        }
+
+        /**
+         * Returns the node of the element of the specified node on the lowest level.
+         *
+         * @param node the node
+         *
+         * @return the node on the lowest level
+         */
+        private ListItem<ExpressNode<T>> lowest(ListItem<ExpressNode<T>> node) {
+            for (ListItem<ExpressNode<T>> lower = down(node); lower != null; lower = down(node)) {
+                node = lower;
+            }
+            return node;
+        }
+
+        @Override
+        protected R compute() {
+            if (boundaries == 1) {
+                ListItem<ExpressNode<T>> start = lowest(first);
+                // The segment of a sentinel node starts with the first element
+                ListItem<ExpressNode<T>> from = start.key.prev == null ? next(start) : start;
+                ListItem<ExpressNode<T>> end = next(first);
+                return segment.apply(from, end == null ? null : lowest(end));
+            }
+            int half = boundaries / 2;
+            ListItem<ExpressNode<T>> middle = first;
+            for (int i = 0; i < half; i++) {
+                middle = next(middle);
+                assert middle != null;
+            }
+            SegmentTask<R> left = new SegmentTask<>(first, half, segment, combiner);
+            left.fork();
+            R right = new SegmentTask<>(middle, boundaries - half, segment, combiner).compute();
+            return combiner.apply(left.join(), right);
+        }
+
+    }
+
+    /**
+     * A spliterator over the elements of the list between two positions. The position of the first element of the
+     * list is 1.
+     */
+    private final class LevelSpliterator implements Spliterator<T> {
+
+        /**
+         * The node of the next element on the lowest level.
+         */
+        private @Nullable ListItem<ExpressNode<T>> next;
+
+        /**
+         * The position of the next element.
+         */
+        private int position;
+
+        /**
+         * The position after the last element covered by this spliterator.
+         */
+        private final int end;
+
+        /**
+         * The characteristics of this spliterator.
+         */
+        private final int characteristics;
+
+        /**
+         * Constructs and initializes a spliterator over the elements between both positions.
+         *
+         * @param next            the node of the first element on the lowest level
+         * @param position        the position of the first element
+         * @param end             the position after the last element
+         * @param characteristics the characteristics of the spliterator
+         */
+        private LevelSpliterator(@Nullable ListItem<ExpressNode<T>> next, int position, int end,
+                                 int characteristics) {
+            this.next = next;
+            this.position = position;
+            this.end = end;
+            this.characteristics = characteristics;
+        }
+
+        @Override
+        public boolean tryAdvance(Consumer<? super T> action) {
+            ListItem<ExpressNode<T>> current = next;
+            if (position >= end || current == null) {
+                return false;
+            }
+            next = SkipList.next(current);
+            position++;
+            action.accept(current.key.value);
+            return true;
+        }
+
+        @Override
+        public void forEachRemaining(Consumer<? super T> action) {
+            ListItem<ExpressNode<T>> current = next;
+            int position = this.position;
+            for (; position < end && current != null; position++) {
+                action.accept(current.key.value);
+                current = SkipList.next(current);
+            }
+            next = current;
+            this.position = position;
+        }
+
+        /**
+         * {@inheritDoc}
+         *
+         * <p>The split point is the node on the highest level whose position lies between a quarter and the half of
+         * the remaining elements.
+         */
+        @Override
+        public @Nullable Spliterator<T> trySplit() {
+            int size = end - position;
+            if (size < 2) {
+                return null;
+            }
+            int lower = position + Math.max(1, size / 4);
+            int middle = position + size / 2;
+            ListItem<ExpressNode<T>> current = head;
+            int currentPosition = 0;
+            while (true) {
+                assert current != null;
+                while (current.next != null && currentPosition + current.key.span <= middle) {
+                    currentPosition += current.key.span;
+                    current = current.next;
                 }
+                if (currentPosition >= lower) {
+                    break;
+                }
+                current = current.key.down;
             }
-            sb.append("]");
-            if (current.key.down != null) {
-                sb.append(", ");
+            while (current.key.down != null) {
+                current = current.key.down;
             }
+            Spliterator<T> prefix = new LevelSpliterator(next, position, currentPosition, characteristics);
+            next = current;
+            position = currentPosition;
+            return prefix;
         }
-        sb.append("]");
-        return sb.toString();
+
+        @Override
+        public long estimateSize() {
+            return end - position;
+        }
+
+        @Override
+        public int characteristics() {
+            return characteristics;
+        }
+
+        @Override
+        public @Nullable Comparator<? super T> getComparator() {
+            // Sorted spliterators report the natural ordering as null, so streams can skip sorting
+            return cmp == Comparator.naturalOrder() ? null : cmp;
+        }
+
+    }
+
+    /**
+     * A view of the elements of the list between a lower and an upper bound. Each bound may be missing. The view is
+     * read-only and reflects later changes to the list. Like {@link SkipList#forEach(Consumer)}, iterating the view
+     * may run concurrently to the single writer of the list.
+     */
+    public final class Range extends AbstractCollection<T> {
+
+        /**
+         * Whether the view has a lower bound.
+         */
+        private final boolean hasFrom;
+
+        /**
+         * The lower bound of the view.
+         */
+        private final @Nullable T from;
+
+        /**
+         * Whether the lower bound is part of the view.
+         */
+        private final boolean fromInclusive;
+
+        /**
+         * Whether the view has an upper bound.
+         */
+        private final boolean hasTo;
+
+        /**
+         * The upper bound of the view.
+         */
+        private final @Nullable T to;
+
+        /**
+         * Whether the upper bound is part of the view.
+         */
+        private final boolean toInclusive;
+
+        /**
+         * Constructs and initializes a view with the specified bounds.
+         *
+         * @param hasFrom       whether the view has a lower bound
+         * @param from          the lower bound of the view
+         * @param fromInclusive whether the lower bound is part of the view
+         * @param hasTo         whether the view has an upper bound
+         * @param to            the upper bound of the view
+         * @param toInclusive   whether the upper bound is part of the view
+         */
+        private Range(boolean hasFrom, @Nullable T from, boolean fromInclusive,
+                      boolean hasTo, @Nullable T to, boolean toInclusive) {
+            this.hasFrom = hasFrom;
+            this.from = from;
+            this.fromInclusive = fromInclusive;
+            this.hasTo = hasTo;
+            this.to = to;
+            this.toInclusive = toInclusive;
+        }
+
+        /**
+         * Returns {@code true} if the specified element does not exceed the upper bound of this view.
+         *
+         * @param value the element to test
+         *
+         * @return {@code true} if the specified element does not exceed the upper bound of this view
+         */
+        private boolean isBelowUpperBound(T value) {
+            return !hasTo || isBefore(value, to, toInclusive);
+        }
+
+        /**
+         * Returns the first node on the lowest level of the list which is part of this view.
+         *
+         * @return the first node of this view, or {@code null} if this view is empty
+         */
+        private @Nullable ListItem<ExpressNode<T>> first() {
+            ListItem<ExpressNode<T>> first = hasFrom ? ceilingNode(from, fromInclusive) : firstNode();
+            return first != null && isBelowUpperBound(first.key.value) ? first : null;
+        }
+
+        @Override
+        public Iterator<T> iterator() {
+            ListItem<ExpressNode<T>> first = first();
+            return new Iterator<>() {
+
+                /**
+                 * The node of the next element to return.
+                 */
+                private @Nullable ListItem<ExpressNode<T>> next = first;
+
+                @Override
+                public boolean hasNext() {
+                    return next != null;
+                }
+
+                @Override
+                public T next() {
+                    ListItem<ExpressNode<T>> current = next;
+                    if (current == null) {
+                        throw new NoSuchElementException();
+                    }
+                    next = SkipList.next(current);
+                    if (next != null && !isBelowUpperBound(next.key.value)) {
+                        next = null;
+                    }
+                    return current.key.value;
+                }
+            };
+        }
+
+        /**
+         * {@inheritDoc}
+         *
+         * <p>The size is computed from the spans of the express lanes in logarithmic time.
+         */
+        @Override
+        public int size() {
+            int lower = hasFrom ? count(from, !fromInclusive) : 0;
+            int upper = hasTo ? count(to, toInclusive) : SkipList.this.size;
+            return Math.max(0, upper - lower);
+        }
+
+        @Override
+        public boolean isEmpty() {
+            return first() == null;
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public boolean contains(Object o) {
+            T key = (T) o;
+            return (!hasFrom || isBefore(from, key, fromInclusive)) && isBelowUpperBound(key)
+                && SkipList.this.contains(key);
+        }
+
+    }
+
+    /**
+     * A finger remembers the search path of the last element it was used with, i.e. the last node smaller than or
+     * equal to that element on each level. The next search climbs from the lowest level only until the remembered
+     * node is still the predecessor of the new element and descends from there, so the expected cost of a search is
+     * logarithmic in the distance between consecutive elements instead of the size of the list.
+     *
+     * <p>If the list has been modified by other means than this finger, the path is rebuilt from the head of the list
+     * on the next search.
+     */
+    public final class Finger {
+
+        /**
+         * The last node before the last searched element on each level, index 0 is the lowest level.
+         */
+        private @Nullable ListItem<ExpressNode<T>>[] path;
+
+        /**
+         * The modification count of the list the path is valid for.
+         */
+        private int expectedModCount;
+
+        /**
+         * Constructs and initializes a finger without a remembered path.
+         */
+        private Finger() {
+        }
+
+        /**
+         * Returns {@code true} if the specified node is the last node on its level that is smaller than the specified
+         * element, or equal to it if {@code inclusive} is {@code true}.
+         *
+         * @param node      the node to test
+         * @param key       the element
+         * @param inclusive whether equal elements precede the element
+         *
+         * @return {@code true} if the specified node is the predecessor of the element on its level
+         */
+        private boolean isPredecessor(ListItem<ExpressNode<T>> node, T key, boolean inclusive) {
+            // Sentinel nodes do not have a predecessor
+            return (node.key.prev == null || isBefore(node.key.value, key, inclusive))
+                && (node.next == null || !isBefore(node.next.key.value, key, inclusive));
+        }
+
+        /**
+         * Updates the path to the predecessors of the specified element, i.e. the last nodes smaller than the element,
+         * or equal to it if {@code inclusive} is {@code true}.
+         *
+         * @param key       the element to search for
+         * @param inclusive whether equal elements precede the element
+         *
+         * @return the path to the predecessors of the element
+         */
+        @SuppressWarnings("unchecked")
+        private ListItem<ExpressNode<T>>[] search(T key, boolean inclusive) {
+            ListItem<ExpressNode<T>>[] path = this.path;
+            int height = SkipList.this.height;
+            if (path == null || expectedModCount != modCount || path.length < height) {
+                // Start from the sentinel nodes
+                path = (ListItem<ExpressNode<T>>[]) new ListItem<?>[Math.max(1, Math.max(height, maxHeight))];
+                int level = height - 1;
+                for (ListItem<ExpressNode<T>> sentinel = head; sentinel != null; sentinel = sentinel.key.down) {
+                    path[level--] = sentinel;
+                }
+                this.path = path;
+                expectedModCount = modCount;
+            }
+            if (height == 0) {
+                return path;
+            }
+            // Climb until the remembered node is still the predecessor on its level
+            int level = 0;
+            while (level < height - 1 && !isPredecessor(path[level], key, inclusive)) {
+                level++;
+            }
+            ListItem<ExpressNode<T>> current = path[level];
+            if (current.key.prev != null && !isBefore(current.key.value, key, inclusive)) {
+                // The element is in front of the path even on the highest level
+                current = head;
+            }
+            // Descend and move forward
+            while (true) {
+                assert current != null;
+                while (current.next != null && isBefore(current.next.key.value, key, inclusive)) {
+                    current = current.next;
+                }
+                path[level] = current;
+                if (level == 0) {
+                    return path;
+                }
+                level--;
+                current = current.key.down;
+            }
+        }
+
+        /**
+         * Returns {@code true} if the list contains the specified element.
+         *
+         * @param key the element whose presence in the list is to be tested
+         *
+         * @return {@code true} if the list contains the specified element
+         */
+        public boolean contains(T key) {
+            ListItem<ExpressNode<T>> predecessor = search(key, true)[0];
+            return predecessor != null && predecessor.key.prev != null
+                && cmp.compare(predecessor.key.value, key) == 0;
+        }
+
+        /**
+         * Adds the specified element to the list after all equal elements.
+         *
+         * @param key the element to be added
+         *
+         * @see SkipList#add(Object)
+         */
+        public void add(T key) {
+            insert(search(key, true), key);
+            expectedModCount = modCount;
+        }
+
+        /**
+         * Removes the first occurrence of the specified element from the list, if it is present. The element will be
+         * removed from all levels.
+         *
+         * @param key the element to be removed from the list, if present
+         *
+         * @see SkipList#remove(Object)
+         */
+        public void remove(T key) {
+            // The path ends in front of all equal elements, so it does not contain the removed tower
+            ListItem<ExpressNode<T>>[] path = search(key, false);
+            // Like SkipList#remove, the occurrence found first from the highest level downwards is removed
+            for (int level = height - 1; level >= 0; level--) {
+                ListItem<ExpressNode<T>> node = path[level].next;
+                if (node != null && cmp.compare(node.key.value, key) == 0) {
+                    int levels = levelModCount;
+                    removeTower(node);
+                    // The path stays valid unless levels have been removed or added, even if the height is the same
+                    if (levels == levelModCount) {
+                        expectedModCount = modCount;
+                    }
+                    return;
+                }
+            }
+        }
+
+    }
+
+    /**
+     * Builds a skip list from elements in ascending order by appending each tower to the last node of every level it
+     * occupies, so no element is searched and the list is built in a single pass.
+     *
+     * @param <T> the type of the elements in the list
+     */
+    private static final class Appender<T> {
+
+        /**
+         * The list to build, which is not shared until the appender has finished.
+         */
+        private final SkipList<T> list;
+
+        /**
+         * The sentinel node of each level, the lowest level has index 0.
+         */
+        private final ListItem<ExpressNode<T>>[] sentinels;
+
+        /**
+         * The last node of each level, the lowest level has index 0.
+         */
+        private final ListItem<ExpressNode<T>>[] tails;
+
+        /**
+         * The position of the last node of each level, the sentinel nodes have position 0.
+         */
+        private final int[] positions;
+
+        /**
+         * The number of levels created so far.
+         */
+        private int height = 0;
+
+        /**
+         * The number of elements appended so far.
+         */
+        private int size = 0;
+
+        /**
+         * Constructs and initializes an appender building the specified empty list.
+         *
+         * @param list the empty list to build
+         */
+        @SuppressWarnings("unchecked")
+        Appender(SkipList<T> list) {
+            int levels = Math.max(1, list.maxHeight);
+            this.list = list;
+            this.sentinels = (ListItem<ExpressNode<T>>[]) new ListItem<?>[levels];
+            this.tails = (ListItem<ExpressNode<T>>[]) new ListItem<?>[levels];
+            this.positions = new int[levels];
+        }
+
+        /**
+         * Appends a tower containing the specified element after all elements appended so far.
+         *
+         * @param element     the element to append, not smaller than the previous elements
+         * @param towerHeight the height of the tower, at most the maximum height of the list
+         */
+        void append(T element, int towerHeight) {
+            ListItem<ExpressNode<T>> lowerLevelNode = null;
+            for (int level = 0; level < towerHeight; level++) {
+                if (level == height) {
+                    // Create new level above the existing ones
+                    ListItem<ExpressNode<T>> sentinel = new ListItem<>();
+                    sentinel.key = new ExpressNode<>();
+                    if (level > 0) {
+                        sentinel.key.down = sentinels[level - 1];
+                        sentinels[level - 1].key.up = sentinel;
+                    }
+                    sentinels[level] = sentinel;
+                    tails[level] = sentinel;
+                    positions[level] = 0;
+                    height++;
+                }
+                ListItem<ExpressNode<T>> node = new ListItem<>();
+                node.key = new ExpressNode<>();
+                node.key.value = element;
+                node.key.prev = tails[level];
+                node.key.down = lowerLevelNode;
+                if (lowerLevelNode != null) {
+                    lowerLevelNode.key.up = node;
+                }
+                tails[level].next = node;
+                tails[level].key.span = size + 1 - positions[level];
+                tails[level] = node;
+                positions[level] = size + 1;
+                if (level == 0) {
+                    list.hashInserted(node);
+                }
+                lowerLevelNode = node;
+            }
+            size++;
+        }
+
+        /**
+         * Completes the spans of the last nodes and publishes the levels to the list.
+         *
+         * @return the built list
+         */
+        SkipList<T> finish() {
+            for (int level = 0; level < height; level++) {
+                // The last nodes span the remaining elements
+                tails[level].key.span = size + 1 - positions[level];
+            }
+            // The list has not been shared yet, so it can be published by the caller as a whole
+            list.height = height;
+            list.size = size;
+            list.head = height == 0 ? null : sentinels[height - 1];
+            return list;
+        }
+
+    }
+
+    /**
+     * The options of {@link SkipList#writeTo(Appendable, WriteOptions)}.
+     *
+     * @param maxElementsPerLevel the maximum number of elements written per level
+     * @param summary             whether only the number of elements of each level is written
+     */
+    public record WriteOptions(int maxElementsPerLevel, boolean summary) {
+
+        /**
+         * Writes all elements of each level.
+         */
+        public static final WriteOptions FULL = new WriteOptions(Integer.MAX_VALUE, false);
+
+        /**
+         * Writes only the number of elements of each level.
+         */
+        public static final WriteOptions SUMMARY = new WriteOptions(0, true);
+
+        /**
+         * Constructs and initializes the options.
+         *
+         * @param maxElementsPerLevel the maximum number of elements written per level
+         * @param summary             whether only the number of elements of each level is written
+         *
+         * @throws IllegalArgumentException if the maximum number of elements is negative
+         */
+        public WriteOptions {
+            if (maxElementsPerLevel < 0) {
+                throw new IllegalArgumentException("Maximum number of elements must not be negative: %s"
+                    .formatted(maxElementsPerLevel));
+            }
+        }
+
+        /**
+         * Returns the options writing at most the specified number of elements per level.
+         *
+         * @param maxElementsPerLevel the maximum number of elements written per level
+         *
+         * @return the options writing at most the specified number of elements per level
+         *
+         * @throws IllegalArgumentException if the maximum number of elements is negative
+         */
+        public static WriteOptions limited(int maxElementsPerLevel) {
+            return new WriteOptions(maxElementsPerLevel, false);
+        }
+
     }
 
 }
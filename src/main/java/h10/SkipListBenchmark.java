@@ -0,0 +1,224 @@
+package h10;
+
+import java.util.Comparator;
+import java.util.Random;
+
+/**
+ * A simple benchmark comparing the layout of {@link SkipList} (one {@link ListItem} and {@link ExpressNode} per level)
+ * with the layout of {@link TowerSkipList} (one {@link TowerNode} per element) and its primitive specialization
+ * {@link IntSkipList}.
+ *
+ * <p>The benchmark inserts, searches and removes the same random keys in both lists and prints the elapsed time and
+ * the heap retained by the filled list. It can be run with {@code java h10.SkipListBenchmark [elements] [rounds]}.
+ */
+public class SkipListBenchmark {
+
+    /**
+     * The default number of elements to insert.
+     */
+    private static final int DEFAULT_ELEMENTS = 200_000;
+
+    /**
+     * The default number of measured rounds, preceded by one warm-up round.
+     */
+    private static final int DEFAULT_ROUNDS = 5;
+
+    /**
+     * The maximum height of the benchmarked lists.
+     */
+    private static final int MAX_HEIGHT = 32;
+
+    /**
+     * Don't let anyone instantiate this class.
+     */
+    private SkipListBenchmark() {
+    }
+
+    /**
+     * Main entry point in executing the benchmark.
+     *
+     * @param args the number of elements and the number of rounds, both optional
+     */
+    public static void main(String[] args) {
+        int elements = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_ELEMENTS;
+        int rounds = args.length > 1 ? Integer.parseInt(args[1]) : DEFAULT_ROUNDS;
+        Integer[] keys = new Random(42).ints(elements).boxed().toArray(Integer[]::new);
+
+        System.out.printf("%d elements, %d rounds%n", elements, rounds);
+        System.out.printf("%-24s %10s %10s %10s %12s%n", "layout", "add ms", "search ms", "remove ms", "heap bytes");
+        for (int round = 0; round <= rounds; round++) {
+            String suffix = round == 0 ? " (warm-up)" : "";
+            run("SkipList" + suffix, new ListAdapter(new SkipList<>(Comparator.naturalOrder(), MAX_HEIGHT,
+                probability(round))), keys);
+            run("TowerSkipList" + suffix, new TowerAdapter(new TowerSkipList<>(Comparator.naturalOrder(), MAX_HEIGHT,
+                probability(round))), keys);
+            run("IntSkipList" + suffix, new IntAdapter(new IntSkipList(MAX_HEIGHT, probability(round))), keys);
+        }
+    }
+
+    /**
+     * Returns a probability function of 50% which produces the same sequence for both layouts in a round.
+     *
+     * @param seed the seed of the sequence
+     *
+     * @return the probability function
+     */
+    private static Probability probability(long seed) {
+        Random random = new Random(seed);
+        return random::nextBoolean;
+    }
+
+    /**
+     * Runs all phases of the benchmark for one list and prints the results.
+     *
+     * @param name the name of the list
+     * @param list the list to benchmark
+     * @param keys the keys to insert, search and remove
+     */
+    private static void run(String name, Adapter list, Integer[] keys) {
+        long heapBefore = usedHeap();
+        long start = System.nanoTime();
+        for (Integer key : keys) {
+            list.add(key);
+        }
+        long added = System.nanoTime();
+        long heap = usedHeap() - heapBefore;
+
+        long searchStart = System.nanoTime();
+        int found = 0;
+        for (Integer key : keys) {
+            if (list.contains(key)) {
+                found++;
+            }
+        }
+        long searched = System.nanoTime();
+        if (found != keys.length) {
+            throw new IllegalStateException(name + " lost elements");
+        }
+
+        long removeStart = System.nanoTime();
+        for (Integer key : keys) {
+            list.remove(key);
+        }
+        long removed = System.nanoTime();
+
+        System.out.printf("%-24s %10.1f %10.1f %10.1f %12d%n", name, (added - start) / 1e6,
+            (searched - searchStart) / 1e6, (removed - removeStart) / 1e6, heap);
+    }
+
+    /**
+     * Returns the currently used heap after requesting a garbage collection.
+     *
+     * @return the currently used heap in bytes
+     */
+    private static long usedHeap() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+
+    /**
+     * The common operations of the benchmarked lists.
+     */
+    private interface Adapter {
+
+        /**
+         * Adds the specified element to the list.
+         *
+         * @param key the element to be added
+         */
+        void add(Integer key);
+
+        /**
+         * Returns {@code true} if the list contains the specified element.
+         *
+         * @param key the element to search for
+         *
+         * @return {@code true} if the list contains the specified element
+         */
+        boolean contains(Integer key);
+
+        /**
+         * Removes the specified element from the list.
+         *
+         * @param key the element to be removed
+         */
+        void remove(Integer key);
+
+    }
+
+    /**
+     * Adapter for {@link SkipList}.
+     *
+     * @param list the adapted list
+     */
+    private record ListAdapter(SkipList<Integer> list) implements Adapter {
+
+        @Override
+        public void add(Integer key) {
+            list.add(key);
+        }
+
+        @Override
+        public boolean contains(Integer key) {
+            return list.contains(key);
+        }
+
+        @Override
+        public void remove(Integer key) {
+            list.remove(key);
+        }
+
+    }
+
+    /**
+     * Adapter for {@link TowerSkipList}.
+     *
+     * @param list the adapted list
+     */
+    private record TowerAdapter(TowerSkipList<Integer> list) implements Adapter {
+
+        @Override
+        public void add(Integer key) {
+            list.add(key);
+        }
+
+        @Override
+        public boolean contains(Integer key) {
+            return list.contains(key);
+        }
+
+        @Override
+        public void remove(Integer key) {
+            list.remove(key);
+        }
+
+    }
+
+    /**
+     * Adapter for {@link IntSkipList}.
+     *
+     * @param list the adapted list
+     */
+    private record IntAdapter(IntSkipList list) implements Adapter {
+
+        @Override
+        public void add(Integer key) {
+            list.add(key);
+        }
+
+        @Override
+        public boolean contains(Integer key) {
+            return list.contains(key);
+        }
+
+        @Override
+        public void remove(Integer key) {
+            list.remove(key);
+        }
+
+    }
+
+}
@@ -0,0 +1,400 @@
+package h10;
+
+import org.jetbrains.annotations.Nullable;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.Comparator;
+
+/**
+ * Reads and writes skip lists of integers in the JSON format of the test fixtures, which lists the elements of each
+ * level from the highest to the lowest level:
+ * <pre>{@code
+ * {"levels": [[22, 80], [2, 22, 59, 80], [2, 10, 22, 30, 59, 80]], "maxHeight": 3}
+ * }</pre>
+ *
+ * <p>Both directions stream the levels, so no intermediate collections are built. The reader links the nodes of each
+ * level directly while it parses the elements: since every level is a subsequence of the level below, the nodes of
+ * the upper level are matched in order against the elements of the current level to link the towers. The property
+ * {@code maxHeight} is optional and defaults to the number of levels, other properties are ignored. The property
+ * {@code levels} is required, so the fixture files, whose list is nested in a property {@code list}, are rejected
+ * rather than read as an empty list.
+ */
+public final class SkipListJson {
+
+    /**
+     * Prevents instantiation of this utility class.
+     */
+    private SkipListJson() {
+    }
+
+    /**
+     * Writes the specified list as a JSON object with its levels and its maximum height.
+     *
+     * @param list the list to write
+     * @param out  the appendable to write to
+     *
+     * @throws IOException if the appendable throws an I/O exception
+     */
+    public static void write(SkipList<Integer> list, Appendable out) throws IOException {
+        out.append("{\"levels\":[");
+        for (ListItem<ExpressNode<Integer>> sentinel = list.head; sentinel != null; sentinel = sentinel.key.down) {
+            out.append('[');
+            for (ListItem<ExpressNode<Integer>> node = sentinel.next; node != null; node = node.next) {
+                out.append(String.valueOf(node.key.value));
+                if (node.next != null) {
+                    out.append(',');
+                }
+            }
+            out.append(']');
+            if (sentinel.key.down != null) {
+                out.append(',');
+            }
+        }
+        out.append("],\"maxHeight\":").append(String.valueOf(list.maxHeight)).append('}');
+    }
+
+    /**
+     * Reads a JSON object with the levels of a list and builds the list level by level. The elements of each level
+     * are only compared with their predecessor on the same level and with the next unmatched node of the level above.
+     *
+     * @param in  the reader to read from
+     * @param cmp the comparator used to maintain order in the list
+     *
+     * @return the list described by the JSON object
+     *
+     * @throws IOException if an I/O error occurs, the input is malformed, the levels are missing or do not describe a
+     *                     skip list, or the maximum height is less than the number of levels
+     */
+    public static SkipList<Integer> read(Reader in, Comparator<? super Integer> cmp) throws IOException {
+        Parser parser = new Parser(in instanceof BufferedReader ? in : new BufferedReader(in));
+        ListItem<ExpressNode<Integer>> head = null;
+        int levels = -1;
+        Integer maxHeight = null;
+        parser.expect('{');
+        if (!parser.consume('}')) {
+            do {
+                String name = parser.readString();
+                parser.expect(':');
+                if (name.equals("levels")) {
+                    head = parser.readLevels(cmp);
+                    levels = parser.levels;
+                } else if (name.equals("maxHeight")) {
+                    maxHeight = parser.readInt();
+                } else {
+                    parser.skipValue();
+                }
+            } while (parser.consume(','));
+            parser.expect('}');
+        }
+        if (levels < 0) {
+            throw new IOException("Missing property \"levels\"");
+        }
+        if (maxHeight != null && maxHeight < levels) {
+            throw new IOException("Maximum height %d is less than the number of levels %d"
+                .formatted(maxHeight, levels));
+        }
+        SkipList<Integer> list = new SkipList<>(cmp, maxHeight != null ? maxHeight : levels);
+        list.attach(head);
+        return list;
+    }
+
+    /**
+     * A parser reading JSON tokens character by character with one character of lookahead.
+     */
+    private static final class Parser {
+
+        /**
+         * The reader to read from.
+         */
+        private final Reader in;
+
+        /**
+         * The next character, or {@code -1} at the end of the input.
+         */
+        private int next;
+
+        /**
+         * The number of characters read so far, used for error messages.
+         */
+        private long offset = -1;
+
+        /**
+         * The number of levels read by {@link #readLevels(Comparator)}.
+         */
+        private int levels = 0;
+
+        /**
+         * Constructs and initializes a parser reading the specified reader.
+         *
+         * @param in the reader to read from
+         *
+         * @throws IOException if an I/O error occurs
+         */
+        Parser(Reader in) throws IOException {
+            this.in = in;
+            advance();
+        }
+
+        /**
+         * Reads the next character.
+         *
+         * @throws IOException if an I/O error occurs
+         */
+        private void advance() throws IOException {
+            next = in.read();
+            offset++;
+        }
+
+        /**
+         * Skips whitespace before the next token.
+         *
+         * @throws IOException if an I/O error occurs
+         */
+        private void skipWhitespace() throws IOException {
+            while (next == ' ' || next == '\n' || next == '\r' || next == '\t') {
+                advance();
+            }
+        }
+
+        /**
+         * Returns an exception describing a syntax error at the current offset.
+         *
+         * @param expected the description of the expected input
+         *
+         * @return the exception
+         */
+        private IOException error(String expected) {
+            String found = next < 0 ? "end of input" : "'%c'".formatted((char) next);
+            return new IOException("Malformed JSON at offset %d: expected %s but found %s"
+                .formatted(offset, expected, found));
+        }
+
+        /**
+         * Consumes the specified character after optional whitespace if it is the next character.
+         *
+         * @param c the character to consume
+         *
+         * @return {@code true} if the character has been consumed
+         *
+         * @throws IOException if an I/O error occurs
+         */
+        boolean consume(char c) throws IOException {
+            skipWhitespace();
+            if (next != c) {
+                return false;
+            }
+            advance();
+            return true;
+        }
+
+        /**
+         * Consumes the specified character after optional whitespace.
+         *
+         * @param c the character to consume
+         *
+         * @throws IOException if an I/O error occurs or the next character differs
+         */
+        void expect(char c) throws IOException {
+            if (!consume(c)) {
+                throw error("'" + c + "'");
+            }
+        }
+
+        /**
+         * Reads a string.
+         *
+         * @return the string
+         *
+         * @throws IOException if an I/O error occurs or the next token is not a string
+         */
+        String readString() throws IOException {
+            expect('"');
+            StringBuilder sb = new StringBuilder();
+            while (next != '"') {
+                if (next < 0) {
+                    throw error("'\"'");
+                }
+                if (next == '\\') {
+                    advance();
+                    switch (next) {
+                        case 'b' -> sb.append('\b');
+                        case 'f' -> sb.append('\f');
+                        case 'n' -> sb.append('\n');
+                        case 'r' -> sb.append('\r');
+                        case 't' -> sb.append('\t');
+                        case 'u' -> {
+                            int c = 0;
+                            for (int i = 0; i < 4; i++) {
+                                advance();
+                                int digit = Character.digit(next, 16);
+                                if (digit < 0) {
+                                    throw error("hexadecimal digit");
+                                }
+                                c = c * 16 + digit;
+                            }
+                            sb.append((char) c);
+                        }
+                        case '"', '\\', '/' -> sb.append((char) next);
+                        default -> throw error("escape sequence");
+                    }
+                } else {
+                    sb.append((char) next);
+                }
+                advance();
+            }
+            advance();
+            return sb.toString();
+        }
+
+        /**
+         * Reads an integer.
+         *
+         * @return the integer
+         *
+         * @throws IOException if an I/O error occurs or the next token is not an integer in the range of {@code int}
+         */
+        int readInt() throws IOException {
+            skipWhitespace();
+            boolean negative = next == '-';
+            if (negative) {
+                advance();
+            }
+            if (next < '0' || next > '9') {
+                throw error("integer");
+            }
+            long value = 0;
+            while (next >= '0' && next <= '9') {
+                value = value * 10 + (next - '0');
+                if (value > Integer.MAX_VALUE + 1L) {
+                    throw error("integer in the range of int");
+                }
+                advance();
+            }
+            if (next == '.' || next == 'e' || next == 'E') {
+                throw error("integer");
+            }
+            value = negative ? -value : value;
+            if (value > Integer.MAX_VALUE) {
+                throw error("integer in the range of int");
+            }
+            return (int) value;
+        }
+
+        /**
+         * Skips a value of any type.
+         *
+         * @throws IOException if an I/O error occurs or the value is malformed
+         */
+        void skipValue() throws IOException {
+            skipWhitespace();
+            if (next == '"') {
+                readString();
+            } else if (consume('{')) {
+                if (!consume('}')) {
+                    do {
+                        readString();
+                        expect(':');
+                        skipValue();
+                    } while (consume(','));
+                    expect('}');
+                }
+            } else if (consume('[')) {
+                if (!consume(']')) {
+                    do {
+                        skipValue();
+                    } while (consume(','));
+                    expect(']');
+                }
+            } else if (next == '-' || next >= '0' && next <= '9' || next >= 'a' && next <= 'z') {
+                // Numbers and literals
+                while (next == '-' || next == '+' || next == '.' || next >= '0' && next <= '9'
+                    || next >= 'a' && next <= 'z' || next == 'E') {
+                    advance();
+                }
+            } else {
+                throw error("value");
+            }
+        }
+
+        /**
+         * Reads the array of levels and links their nodes. Each node of the level above is linked to the first
+         * unmatched equal element of the current level, and an element greater than an unmatched node of the level
+         * above means that the level above is not a subsequence of the current level.
+         *
+         * @param cmp the comparator used to maintain order in the list
+         *
+         * @return the sentinel node of the highest level, or {@code null} if there are no levels
+         *
+         * @throws IOException if an I/O error occurs, the input is malformed or the levels do not describe a skip list
+         */
+        @Nullable ListItem<ExpressNode<Integer>> readLevels(Comparator<? super Integer> cmp) throws IOException {
+            ListItem<ExpressNode<Integer>> head = null;
+            ListItem<ExpressNode<Integer>> upperSentinel = null;
+            levels = 0;
+            expect('[');
+            if (consume(']')) {
+                return null;
+            }
+            do {
+                ListItem<ExpressNode<Integer>> sentinel = new ListItem<>();
+                sentinel.key = new ExpressNode<>();
+                if (upperSentinel == null) {
+                    head = sentinel;
+                } else {
+                    upperSentinel.key.down = sentinel;
+                    sentinel.key.up = upperSentinel;
+                }
+                // The next node of the level above which has not been linked to the current level
+                ListItem<ExpressNode<Integer>> pending = upperSentinel == null ? null : upperSentinel.next;
+                ListItem<ExpressNode<Integer>> tail = sentinel;
+                expect('[');
+                if (consume(']')) {
+                    throw new IOException("Level %d is empty".formatted(levels));
+                }
+                do {
+                    int element = readInt();
+                    if (tail != sentinel && cmp.compare(tail.key.value, element) > 0) {
+                        throw new IOException("Elements of level %d are not in ascending order: %s > %s"
+                            .formatted(levels, tail.key.value, element));
+                    }
+                    ListItem<ExpressNode<Integer>> upper = null;
+                    if (pending != null) {
+                        int value = cmp.compare(pending.key.value, element);
+                        if (value < 0) {
+                            throw new IOException("Level %d is not a subsequence of level %d: %s is missing"
+                                .formatted(levels - 1, levels, pending.key.value));
+                        } else if (value == 0) {
+                            // Continue the tower of the node above
+                            upper = pending;
+                            pending = pending.next;
+                        }
+                    }
+                    ListItem<ExpressNode<Integer>> node = new ListItem<>();
+                    node.key = new ExpressNode<>();
+                    // Nodes of the same tower share their element
+                    node.key.value = upper != null ? upper.key.value : Integer.valueOf(element);
+                    node.key.prev = tail;
+                    node.key.up = upper;
+                    if (upper != null) {
+                        upper.key.down = node;
+                    }
+                    tail.next = node;
+                    tail = node;
+                } while (consume(','));
+                expect(']');
+                if (pending != null) {
+                    throw new IOException("Level %d is not a subsequence of level %d: %s is missing"
+                        .formatted(levels - 1, levels, pending.key.value));
+                }
+                upperSentinel = sentinel;
+                levels++;
+            } while (consume(','));
+            expect(']');
+            return head;
+        }
+
+    }
+
+}
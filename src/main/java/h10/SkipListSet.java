@@ -0,0 +1,509 @@
+package h10;
+
+import org.jetbrains.annotations.Nullable;
+
+import java.util.AbstractSet;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.NavigableSet;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+
+/**
+ * Represents a navigable set backed by a {@link SkipList}. Elements which are equal according to the comparator are
+ * stored only once.
+ *
+ * <p>All navigation methods locate their element with the express lanes of the skip list in expected logarithmic
+ * time. Iterators walk the lowest level, descending iterators follow {@link ExpressNode#prev}. Views returned by
+ * {@link #subSet(Object, boolean, Object, boolean)}, {@link #headSet(Object, boolean)},
+ * {@link #tailSet(Object, boolean)} and {@link #descendingSet()} share the skip list with this set.
+ *
+ * <p>The set is not thread-safe.
+ *
+ * @param <T> the type of the elements in this set
+ *
+ * @see java.util.TreeSet
+ */
+public class SkipListSet<T> extends AbstractSet<T> implements NavigableSet<T> {
+
+    /**
+     * The skip list containing the elements of this set.
+     */
+    private final SkipList<T> list;
+
+    /**
+     * Whether this set has a lower bound.
+     */
+    private final boolean hasLo;
+
+    /**
+     * The lower bound of this set in ascending order.
+     */
+    private final @Nullable T lo;
+
+    /**
+     * Whether the lower bound is part of this set.
+     */
+    private final boolean loInclusive;
+
+    /**
+     * Whether this set has an upper bound.
+     */
+    private final boolean hasHi;
+
+    /**
+     * The upper bound of this set in ascending order.
+     */
+    private final @Nullable T hi;
+
+    /**
+     * Whether the upper bound is part of this set.
+     */
+    private final boolean hiInclusive;
+
+    /**
+     * Whether this set is in descending order.
+     */
+    private final boolean descending;
+
+    /**
+     * Constructs and initializes an empty set without the probability to add elements on higher levels.
+     *
+     * @param cmp       the comparator used to maintain order in this set
+     * @param maxHeight the maximum height of the skip list
+     */
+    public SkipListSet(Comparator<? super T> cmp, int maxHeight) {
+        this(new SkipList<>(cmp, maxHeight));
+    }
+
+    /**
+     * Constructs and initializes an empty set.
+     *
+     * @param cmp         the comparator used to maintain order in this set
+     * @param maxHeight   the maximum height of the skip list
+     * @param probability the probability function used to determine if a node should be added on another level
+     */
+    public SkipListSet(Comparator<? super T> cmp, int maxHeight, Probability probability) {
+        this(new SkipList<>(cmp, maxHeight, probability));
+    }
+
+    /**
+     * Constructs and initializes a set containing all elements of the specified skip list.
+     *
+     * @param list the skip list without duplicates
+     */
+    private SkipListSet(SkipList<T> list) {
+        this(list, false, null, false, false, null, false, false);
+    }
+
+    /**
+     * Constructs and initializes a view of the specified skip list.
+     *
+     * @param list        the skip list without duplicates
+     * @param hasLo       whether the view has a lower bound
+     * @param lo          the lower bound of the view in ascending order
+     * @param loInclusive whether the lower bound is part of the view
+     * @param hasHi       whether the view has an upper bound
+     * @param hi          the upper bound of the view in ascending order
+     * @param hiInclusive whether the upper bound is part of the view
+     * @param descending  whether the view is in descending order
+     */
+    private SkipListSet(SkipList<T> list, boolean hasLo, @Nullable T lo, boolean loInclusive,
+                        boolean hasHi, @Nullable T hi, boolean hiInclusive, boolean descending) {
+        this.list = list;
+        this.hasLo = hasLo;
+        this.lo = lo;
+        this.loInclusive = loInclusive;
+        this.hasHi = hasHi;
+        this.hi = hi;
+        this.hiInclusive = hiInclusive;
+        this.descending = descending;
+    }
+
+    /**
+     * Returns {@code true} if the specified element is smaller than the lower bound of this set.
+     *
+     * @param key       the element to test
+     * @param inclusive whether the lower bound counts as part of this set
+     *
+     * @return {@code true} if the specified element is smaller than the lower bound of this set
+     */
+    private boolean tooLow(T key, boolean inclusive) {
+        if (!hasLo) {
+            return false;
+        }
+        int value = list.cmp.compare(key, lo);
+        return value < 0 || value == 0 && !inclusive;
+    }
+
+    /**
+     * Returns {@code true} if the specified element is greater than the upper bound of this set.
+     *
+     * @param key       the element to test
+     * @param inclusive whether the upper bound counts as part of this set
+     *
+     * @return {@code true} if the specified element is greater than the upper bound of this set
+     */
+    private boolean tooHigh(T key, boolean inclusive) {
+        if (!hasHi) {
+            return false;
+        }
+        int value = list.cmp.compare(key, hi);
+        return value > 0 || value == 0 && !inclusive;
+    }
+
+    /**
+     * Returns {@code true} if the specified element is within the bounds of this set.
+     *
+     * @param key the element to test
+     *
+     * @return {@code true} if the specified element is within the bounds of this set
+     */
+    private boolean inRange(T key) {
+        return !tooLow(key, loInclusive) && !tooHigh(key, hiInclusive);
+    }
+
+    /**
+     * Returns the node of the smallest element of this set in ascending order.
+     *
+     * @return the node of the smallest element, or {@code null} if this set is empty
+     */
+    private @Nullable ListItem<ExpressNode<T>> lowestNode() {
+        ListItem<ExpressNode<T>> node = hasLo ? list.ceilingNode(lo, loInclusive) : list.firstNode();
+        return node == null || tooHigh(node.key.value, hiInclusive) ? null : node;
+    }
+
+    /**
+     * Returns the node of the greatest element of this set in ascending order.
+     *
+     * @return the node of the greatest element, or {@code null} if this set is empty
+     */
+    private @Nullable ListItem<ExpressNode<T>> highestNode() {
+        ListItem<ExpressNode<T>> node = hasHi ? list.floorNode(hi, hiInclusive) : list.lastNode();
+        return node == null || tooLow(node.key.value, loInclusive) ? null : node;
+    }
+
+    /**
+     * Returns the node of the smallest element of this set in ascending order which is greater than the specified
+     * element, or equal to it if {@code inclusive} is {@code true}.
+     *
+     * @param key       the element
+     * @param inclusive whether an equal element is accepted
+     *
+     * @return the node of the element, or {@code null} if there is none
+     */
+    private @Nullable ListItem<ExpressNode<T>> ceilingNode(T key, boolean inclusive) {
+        if (tooLow(key, loInclusive)) {
+            return lowestNode();
+        }
+        ListItem<ExpressNode<T>> node = list.ceilingNode(key, inclusive);
+        return node == null || tooHigh(node.key.value, hiInclusive) ? null : node;
+    }
+
+    /**
+     * Returns the node of the greatest element of this set in ascending order which is smaller than the specified
+     * element, or equal to it if {@code inclusive} is {@code true}.
+     *
+     * @param key       the element
+     * @param inclusive whether an equal element is accepted
+     *
+     * @return the node of the element, or {@code null} if there is none
+     */
+    private @Nullable ListItem<ExpressNode<T>> floorNode(T key, boolean inclusive) {
+        if (tooHigh(key, hiInclusive)) {
+            return highestNode();
+        }
+        ListItem<ExpressNode<T>> node = list.floorNode(key, inclusive);
+        return node == null || tooLow(node.key.value, loInclusive) ? null : node;
+    }
+
+    /**
+     * Returns the element of the specified node, or {@code null} if the node is {@code null}.
+     *
+     * @param node the node
+     *
+     * @return the element of the specified node
+     */
+    private @Nullable T valueOf(@Nullable ListItem<ExpressNode<T>> node) {
+        return node == null ? null : node.key.value;
+    }
+
+    /**
+     * Returns the element of the specified node and throws an exception if there is none.
+     *
+     * @param node the node
+     *
+     * @return the element of the specified node
+     *
+     * @throws NoSuchElementException if the node is {@code null}
+     */
+    private T valueOrThrow(@Nullable ListItem<ExpressNode<T>> node) {
+        if (node == null) {
+            throw new NoSuchElementException();
+        }
+        return node.key.value;
+    }
+
+    /**
+     * Removes the element of the specified node from the skip list.
+     *
+     * @param node the node
+     *
+     * @return the element of the specified node, or {@code null} if the node is {@code null}
+     */
+    private @Nullable T poll(@Nullable ListItem<ExpressNode<T>> node) {
+        if (node == null) {
+            return null;
+        }
+        list.removeNode(node);
+        return node.key.value;
+    }
+
+    @Override
+    public @Nullable T lower(T t) {
+        return valueOf(descending ? ceilingNode(t, false) : floorNode(t, false));
+    }
+
+    @Override
+    public @Nullable T floor(T t) {
+        return valueOf(descending ? ceilingNode(t, true) : floorNode(t, true));
+    }
+
+    @Override
+    public @Nullable T ceiling(T t) {
+        return valueOf(descending ? floorNode(t, true) : ceilingNode(t, true));
+    }
+
+    @Override
+    public @Nullable T higher(T t) {
+        return valueOf(descending ? floorNode(t, false) : ceilingNode(t, false));
+    }
+
+    @Override
+    public T first() {
+        return valueOrThrow(descending ? highestNode() : lowestNode());
+    }
+
+    @Override
+    public T last() {
+        return valueOrThrow(descending ? lowestNode() : highestNode());
+    }
+
+    @Override
+    public @Nullable T pollFirst() {
+        return poll(descending ? highestNode() : lowestNode());
+    }
+
+    @Override
+    public @Nullable T pollLast() {
+        return poll(descending ? lowestNode() : highestNode());
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * <p>The size is computed from the spans of the express lanes in logarithmic time.
+     */
+    @Override
+    public int size() {
+        int lower = hasLo ? list.count(lo, !loInclusive) : 0;
+        int upper = hasHi ? list.count(hi, hiInclusive) : list.size();
+        return Math.max(0, upper - lower);
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return lowestNode() == null;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public boolean contains(Object o) {
+        T key = (T) o;
+        return inRange(key) && list.contains(key);
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @throws IllegalArgumentException if the element is outside the bounds of this set
+     */
+    @Override
+    public boolean add(T t) {
+        if (!inRange(t)) {
+            throw new IllegalArgumentException("Element out of range: %s".formatted(t));
+        }
+        if (list.contains(t)) {
+            return false;
+        }
+        list.add(t);
+        return true;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public boolean remove(Object o) {
+        if (!contains(o)) {
+            return false;
+        }
+        list.remove((T) o);
+        return true;
+    }
+
+    @Override
+    public Iterator<T> iterator() {
+        ListItem<ExpressNode<T>> first = descending ? highestNode() : lowestNode();
+        return new Iterator<>() {
+
+            /**
+             * The node of the next element to return.
+             */
+            private @Nullable ListItem<ExpressNode<T>> next = first;
+
+            /**
+             * The node of the element returned last.
+             */
+            private @Nullable ListItem<ExpressNode<T>> lastReturned;
+
+            @Override
+            public boolean hasNext() {
+                return next != null;
+            }
+
+            @Override
+            public T next() {
+                ListItem<ExpressNode<T>> current = next;
+                if (current == null) {
+                    throw new NoSuchElementException();
+                }
+                if (descending) {
+                    next = SkipList.prev(current);
+                    // Stop at the sentinel node or the lower bound
+                    if (next != null && (next.key.prev == null || tooLow(next.key.value, loInclusive))) {
+                        next = null;
+                    }
+                } else {
+                    next = SkipList.next(current);
+                    if (next != null && tooHigh(next.key.value, hiInclusive)) {
+                        next = null;
+                    }
+                }
+                lastReturned = current;
+                return current.key.value;
+            }
+
+            @Override
+            public void remove() {
+                if (lastReturned == null) {
+                    throw new IllegalStateException();
+                }
+                list.removeNode(lastReturned);
+                lastReturned = null;
+            }
+        };
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * <p>The spliterator of the whole set in ascending order splits the skip list at nodes of its upper levels.
+     *
+     * @see SkipList#spliterator()
+     */
+    @Override
+    public Spliterator<T> spliterator() {
+        if (hasLo || hasHi || descending) {
+            return NavigableSet.super.spliterator();
+        }
+        return list.spliterator(Spliterator.DISTINCT);
+    }
+
+    @Override
+    public Iterator<T> descendingIterator() {
+        return descendingSet().iterator();
+    }
+
+    @Override
+    public NavigableSet<T> descendingSet() {
+        return new SkipListSet<>(list, hasLo, lo, loInclusive, hasHi, hi, hiInclusive, !descending);
+    }
+
+    @Override
+    public Comparator<? super T> comparator() {
+        return descending ? Collections.reverseOrder(list.cmp) : list.cmp;
+    }
+
+    /**
+     * Returns a view of this set with the specified bounds in ascending order. Missing bounds are inherited from this
+     * set.
+     *
+     * @param hasFrom       whether the view has a new lower bound
+     * @param from          the new lower bound of the view in ascending order
+     * @param fromInclusive whether the new lower bound is part of the view
+     * @param hasTo         whether the view has a new upper bound
+     * @param to            the new upper bound of the view in ascending order
+     * @param toInclusive   whether the new upper bound is part of the view
+     *
+     * @return a view of this set with the specified bounds
+     *
+     * @throws IllegalArgumentException if a new bound is outside the bounds of this set or the lower bound is greater
+     *                                  than the upper bound
+     */
+    private NavigableSet<T> view(boolean hasFrom, @Nullable T from, boolean fromInclusive,
+                                 boolean hasTo, @Nullable T to, boolean toInclusive) {
+        if (hasFrom && hasTo && list.cmp.compare(from, to) > 0) {
+            throw new IllegalArgumentException("Lower bound is greater than upper bound: %s > %s".formatted(from, to));
+        }
+        // An exclusive bound may be equal to an exclusive bound of this set
+        if (hasFrom && (tooLow(from, loInclusive || !fromInclusive) || tooHigh(from, hiInclusive || !fromInclusive))) {
+            throw new IllegalArgumentException("Lower bound out of range: %s".formatted(from));
+        }
+        if (hasTo && (tooLow(to, loInclusive || !toInclusive) || tooHigh(to, hiInclusive || !toInclusive))) {
+            throw new IllegalArgumentException("Upper bound out of range: %s".formatted(to));
+        }
+        return new SkipListSet<>(
+            list,
+            hasLo || hasFrom, hasFrom ? from : lo, hasFrom ? fromInclusive : loInclusive,
+            hasHi || hasTo, hasTo ? to : hi, hasTo ? toInclusive : hiInclusive,
+            descending
+        );
+    }
+
+    @Override
+    public NavigableSet<T> subSet(T fromElement, boolean fromInclusive, T toElement, boolean toInclusive) {
+        return descending
+            ? view(true, toElement, toInclusive, true, fromElement, fromInclusive)
+            : view(true, fromElement, fromInclusive, true, toElement, toInclusive);
+    }
+
+    @Override
+    public NavigableSet<T> headSet(T toElement, boolean inclusive) {
+        return descending
+            ? view(true, toElement, inclusive, false, null, false)
+            : view(false, null, false, true, toElement, inclusive);
+    }
+
+    @Override
+    public NavigableSet<T> tailSet(T fromElement, boolean inclusive) {
+        return descending
+            ? view(false, null, false, true, fromElement, inclusive)
+            : view(true, fromElement, inclusive, false, null, false);
+    }
+
+    @Override
+    public NavigableSet<T> subSet(T fromElement, T toElement) {
+        return subSet(fromElement, true, toElement, false);
+    }
+
+    @Override
+    public NavigableSet<T> headSet(T toElement) {
+        return headSet(toElement, false);
+    }
+
+    @Override
+    public NavigableSet<T> tailSet(T fromElement) {
+        return tailSet(fromElement, true);
+    }
+
+}
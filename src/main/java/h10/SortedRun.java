@@ -0,0 +1,352 @@
+package h10;
+
+import org.jetbrains.annotations.Nullable;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * Represents an immutable file of an {@link LsmStore} containing entries with distinct keys in ascending order. Each
+ * entry consists of its key, a flag whether it has a value or marks a deletion, and the value. Every
+ * {@value #INDEX_INTERVAL}th entry is part of a sparse index at the end of the file, which is loaded when the run is
+ * opened, so a lookup only decodes the entries between two indexed keys from the mapped file.
+ * <pre>{@code
+ * entry_0 | ... | entry_{n-1} | index-size (key offset)* | index-offset size magic
+ * }</pre>
+ *
+ * @param <K> the type of the keys
+ * @param <V> the type of the values
+ */
+final class SortedRun<K, V> {
+
+    /**
+     * The magic number at the end of a run file.
+     */
+    private static final int MAGIC = 0x534B5231;
+
+    /**
+     * The number of bytes of the footer at the end of a run file.
+     */
+    private static final int FOOTER_SIZE = 3 * Integer.BYTES;
+
+    /**
+     * The number of entries between two consecutive keys of the sparse index.
+     */
+    static final int INDEX_INTERVAL = 16;
+
+    /**
+     * The file of this run.
+     */
+    final Path file;
+
+    /**
+     * The generation of the oldest flushed memtable merged into this run.
+     */
+    final long firstGeneration;
+
+    /**
+     * The generation of the newest flushed memtable merged into this run.
+     */
+    final long lastGeneration;
+
+    /**
+     * The comparator of the keys.
+     */
+    private final Comparator<? super K> cmp;
+
+    /**
+     * The codec of the keys.
+     */
+    private final KeyCodec<K> keyCodec;
+
+    /**
+     * The codec of the values.
+     */
+    private final KeyCodec<V> valueCodec;
+
+    /**
+     * The mapped file.
+     */
+    private final ByteBuffer buffer;
+
+    /**
+     * The keys of the sparse index in ascending order.
+     */
+    private final K[] indexKeys;
+
+    /**
+     * The offsets of the entries of the keys of the sparse index.
+     */
+    private final int[] indexOffsets;
+
+    /**
+     * The offset of the end of the entries.
+     */
+    private final int end;
+
+    /**
+     * The number of entries of this run.
+     */
+    final int size;
+
+    /**
+     * Constructs and initializes a run reading the specified mapped file.
+     *
+     * @param file            the file of the run
+     * @param firstGeneration the generation of the oldest memtable merged into the run
+     * @param lastGeneration  the generation of the newest memtable merged into the run
+     * @param cmp             the comparator of the keys
+     * @param keyCodec        the codec of the keys
+     * @param valueCodec      the codec of the values
+     * @param buffer          the mapped file
+     * @param indexKeys       the keys of the sparse index
+     * @param indexOffsets    the offsets of the entries of the keys of the sparse index
+     * @param end             the offset of the end of the entries
+     * @param size            the number of entries
+     */
+    private SortedRun(Path file, long firstGeneration, long lastGeneration, Comparator<? super K> cmp,
+                      KeyCodec<K> keyCodec, KeyCodec<V> valueCodec, ByteBuffer buffer, K[] indexKeys,
+                      int[] indexOffsets, int end, int size) {
+        this.file = file;
+        this.firstGeneration = firstGeneration;
+        this.lastGeneration = lastGeneration;
+        this.cmp = cmp;
+        this.keyCodec = keyCodec;
+        this.valueCodec = valueCodec;
+        this.buffer = buffer;
+        this.indexKeys = indexKeys;
+        this.indexOffsets = indexOffsets;
+        this.end = end;
+        this.size = size;
+    }
+
+    /**
+     * Writes the specified entries to a run file and forces it to the disk.
+     *
+     * @param file       the file to write to, which is replaced if it exists
+     * @param entries    the entries with distinct keys in ascending order
+     * @param keyCodec   the codec of the keys
+     * @param valueCodec the codec of the values
+     * @param <K>        the type of the keys
+     * @param <V>        the type of the values
+     *
+     * @throws IOException if an I/O error occurs or the file would exceed 2 GB
+     */
+    static <K, V> void write(Path file, Iterator<LsmStore.Entry<K, V>> entries, KeyCodec<K> keyCodec,
+                             KeyCodec<V> valueCodec) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+            StandardOpenOption.TRUNCATE_EXISTING)) {
+            DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Channels.newOutputStream(channel)));
+            // The index is written after the entries, so its keys are kept until then
+            ByteArrayOutputStream indexBytes = new ByteArrayOutputStream();
+            DataOutputStream index = new DataOutputStream(indexBytes);
+            int size = 0;
+            int indexSize = 0;
+            while (entries.hasNext()) {
+                LsmStore.Entry<K, V> entry = entries.next();
+                int offset = offset(out);
+                if (size % INDEX_INTERVAL == 0) {
+                    keyCodec.write(index, entry.key());
+                    index.writeInt(offset);
+                    indexSize++;
+                }
+                keyCodec.write(out, entry.key());
+                out.writeBoolean(entry.value() != null);
+                if (entry.value() != null) {
+                    valueCodec.write(out, entry.value());
+                }
+                size++;
+            }
+            int indexOffset = offset(out);
+            out.writeInt(indexSize);
+            indexBytes.writeTo(out);
+            out.writeInt(indexOffset);
+            out.writeInt(size);
+            out.writeInt(MAGIC);
+            offset(out);
+            out.flush();
+            channel.force(true);
+        }
+    }
+
+    /**
+     * Returns the offset of the next byte written to the specified output.
+     *
+     * @param out the output
+     *
+     * @return the offset of the next byte
+     *
+     * @throws IOException if the output exceeds 2 GB
+     */
+    private static int offset(DataOutputStream out) throws IOException {
+        // The counter of the stream stops at the maximum value
+        if (out.size() == Integer.MAX_VALUE) {
+            throw new IOException("Run files are limited to 2 GB");
+        }
+        return out.size();
+    }
+
+    /**
+     * Opens a run file by mapping it into memory and loading its sparse index.
+     *
+     * @param file            the file of the run
+     * @param firstGeneration the generation of the oldest memtable merged into the run
+     * @param lastGeneration  the generation of the newest memtable merged into the run
+     * @param cmp             the comparator of the keys
+     * @param keyCodec        the codec of the keys
+     * @param valueCodec      the codec of the values
+     * @param <K>             the type of the keys
+     * @param <V>             the type of the values
+     *
+     * @return the opened run
+     *
+     * @throws IOException if an I/O error occurs or the file is not a run file
+     */
+    @SuppressWarnings("unchecked")
+    static <K, V> SortedRun<K, V> open(Path file, long firstGeneration, long lastGeneration,
+                                       Comparator<? super K> cmp, KeyCodec<K> keyCodec, KeyCodec<V> valueCodec)
+        throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long length = channel.size();
+            if (length < Integer.BYTES + FOOTER_SIZE || length > Integer.MAX_VALUE) {
+                throw new IOException("Not a run file: %s".formatted(file));
+            }
+            ByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, length);
+            int footer = (int) length - FOOTER_SIZE;
+            int indexOffset = buffer.getInt(footer);
+            int size = buffer.getInt(footer + Integer.BYTES);
+            if (buffer.getInt(footer + 2 * Integer.BYTES) != MAGIC || indexOffset < 0 || indexOffset > footer
+                || size < 0) {
+                throw new IOException("Not a run file: %s".formatted(file));
+            }
+            ByteBufferInput in = new ByteBufferInput(buffer).seek(indexOffset);
+            int indexSize = in.readInt();
+            if (indexSize != (size + INDEX_INTERVAL - 1) / INDEX_INTERVAL) {
+                throw new IOException("Not a run file: %s".formatted(file));
+            }
+            K[] indexKeys = (K[]) new Object[indexSize];
+            int[] indexOffsets = new int[indexSize];
+            for (int i = 0; i < indexSize; i++) {
+                indexKeys[i] = keyCodec.read(in);
+                indexOffsets[i] = in.readInt();
+            }
+            return new SortedRun<>(file, firstGeneration, lastGeneration, cmp, keyCodec, valueCodec, buffer,
+                indexKeys, indexOffsets, indexOffset, size);
+        }
+    }
+
+    /**
+     * Returns the entry of the specified key. The sparse index is searched for the last indexed key smaller than or
+     * equal to the key, and the entries from there are decoded up to the next indexed key.
+     *
+     * @param key the key to search for
+     *
+     * @return the entry of the key, whose value is {@code null} if the key has been deleted, or {@code null} if this
+     *         run does not contain the key
+     *
+     * @throws UncheckedIOException if an entry cannot be decoded
+     */
+    @Nullable LsmStore.Entry<K, V> get(K key) {
+        int low = 0;
+        int high = indexKeys.length - 1;
+        // Binary search for the last indexed key smaller than or equal to the key
+        int block = -1;
+        while (low <= high) {
+            int middle = (low + high) >>> 1;
+            if (cmp.compare(indexKeys[middle], key) <= 0) {
+                block = middle;
+                low = middle + 1;
+            } else {
+                high = middle - 1;
+            }
+        }
+        if (block < 0) {
+            return null;
+        }
+        int blockEnd = block + 1 < indexOffsets.length ? indexOffsets[block + 1] : end;
+        EntryIterator iterator = new EntryIterator(indexOffsets[block], blockEnd);
+        while (iterator.hasNext()) {
+            LsmStore.Entry<K, V> entry = iterator.next();
+            int value = cmp.compare(entry.key(), key);
+            if (value >= 0) {
+                return value == 0 ? entry : null;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Returns an iterator over all entries of this run in ascending order, including deletions.
+     *
+     * @return an iterator over all entries of this run
+     */
+    Iterator<LsmStore.Entry<K, V>> iterator() {
+        return new EntryIterator(0, end);
+    }
+
+    /**
+     * An iterator decoding the entries between two offsets of the mapped file.
+     */
+    private final class EntryIterator implements Iterator<LsmStore.Entry<K, V>> {
+
+        /**
+         * The input decoding the entries, positioned at the next entry.
+         */
+        private final ByteBufferInput input;
+
+        /**
+         * The offset after the last entry of the iteration.
+         */
+        private final int end;
+
+        /**
+         * The offset of the next entry.
+         */
+        private int position;
+
+        /**
+         * Constructs and initializes an iterator over the entries between the specified offsets.
+         *
+         * @param start the offset of the first entry
+         * @param end   the offset after the last entry
+         */
+        EntryIterator(int start, int end) {
+            this.input = new ByteBufferInput(buffer).seek(start);
+            this.position = start;
+            this.end = end;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return position < end;
+        }
+
+        @Override
+        public LsmStore.Entry<K, V> next() {
+            if (position >= end) {
+                throw new NoSuchElementException();
+            }
+            try {
+                K key = keyCodec.read(input);
+                V value = input.readBoolean() ? valueCodec.read(input) : null;
+                position = input.position();
+                return new LsmStore.Entry<>(key, value);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+    }
+
+}
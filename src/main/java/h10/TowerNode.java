@@ -0,0 +1,62 @@
+package h10;
+
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * An instance of this class represents an element of a {@link TowerSkipList}. Each element is stored exactly once and
+ * holds its successors on all levels it occupies, so the forward reference on level {@code i} is {@code next[i]}.
+ *
+ * <p>Example:
+ * <pre>{@code
+ *  level 1: head ------ 12
+ *  level 0: head -- 5 -- 12 -- 17
+ * }</pre>
+ *
+ * <p>Code:
+ * <pre>{@code
+ * TowerNode<Integer> node = new TowerNode<>(12, 2);
+ * node.next[0] = new TowerNode<>(17, 1); // Successor on the lowest level
+ * node.next[1] = null; // No successor on the upper level
+ * }</pre>
+ *
+ * @param <T> type of value
+ */
+public class TowerNode<T> {
+
+    /**
+     * The value of this node, {@code null} for the head of a list.
+     */
+    public T value;
+
+    /**
+     * The successor nodes of this node where the index is the level of the successor.
+     */
+    public @Nullable TowerNode<T>[] next;
+
+    /**
+     * Constructs and initializes a node with the specified value and height.
+     *
+     * @param value  the value of the node
+     * @param height the number of levels the node occupies
+     */
+    @SuppressWarnings("unchecked")
+    public TowerNode(T value, int height) {
+        this.value = value;
+        this.next = (TowerNode<T>[]) new TowerNode<?>[height];
+    }
+
+    /**
+     * Returns the number of levels this node occupies.
+     *
+     * @return the number of levels this node occupies
+     */
+    public int height() {
+        return next.length;
+    }
+
+    @Override
+    public String toString() {
+        return String.valueOf(value);
+    }
+
+}
@@ -0,0 +1,256 @@
+package h10;
+
+import java.util.Comparator;
+
+/**
+ * Represents a skip list where every element is stored in a single {@link TowerNode} holding the forward references of
+ * all its levels. In contrast to {@link SkipList}, which needs a {@link ListItem} and an {@link ExpressNode} per level
+ * of an element, an element of height {@code h} costs one node and one array of length {@code h}, and descending a
+ * level during a search does not leave the current node.
+ *
+ * <p>Example:
+ * <pre>{@code
+ *  head ------------------------- 47
+ *  head -------- 12 ------------- 47
+ *  head -------- 12 ------------- 47 -- 72
+ *  head -- 5 -- 12 -- 17 -- 47 -- 72 -- 98
+ * }</pre>
+ *
+ * @param <T> the type of the elements in this list
+ *
+ * @see SkipList
+ */
+public class TowerSkipList<T> {
+
+    /**
+     * The comparator used to maintain order in this list.
+     */
+    protected final Comparator<? super T> cmp;
+
+    /**
+     * The maximum height of the skip list.
+     */
+    final int maxHeight;
+
+    /**
+     * The probability function used to determine if a node should be added on another level.
+     */
+    private Probability probability;
+
+    /**
+     * The head of the skip list, a sentinel node spanning all possible levels.
+     */
+    final TowerNode<T> head;
+
+    /**
+     * The predecessors of the last searched position on each level, reused by every update to avoid allocations.
+     */
+    private final TowerNode<T>[] update;
+
+    /**
+     * The current height of the skip list.
+     */
+    int height = 0;
+
+    /**
+     * The number of items in the skip list.
+     */
+    int size = 0;
+
+    /**
+     * Constructs and initializes an empty skip list without the probability to add elements on higher levels.
+     *
+     * @param cmp       the comparator used to maintain order in this list
+     * @param maxHeight the maximum height of the skip list
+     */
+    public TowerSkipList(Comparator<? super T> cmp, int maxHeight) {
+        this(cmp, maxHeight, SkipList.DEFAULT_PROBABILITY);
+    }
+
+    /**
+     * Constructs and initializes an empty skip list.
+     *
+     * @param cmp         the comparator used to maintain order in this list
+     * @param maxHeight   the maximum height of the skip list
+     * @param probability the probability function used to determine if a node should be added on another level
+     */
+    @SuppressWarnings("unchecked")
+    public TowerSkipList(Comparator<? super T> cmp, int maxHeight, Probability probability) {
+        this.cmp = cmp;
+        this.maxHeight = maxHeight;
+        this.probability = probability;
+        this.head = new TowerNode<>(null, Math.max(1, maxHeight));
+        this.update = (TowerNode<T>[]) new TowerNode<?>[head.height()];
+    }
+
+    /**
+     * Returns the current height of this skip list.
+     *
+     * @return the current height of this skip list
+     */
+    public int getHeight() {
+        return height;
+    }
+
+    /**
+     * Returns the probability function used to determine if a node should be added on another level.
+     *
+     * @return the probability function used to determine if a node should be added on another level
+     */
+    public Probability getProbability() {
+        return probability;
+    }
+
+    /**
+     * Sets the probability function used to determine if a node should be added on another level.
+     *
+     * @param probability the probability function
+     */
+    public void setProbability(Probability probability) {
+        this.probability = probability;
+    }
+
+    /**
+     * Returns the number of items in this skip list.
+     *
+     * @return the number of items in this skip list
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Returns {@code true} if this list contains no elements.
+     *
+     * @return {@code true} if this list contains no elements
+     */
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Returns {@code true} if this list contains the specified element.
+     *
+     * @param key the element whose presence in this list is to be tested
+     *
+     * @return {@code true} if this list contains the specified element
+     */
+    public boolean contains(T key) {
+        TowerNode<T> current = head;
+        for (int level = height - 1; level >= 0; level--) {
+            // Move forward on the current level as long as the successor is smaller than the key
+            for (TowerNode<T> next = current.next[level]; next != null; next = current.next[level]) {
+                int value = cmp.compare(next.value, key);
+                if (value == 0) {
+                    return true;
+                } else if (value > 0) {
+                    // Key can be on the lower level
+                    break;
+                }
+                current = next;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Stores the last node of each level whose value is smaller than (or equal to, if {@code inclusive} is set) the
+     * specified element in {@link #update}.
+     *
+     * @param key       the element to search for
+     * @param inclusive whether nodes equal to the element are skipped as well
+     */
+    private void findPredecessors(T key, boolean inclusive) {
+        TowerNode<T> current = head;
+        for (int level = height - 1; level >= 0; level--) {
+            for (TowerNode<T> next = current.next[level]; next != null; next = current.next[level]) {
+                int value = cmp.compare(next.value, key);
+                if (value > 0 || value == 0 && !inclusive) {
+                    break;
+                }
+                current = next;
+            }
+            update[level] = current;
+        }
+    }
+
+    /**
+     * Returns the height of a new tower. The tower grows by one level as long as the probability function returns
+     * {@code true} and the maximum height is not reached.
+     *
+     * @return the height of a new tower
+     */
+    private int randomHeight() {
+        int towerHeight = 1;
+        while (towerHeight < head.height() && probability.nextBoolean()) {
+            towerHeight++;
+        }
+        return towerHeight;
+    }
+
+    /**
+     * Adds the specified element to this list. The element will be added after all equal elements on the lowest level
+     * and on the next levels if the probability function returns {@code true}.
+     *
+     * @param key the element to be added
+     */
+    public void add(T key) {
+        findPredecessors(key, true);
+        TowerNode<T> node = new TowerNode<>(key, randomHeight());
+        // New levels start at the head
+        for (int level = height; level < node.height(); level++) {
+            update[level] = head;
+        }
+        height = Math.max(height, node.height());
+        for (int level = 0; level < node.height(); level++) {
+            node.next[level] = update[level].next[level];
+            update[level].next[level] = node;
+        }
+        size++;
+    }
+
+    /**
+     * Removes the first occurrence of the specified element from this list, if it is present. The element will be
+     * removed from all levels.
+     *
+     * @param key the element to be removed from this list, if present
+     */
+    public void remove(T key) {
+        findPredecessors(key, false);
+        TowerNode<T> node = height == 0 ? null : update[0].next[0];
+        if (node == null || cmp.compare(node.value, key) != 0) {
+            return;
+        }
+        // The first occurrence is the successor of the predecessors on all of its levels
+        for (int level = 0; level < node.height(); level++) {
+            update[level].next[level] = node.next[level];
+        }
+        // Remove empty levels
+        while (height > 0 && head.next[height - 1] == null) {
+            height--;
+        }
+        size--;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+        sb.append("[");
+        for (int level = height - 1; level >= 0; level--) {
+            sb.append("[");
+            for (TowerNode<T> element = head.next[level]; element != null; element = element.next[level]) {
+                sb.append(element.value);
+                if (element.next[level] != null) {
+                    sb.append(", ");
+                }
+            }
+            sb.append("]");
+            if (level > 0) {
+                sb.append(", ");
+            }
+        }
+        sb.append("]");
+        return sb.toString();
+    }
+
+}
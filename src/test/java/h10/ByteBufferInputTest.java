@@ -0,0 +1,62 @@
+package h10;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Tests {@link ByteBufferInput}.
+ */
+public class ByteBufferInputTest {
+
+    @Test
+    public void testReadLine() throws IOException {
+        byte[] bytes = "first\nsecond\r\nthird\rfourth\n\n\r\r\nlast".getBytes(StandardCharsets.ISO_8859_1);
+        ByteBufferInput in = new ByteBufferInput(ByteBuffer.wrap(bytes));
+        assertEquals("first", in.readLine());
+        assertEquals("second", in.readLine());
+        assertEquals("third", in.readLine());
+        assertEquals("fourth", in.readLine());
+        assertEquals("", in.readLine());
+        assertEquals("", in.readLine());
+        assertEquals("", in.readLine());
+        assertEquals("last", in.readLine());
+        assertNull(in.readLine());
+        assertNull(in.readLine());
+    }
+
+    @Test
+    public void testReadLineConvertsBytesToCharacters() throws IOException {
+        ByteBufferInput in = new ByteBufferInput(ByteBuffer.wrap(new byte[] {'a', (byte) 0xE9, (byte) 0xFF, '\r'}));
+        assertEquals("a\u00E9\u00FF", in.readLine());
+        assertEquals(4, in.position());
+        assertNull(in.readLine());
+    }
+
+    @Test
+    public void testReadLineBetweenBinaryValues() throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+        out.writeInt(42);
+        out.writeBytes("line\r\n");
+        out.writeLong(-7);
+        out.writeUTF("text");
+        ByteBufferInput in = new ByteBufferInput(ByteBuffer.wrap(bytes.toByteArray()));
+        assertEquals(42, in.readInt());
+        assertEquals("line", in.readLine());
+        assertEquals(-7, in.readLong());
+        assertEquals("text", in.readUTF());
+        assertNull(in.readLine());
+        assertThrows(EOFException.class, in::readByte);
+    }
+
+}
@@ -0,0 +1,140 @@
+package h10;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.TreeSet;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.function.BooleanSupplier;
+import java.util.function.IntSupplier;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests a concurrent skip list engine against a {@link TreeSet} and under concurrent modifications. Each engine is
+ * tested by a subclass.
+ *
+ * @see LockFreeSkipListTest
+ * @see LazySkipListTest
+ */
+public abstract class ConcurrentSkipListTest {
+
+    /**
+     * The maximum height of the tested lists.
+     */
+    protected static final int MAX_HEIGHT = 8;
+
+    /**
+     * Creates an empty list of the tested engine.
+     *
+     * @param levelGenerator the generator drawing the heights of new towers
+     *
+     * @return the operations of the new list
+     */
+    protected abstract Engine newList(LevelGenerator levelGenerator);
+
+    @Test
+    public void testAgainstModel() {
+        Random random = new Random(4);
+        Engine list = newList(new GeometricLevelGenerator(0.5));
+        TreeSet<Integer> model = new TreeSet<>();
+        for (int i = 0; i < 20_000; i++) {
+            int key = random.nextInt(500);
+            int operation = random.nextInt(3);
+            if (operation == 0) {
+                assertEquals(model.add(key), list.add().test(key), "add " + key);
+            } else if (operation == 1) {
+                assertEquals(model.remove(key), list.remove().test(key), "remove " + key);
+            } else {
+                assertEquals(model.contains(key), list.contains().test(key), "contains " + key);
+            }
+            assertEquals(model.size(), list.size().getAsInt());
+            assertEquals(model.isEmpty(), list.isEmpty().getAsBoolean());
+        }
+        for (int key = -1; key <= 500; key++) {
+            assertEquals(model.contains(key), list.contains().test(key), "contains " + key);
+        }
+        String levels = list.levels().get();
+        assertTrue(levels.endsWith(model + "]"), () -> "lowest level of " + levels + " differs from " + model);
+    }
+
+    @Test
+    public void testConcurrentModifications() throws Exception {
+        int threads = 8;
+        int keys = 64;
+        int operations = 50_000;
+        Engine list = newList(new GeometricLevelGenerator(0.5));
+        // Successful additions minus successful removals per key
+        AtomicIntegerArray net = new AtomicIntegerArray(keys);
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            CountDownLatch start = new CountDownLatch(1);
+            List<Future<?>> futures = new ArrayList<>();
+            for (int thread = 0; thread < threads; thread++) {
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    ThreadLocalRandom random = ThreadLocalRandom.current();
+                    for (int i = 0; i < operations; i++) {
+                        int key = random.nextInt(keys);
+                        int operation = random.nextInt(3);
+                        if (operation == 0) {
+                            if (list.add().test(key)) {
+                                net.incrementAndGet(key);
+                            }
+                        } else if (operation == 1) {
+                            if (list.remove().test(key)) {
+                                net.decrementAndGet(key);
+                            }
+                        } else {
+                            list.contains().test(key);
+                        }
+                    }
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+        TreeSet<Integer> expected = new TreeSet<>();
+        for (int key = 0; key < keys; key++) {
+            int count = net.get(key);
+            assertTrue(count == 0 || count == 1, "net count of " + key + " is " + count);
+            assertEquals(count == 1, list.contains().test(key), "contains " + key);
+            if (count == 1) {
+                expected.add(key);
+            }
+        }
+        assertEquals(expected.size(), list.size().getAsInt());
+        String levels = list.levels().get();
+        assertTrue(levels.endsWith(expected + "]"), () -> "lowest level of " + levels + " differs from " + expected);
+    }
+
+    /**
+     * The operations of a list of the tested engine.
+     *
+     * @param add      adds an element if it is not present
+     * @param remove   removes an element if it is present
+     * @param contains tests whether an element is present
+     * @param size     returns the number of elements
+     * @param isEmpty  tests whether the list is empty
+     * @param levels   returns the elements of all levels from the highest to the lowest one
+     */
+    protected record Engine(Predicate<Integer> add, Predicate<Integer> remove, Predicate<Integer> contains,
+                            IntSupplier size, BooleanSupplier isEmpty, Supplier<String> levels) {
+    }
+
+}
@@ -0,0 +1,135 @@
+package h10;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.TreeSet;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assertions.fail;
+
+/**
+ * Tests {@link DeterministicSkipList} against a {@link TreeSet}, checking the gap sizes after every update.
+ */
+public class DeterministicSkipListTest {
+
+    @Test
+    public void testRandomUpdatesAgainstModel() {
+        Random random = new Random(16);
+        DeterministicSkipList<Integer> list = new DeterministicSkipList<>(Comparator.naturalOrder());
+        TreeSet<Integer> model = new TreeSet<>();
+        for (int round = 0; round < 4; round++) {
+            // Alternate between growing and shrinking phases, so levels are added and removed
+            double addFraction = round % 2 == 0 ? 0.7 : 0.3;
+            for (int i = 0; i < 5_000; i++) {
+                int key = random.nextInt(2_000);
+                if (random.nextDouble() < addFraction) {
+                    assertEquals(model.add(key), list.add(key), "add " + key);
+                } else {
+                    assertEquals(model.remove(key), list.remove(key), "remove " + key);
+                }
+                int probe = random.nextInt(2_002) - 1;
+                assertEquals(model.contains(probe), list.contains(probe), "contains " + probe);
+                assertStructure(list, model);
+            }
+        }
+    }
+
+    @Test
+    public void testSequentialUpdates() {
+        DeterministicSkipList<Integer> list = new DeterministicSkipList<>(Comparator.naturalOrder());
+        TreeSet<Integer> model = new TreeSet<>();
+        for (int key = 0; key < 1_000; key++) {
+            assertTrue(list.add(key));
+            model.add(key);
+            assertStructure(list, model);
+        }
+        for (int key = 999; key >= 0; key -= 2) {
+            assertTrue(list.remove(key));
+            model.remove(key);
+            assertStructure(list, model);
+        }
+        for (int key = 0; key < 1_000; key += 2) {
+            assertTrue(list.remove(key));
+            model.remove(key);
+            assertStructure(list, model);
+        }
+        assertEquals(0, list.getHeight());
+        assertTrue(list.isEmpty());
+    }
+
+    /**
+     * Asserts that the list contains the elements of the model and that every gap of every level contains one to
+     * three nodes of the level below besides the node of the upper element, where consecutive gaps partition the level
+     * below.
+     *
+     * @param list  the list to test
+     * @param model the expected elements
+     */
+    private static void assertStructure(DeterministicSkipList<Integer> list, TreeSet<Integer> model) {
+        assertEquals(model.size(), list.size());
+        DeterministicSkipList.Node first = list.head;
+        assertTrue(isTail(first.right), "the head is the only node of the highest level");
+        int height = 0;
+        while (!isBottom(first.down)) {
+            DeterministicSkipList.Node gapStart = first.down;
+            for (DeterministicSkipList.Node node = first; !isTail(node); node = node.right) {
+                assertSame(gapStart, node.down, "the gap of " + node.element + " does not follow the previous gap");
+                int inside = 0;
+                DeterministicSkipList.Node end = node.down;
+                while (end.element != node.element) {
+                    assertTrue(!isTail(end), "the level below does not contain " + node.element);
+                    inside++;
+                    end = end.right;
+                }
+                if (inside < 1 || inside > 3) {
+                    fail("gap of " + node.element + " has " + inside + " nodes: " + list);
+                }
+                gapStart = end.right;
+            }
+            assertTrue(isTail(gapStart), "the gaps do not cover the level below");
+            first = first.down;
+            height++;
+        }
+        assertEquals(height, list.getHeight());
+
+        List<Object> elements = new ArrayList<>();
+        DeterministicSkipList.Node node = first;
+        for (; !isTail(node.right); node = node.right) {
+            elements.add(node.element);
+        }
+        assertEquals("+", String.valueOf(node.element));
+        assertEquals(new ArrayList<>(model), elements);
+        List<Integer> iterated = new ArrayList<>();
+        list.forEach(iterated::add);
+        assertEquals(new ArrayList<>(model), iterated);
+    }
+
+    /**
+     * Returns {@code true} if the node is the shared node after the last node of each level.
+     *
+     * @param node the node to test
+     *
+     * @return {@code true} if the node is the tail node
+     */
+    private static boolean isTail(DeterministicSkipList.Node node) {
+        return node.right == node && node.down != node;
+    }
+
+    /**
+     * Returns {@code true} if the node is the node below the lowest level.
+     *
+     * @param node the node to test
+     *
+     * @return {@code true} if the node is the bottom node
+     */
+    private static boolean isBottom(DeterministicSkipList.Node node) {
+        return node.down == node;
+    }
+
+}
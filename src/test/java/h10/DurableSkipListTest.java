@@ -0,0 +1,409 @@
+package h10;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests the recovery of {@link DurableSkipList} from its write-ahead log.
+ */
+public class DurableSkipListTest {
+
+    /**
+     * The maximum height of the tested lists.
+     */
+    private static final int MAX_HEIGHT = 8;
+
+    @Test
+    public void testReplayOfInterleavedModificationsWithDuplicates(@TempDir Path directory) throws IOException {
+        Path log = directory.resolve("list.log");
+        Random random = new Random(23);
+        List<Integer> model = new ArrayList<>();
+        for (int session = 0; session < 5; session++) {
+            try (DurableSkipList<Integer> list = open(log)) {
+                assertEquals(model, elements(list));
+                for (int i = 0; i < 400; i++) {
+                    // Few distinct keys, so there are many duplicates and runs of insertions
+                    int key = random.nextInt(30);
+                    if (random.nextInt(3) != 0) {
+                        list.add(key);
+                        model.add(key);
+                    } else {
+                        list.remove(key);
+                        model.remove((Integer) key);
+                    }
+                }
+                Collections.sort(model);
+                assertEquals(model, elements(list));
+            }
+        }
+        try (DurableSkipList<Integer> list = open(log)) {
+            assertEquals(model, elements(list));
+            assertEquals(model.size(), list.size());
+            assertTrue(list.contains(model.get(0)));
+        }
+    }
+
+    @Test
+    public void testTornTailIsTruncated(@TempDir Path directory) throws IOException {
+        Path log = directory.resolve("list.log");
+        try (DurableSkipList<Integer> list = open(log)) {
+            for (int key = 0; key < 99; key++) {
+                list.add(key);
+            }
+        }
+        long previous = Files.size(log);
+        try (DurableSkipList<Integer> list = open(log)) {
+            list.add(99);
+        }
+        long valid = Files.size(log);
+        // The last record again, but without the last bytes of its checksum
+        byte[] bytes = Files.readAllBytes(log);
+        Files.write(log, Arrays.copyOfRange(bytes, (int) previous, bytes.length - 2), StandardOpenOption.APPEND);
+        try (DurableSkipList<Integer> list = open(log)) {
+            assertEquals(valid, Files.size(log));
+            assertEquals(range(0, 100), elements(list));
+        }
+        // A partial length of the next record
+        Files.write(log, new byte[] {0, 0}, StandardOpenOption.APPEND);
+        try (DurableSkipList<Integer> list = open(log)) {
+            assertEquals(valid, Files.size(log));
+            assertEquals(range(0, 100), elements(list));
+        }
+    }
+
+    @Test
+    public void testChecksumMismatchCutsOffTheRest(@TempDir Path directory) throws IOException {
+        Path log = directory.resolve("list.log");
+        try (DurableSkipList<Integer> list = open(log)) {
+            for (int key = 0; key < 50; key++) {
+                list.add(key);
+            }
+        }
+        long valid = Files.size(log);
+        try (DurableSkipList<Integer> list = open(log)) {
+            for (int key = 50; key < 60; key++) {
+                list.add(key);
+            }
+            list.remove(0);
+        }
+        // Corrupt the operation of the first record after the valid prefix, so its checksum does not match
+        byte[] bytes = Files.readAllBytes(log);
+        bytes[(int) valid + Integer.BYTES] ^= 0x40;
+        Files.write(log, bytes);
+        try (DurableSkipList<Integer> list = open(log)) {
+            assertEquals(valid, Files.size(log));
+            assertEquals(range(0, 50), elements(list));
+        }
+    }
+
+    @Test
+    public void testAppendAfterTruncatedOpen(@TempDir Path directory) throws IOException {
+        Path log = directory.resolve("list.log");
+        try (DurableSkipList<Integer> list = open(log)) {
+            for (int key = 0; key < 20; key++) {
+                list.add(key);
+            }
+        }
+        // A record whose length exceeds the remaining bytes of the log
+        Files.write(log, new byte[] {0, 0, 0, 9, 1, 2}, StandardOpenOption.APPEND);
+        try (DurableSkipList<Integer> list = open(log)) {
+            list.add(100);
+            list.remove(5);
+            list.add(3);
+        }
+        List<Integer> expected = range(0, 20);
+        expected.remove((Integer) 5);
+        expected.add(100);
+        expected.add(3);
+        Collections.sort(expected);
+        try (DurableSkipList<Integer> list = open(log)) {
+            assertEquals(expected, elements(list));
+        }
+    }
+
+    @Test
+    public void testConcurrentAdditionsShareForces(@TempDir Path directory) throws Exception {
+        Path log = directory.resolve("list.log");
+        int threads = 8;
+        int additions = 300;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try (DurableSkipList<Integer> list = open(log)) {
+            CountDownLatch start = new CountDownLatch(1);
+            List<Future<?>> futures = new ArrayList<>();
+            for (int thread = 0; thread < threads; thread++) {
+                int offset = thread * additions;
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    for (int i = 0; i < additions; i++) {
+                        list.add(offset + i);
+                    }
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get();
+            }
+            assertEquals(threads * additions, list.size());
+            long forces = list.forces();
+            assertTrue(forces > 0 && forces < threads * additions, "forces: " + forces);
+        } finally {
+            executor.shutdown();
+        }
+        try (DurableSkipList<Integer> list = open(log)) {
+            assertEquals(range(0, threads * additions), elements(list));
+        }
+    }
+
+    @Test
+    public void testTornRecordIsCutOffBeforeLaterRecords(@TempDir Path directory) throws IOException {
+        Path log = directory.resolve("list.log");
+        FailingChannel channel = new FailingChannel(log);
+        try (DurableSkipList<Integer> list = open(channel)) {
+            list.add(1);
+            channel.failWrite = true;
+            assertThrows(IOException.class, () -> list.add(2));
+            assertFalse(list.contains(2));
+            // The acknowledged records after the failed one must not follow its torn bytes
+            list.add(3);
+            list.remove(1);
+            list.add(4);
+        }
+        try (DurableSkipList<Integer> list = open(log)) {
+            assertEquals(List.of(3, 4), elements(list));
+        }
+    }
+
+    @Test
+    public void testFailedForceRefusesFurtherModifications(@TempDir Path directory) throws IOException {
+        Path log = directory.resolve("list.log");
+        FailingChannel channel = new FailingChannel(log);
+        DurableSkipList<Integer> list = open(channel);
+        list.add(1);
+        channel.failForce = true;
+        assertThrows(IOException.class, () -> list.add(2));
+        // The modification is visible in memory, but its durability is unknown
+        assertTrue(list.contains(2));
+        channel.failForce = false;
+        assertThrows(IOException.class, () -> list.add(3));
+        assertThrows(IOException.class, () -> list.remove(1));
+        assertEquals(List.of(1, 2), elements(list));
+        list.close();
+        try (DurableSkipList<Integer> reopened = open(log)) {
+            assertEquals(List.of(1, 2), elements(reopened));
+        }
+    }
+
+    /**
+     * Opens the list of the specified log.
+     *
+     * @param log the file of the log
+     *
+     * @return the opened list
+     *
+     * @throws IOException if the log cannot be opened
+     */
+    private static DurableSkipList<Integer> open(Path log) throws IOException {
+        return DurableSkipList.open(log, Comparator.naturalOrder(), MAX_HEIGHT, new Random(1)::nextBoolean,
+            KeyCodec.ints());
+    }
+
+    /**
+     * Opens the list on the specified channel.
+     *
+     * @param channel the channel of the log
+     *
+     * @return the opened list
+     *
+     * @throws IOException if the log cannot be opened
+     */
+    private static DurableSkipList<Integer> open(FileChannel channel) throws IOException {
+        return DurableSkipList.open(channel, Comparator.naturalOrder(), MAX_HEIGHT, new Random(1)::nextBoolean,
+            KeyCodec.ints());
+    }
+
+    /**
+     * Returns the elements of the list in ascending order.
+     *
+     * @param list the list
+     *
+     * @return the elements of the list
+     */
+    private static List<Integer> elements(DurableSkipList<Integer> list) {
+        List<Integer> elements = new ArrayList<>();
+        list.forEach(elements::add);
+        return elements;
+    }
+
+    /**
+     * Returns the integers from the start inclusive to the end exclusive.
+     *
+     * @param start the first integer
+     * @param end   the integer after the last integer
+     *
+     * @return the integers of the range
+     */
+    private static List<Integer> range(int start, int end) {
+        List<Integer> range = new ArrayList<>();
+        for (int i = start; i < end; i++) {
+            range.add(i);
+        }
+        return range;
+    }
+
+    /**
+     * A file channel which fails writes after writing half of the bytes, or forces, as long as it is told to.
+     */
+    private static final class FailingChannel extends FileChannel {
+
+        /**
+         * The channel all operations are delegated to.
+         */
+        private final FileChannel delegate;
+
+        /**
+         * Whether the next write writes half of the bytes and fails.
+         */
+        private boolean failWrite = false;
+
+        /**
+         * Whether forces fail.
+         */
+        private boolean failForce = false;
+
+        /**
+         * Opens the specified file for reading and writing.
+         *
+         * @param file the file
+         *
+         * @throws IOException if the file cannot be opened
+         */
+        private FailingChannel(Path file) throws IOException {
+            delegate = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE);
+        }
+
+        @Override
+        public int read(ByteBuffer dst) throws IOException {
+            return delegate.read(dst);
+        }
+
+        @Override
+        public long read(ByteBuffer[] dsts, int offset, int length) throws IOException {
+            return delegate.read(dsts, offset, length);
+        }
+
+        @Override
+        public int write(ByteBuffer src) throws IOException {
+            if (failWrite) {
+                failWrite = false;
+                delegate.write(src.slice().limit(src.remaining() / 2));
+                throw new IOException("Injected write failure");
+            }
+            return delegate.write(src);
+        }
+
+        @Override
+        public long write(ByteBuffer[] srcs, int offset, int length) throws IOException {
+            return delegate.write(srcs, offset, length);
+        }
+
+        @Override
+        public long position() throws IOException {
+            return delegate.position();
+        }
+
+        @Override
+        public FileChannel position(long newPosition) throws IOException {
+            delegate.position(newPosition);
+            return this;
+        }
+
+        @Override
+        public long size() throws IOException {
+            return delegate.size();
+        }
+
+        @Override
+        public FileChannel truncate(long size) throws IOException {
+            delegate.truncate(size);
+            return this;
+        }
+
+        @Override
+        public void force(boolean metaData) throws IOException {
+            if (failForce) {
+                throw new IOException("Injected force failure");
+            }
+            delegate.force(metaData);
+        }
+
+        @Override
+        public long transferTo(long position, long count, WritableByteChannel target) throws IOException {
+            return delegate.transferTo(position, count, target);
+        }
+
+        @Override
+        public long transferFrom(ReadableByteChannel src, long position, long count) throws IOException {
+            return delegate.transferFrom(src, position, count);
+        }
+
+        @Override
+        public int read(ByteBuffer dst, long position) throws IOException {
+            return delegate.read(dst, position);
+        }
+
+        @Override
+        public int write(ByteBuffer src, long position) throws IOException {
+            return delegate.write(src, position);
+        }
+
+        @Override
+        public MappedByteBuffer map(MapMode mode, long position, long size) throws IOException {
+            return delegate.map(mode, position, size);
+        }
+
+        @Override
+        public FileLock lock(long position, long size, boolean shared) throws IOException {
+            return delegate.lock(position, size, shared);
+        }
+
+        @Override
+        public FileLock tryLock(long position, long size, boolean shared) throws IOException {
+            return delegate.tryLock(position, size, shared);
+        }
+
+        @Override
+        protected void implCloseChannel() throws IOException {
+            delegate.close();
+        }
+
+    }
+
+}
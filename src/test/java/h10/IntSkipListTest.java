@@ -0,0 +1,15 @@
+package h10;
+
+/**
+ * Tests {@link IntSkipList} against a sorted list with duplicates.
+ */
+public class IntSkipListTest extends SequentialSkipListTest {
+
+    @Override
+    protected Operations newList(Probability probability) {
+        IntSkipList list = new IntSkipList(MAX_HEIGHT, probability);
+        return new Operations(list::add, list::remove, list::contains, list::size, list::isEmpty, list::getHeight,
+            list::toString);
+    }
+
+}
@@ -0,0 +1,121 @@
+package h10;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Comparator;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests {@link LazySkipList} against a model and under concurrent modifications, and the effects of its per-node locks
+ * on concurrent operations.
+ */
+public class LazySkipListTest extends ConcurrentSkipListTest {
+
+    @Override
+    protected Engine newList(LevelGenerator levelGenerator) {
+        LazySkipList<Integer> list = new LazySkipList<>(Comparator.naturalOrder(), MAX_HEIGHT, levelGenerator);
+        return new Engine(list::add, list::remove, list::contains, list::size, list::isEmpty, list::toString);
+    }
+
+    @Test
+    public void testContainsIgnoresMarkedNodeBeforeUnlinking() throws Exception {
+        LazySkipList<Integer> list = singleLevelList(10);
+        LazySkipList.Node<Integer> predecessor = node(list, 40);
+        LazySkipList.Node<Integer> victim = node(list, 50);
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            Future<Boolean> removal;
+            // The removal marks the node and then waits for the lock of its predecessor to unlink it
+            predecessor.lock.lock();
+            try {
+                removal = executor.submit(() -> list.remove(50));
+                while (!victim.marked) {
+                    Thread.onSpinWait();
+                }
+                assertSame(victim, predecessor.next[0]);
+                assertFalse(list.contains(50));
+                assertTrue(list.contains(40));
+                assertTrue(list.contains(60));
+                assertFalse(removal.isDone());
+            } finally {
+                predecessor.lock.unlock();
+            }
+            assertTrue(removal.get(10, TimeUnit.SECONDS));
+            assertSame(node(list, 60), predecessor.next[0]);
+            assertFalse(list.contains(50));
+            assertEquals(9, list.size());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void testAdditionsToDisjointRangesDoNotBlock() throws Exception {
+        LazySkipList<Integer> list = singleLevelList(10);
+        LazySkipList.Node<Integer> locked = node(list, 30);
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            Future<Boolean> blocked;
+            locked.lock.lock();
+            try {
+                // Only the predecessor of the new element is locked, which is 30 for 35 but 90 for 95
+                blocked = executor.submit(() -> list.add(35));
+                while (!locked.lock.hasQueuedThreads()) {
+                    Thread.onSpinWait();
+                }
+                assertTrue(executor.submit(() -> list.add(95)).get(10, TimeUnit.SECONDS));
+                assertTrue(list.contains(95));
+                assertFalse(list.contains(35));
+                assertFalse(blocked.isDone());
+            } finally {
+                locked.lock.unlock();
+            }
+            assertTrue(blocked.get(10, TimeUnit.SECONDS));
+            assertEquals("[[0, 10, 20, 30, 35, 40, 50, 60, 70, 80, 90, 95]]", list.toString());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Returns a list whose towers all have a single node, containing the specified number of multiples of 10 starting
+     * with 0.
+     *
+     * @param size the number of elements
+     *
+     * @return the list
+     */
+    private static LazySkipList<Integer> singleLevelList(int size) {
+        LazySkipList<Integer> list = new LazySkipList<>(Comparator.naturalOrder(), MAX_HEIGHT);
+        for (int i = 0; i < size; i++) {
+            list.add(10 * i);
+        }
+        assertEquals(1, list.getHeight());
+        return list;
+    }
+
+    /**
+     * Returns the node of the specified element on the lowest level of the list.
+     *
+     * @param list    the list
+     * @param element the element
+     *
+     * @return the node of the element
+     */
+    private static LazySkipList.Node<Integer> node(LazySkipList<Integer> list, int element) {
+        LazySkipList.Node<Integer> node = list.head.next[0];
+        while (node.value != element) {
+            node = node.next[0];
+        }
+        return node;
+    }
+
+}
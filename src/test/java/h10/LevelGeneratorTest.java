@@ -0,0 +1,169 @@
+package h10;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Comparator;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests {@link LevelGenerator#of(Probability)} against the per-level loop it replaces and the distribution and limit
+ * of {@link GeometricLevelGenerator}.
+ */
+public class LevelGeneratorTest {
+
+    /**
+     * The number of heights drawn to test a distribution.
+     */
+    private static final int DRAWS = 200_000;
+
+    @Test
+    public void testOfCallsProbabilityLikePerLevelLoop() {
+        for (int limit = -1; limit <= 8; limit++) {
+            CountingProbability probability = new CountingProbability(new Random(limit + 15));
+            CountingProbability reference = new CountingProbability(new Random(limit + 15));
+            LevelGenerator generator = LevelGenerator.of(probability);
+            for (int i = 0; i < 1_000; i++) {
+                // The loop of SkipList.add before the generators: add a level, then ask whether to add another one
+                int height = 0;
+                do {
+                    height++;
+                } while (height < limit && reference.nextBoolean());
+                assertEquals(height, generator.nextHeight(limit), "height with limit " + limit);
+                assertEquals(reference.calls, probability.calls, "calls with limit " + limit);
+            }
+        }
+    }
+
+    @Test
+    public void testSkipListCallsProbabilityLikePerLevelLoop() {
+        int maxHeight = 4;
+        CountingProbability probability = new CountingProbability(new Random(15));
+        SkipList<Integer> list = new SkipList<>(Comparator.naturalOrder(), maxHeight, probability);
+        for (int i = 0; i < 2_000; i++) {
+            int height = list.getHeight();
+            int upperNodes = upperNodes(list);
+            long calls = probability.calls;
+            list.add(i);
+            int towerHeight = upperNodes(list) - upperNodes + 1;
+            // Each level above the first was confirmed by a call, and a tower below the limit was stopped by one
+            int expected = towerHeight - 1 + (towerHeight < Math.max(height, maxHeight) ? 1 : 0);
+            assertEquals(expected, probability.calls - calls, "calls for tower of height " + towerHeight);
+        }
+    }
+
+    @Test
+    public void testGeometricDistribution() {
+        for (double p : new double[] {0.5, 0.25, 1.0 / 64, 0.3, 0.7, 0.1}) {
+            LevelGenerator generator = new GeometricLevelGenerator(p);
+            int[] counts = new int[65];
+            long sum = 0;
+            for (int i = 0; i < DRAWS; i++) {
+                int height = generator.nextHeight(64);
+                assertTrue(height >= 1 && height <= 64, "height " + height);
+                counts[height]++;
+                sum += height;
+            }
+            for (int height = 1; height <= 64; height++) {
+                // A tower reaches a level with p^(h - 1) and stops there with 1 - p
+                assertCount(DRAWS, (1 - p) * Math.pow(p, height - 1), counts[height], "p " + p + " height " + height);
+            }
+            double mean = (double) sum / DRAWS;
+            assertEquals(1 / (1 - p), mean, 0.05 / (1 - p), "mean height with p " + p);
+        }
+    }
+
+    @Test
+    public void testGeometricLimit() {
+        for (double p : new double[] {0.5, 0.25, 0.3, 0.9}) {
+            LevelGenerator generator = new GeometricLevelGenerator(p);
+            int[] counts = new int[4];
+            for (int i = 0; i < DRAWS; i++) {
+                assertEquals(1, generator.nextHeight(1));
+                assertEquals(1, generator.nextHeight(0));
+                assertEquals(1, generator.nextHeight(-3));
+                counts[generator.nextHeight(3)]++;
+            }
+            assertCount(DRAWS, 1 - p, counts[1], "p " + p + " height 1");
+            assertCount(DRAWS, (1 - p) * p, counts[2], "p " + p + " height 2");
+            // The limit takes all towers which would have been higher
+            assertCount(DRAWS, p * p, counts[3], "p " + p + " height 3");
+        }
+        LevelGenerator flat = new GeometricLevelGenerator(0);
+        for (int i = 0; i < 1_000; i++) {
+            assertEquals(1, flat.nextHeight(10));
+        }
+        assertThrows(IllegalArgumentException.class, () -> new GeometricLevelGenerator(1));
+        assertThrows(IllegalArgumentException.class, () -> new GeometricLevelGenerator(-0.1));
+        assertThrows(IllegalArgumentException.class, () -> new GeometricLevelGenerator(Double.NaN));
+    }
+
+    /**
+     * Asserts that a count of a binomial distribution is within five standard deviations of its expectation.
+     *
+     * @param draws       the number of draws
+     * @param probability the probability of each draw to be counted
+     * @param count       the count
+     * @param message     the description of the count
+     */
+    private static void assertCount(int draws, double probability, int count, String message) {
+        double expected = draws * probability;
+        double deviation = Math.sqrt(draws * probability * (1 - probability));
+        assertTrue(Math.abs(count - expected) <= 5 * deviation + 1,
+            () -> "%s: expected about %.1f but was %d".formatted(message, expected, count));
+    }
+
+    /**
+     * Returns the number of nodes of the list above the lowest level, excluding the sentinel nodes.
+     *
+     * @param list the list
+     *
+     * @return the number of nodes above the lowest level
+     */
+    private static int upperNodes(SkipList<Integer> list) {
+        int count = 0;
+        for (ListItem<ExpressNode<Integer>> sentinel = list.head; sentinel != null && sentinel.key.down != null;
+             sentinel = sentinel.key.down) {
+            for (ListItem<ExpressNode<Integer>> node = sentinel.next; node != null; node = node.next) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * A probability function counting its calls.
+     */
+    private static final class CountingProbability implements Probability {
+
+        /**
+         * The source of randomness.
+         */
+        private final Random random;
+
+        /**
+         * The number of calls of {@link #nextBoolean()}.
+         */
+        private long calls;
+
+        /**
+         * Constructs and initializes a probability function drawing from the specified source.
+         *
+         * @param random the source of randomness
+         */
+        private CountingProbability(Random random) {
+            this.random = random;
+        }
+
+        @Override
+        public boolean nextBoolean() {
+            calls++;
+            return random.nextBoolean();
+        }
+
+    }
+
+}
@@ -0,0 +1,16 @@
+package h10;
+
+import java.util.Comparator;
+
+/**
+ * Tests {@link LockFreeSkipList} against a model and under concurrent modifications.
+ */
+public class LockFreeSkipListTest extends ConcurrentSkipListTest {
+
+    @Override
+    protected Engine newList(LevelGenerator levelGenerator) {
+        LockFreeSkipList<Integer> list = new LockFreeSkipList<>(Comparator.naturalOrder(), MAX_HEIGHT, levelGenerator);
+        return new Engine(list::add, list::remove, list::contains, list::size, list::isEmpty, list::toString);
+    }
+
+}
@@ -0,0 +1,15 @@
+package h10;
+
+/**
+ * Tests {@link LongSkipList} against a sorted list with duplicates.
+ */
+public class LongSkipListTest extends SequentialSkipListTest {
+
+    @Override
+    protected Operations newList(Probability probability) {
+        LongSkipList list = new LongSkipList(MAX_HEIGHT, probability);
+        return new Operations(list::add, list::remove, list::contains, list::size, list::isEmpty, list::getHeight,
+            list::toString);
+    }
+
+}
@@ -0,0 +1,188 @@
+package h10;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests {@link LsmStore} against a {@link TreeMap} across flushes, compactions and reopens.
+ */
+public class LsmStoreTest {
+
+    @Test
+    public void testAgainstModel(@TempDir Path directory) throws IOException {
+        Random random = new Random(24);
+        TreeMap<Integer, String> model = new TreeMap<>();
+        int maxRuns = 0;
+        for (int session = 0; session < 6; session++) {
+            try (LsmStore<Integer, String> store = open(directory, 40, 4)) {
+                assertContents(model, store);
+                for (int i = 0; i < 1_000; i++) {
+                    int key = random.nextInt(300);
+                    if (random.nextInt(4) != 0) {
+                        String value = "v" + session + "-" + i;
+                        store.put(key, value);
+                        model.put(key, value);
+                    } else {
+                        store.delete(key);
+                        model.remove(key);
+                    }
+                    int probe = random.nextInt(310);
+                    assertEquals(model.get(probe), store.get(probe), "get " + probe);
+                    if (i % 100 == 99) {
+                        store.flush();
+                        maxRuns = Math.max(maxRuns, store.runCount());
+                        // Compactions keep the number of runs below the threshold
+                        assertTrue(store.runCount() < 4, "runs: " + store.runCount());
+                        assertContents(model, store);
+                    }
+                }
+            }
+        }
+        assertTrue(maxRuns > 1, "no flush has added a second run");
+        try (LsmStore<Integer, String> store = open(directory, 40, 4)) {
+            assertContents(model, store);
+        }
+    }
+
+    @Test
+    public void testDeletionsHideOlderValues(@TempDir Path directory) throws IOException {
+        try (LsmStore<Integer, String> store = open(directory, 1_000, 10)) {
+            store.put(1, "a");
+            store.put(2, "b");
+            store.flush();
+            // Deletion in the memtable hides the run
+            store.delete(1);
+            assertNull(store.get(1));
+            assertEquals("b", store.get(2));
+            // Deletion in a newer run hides the older run
+            store.flush();
+            assertEquals(2, store.runCount());
+            assertNull(store.get(1));
+            store.put(2, "c");
+            store.delete(2);
+            store.put(2, "d");
+            assertEquals("d", store.get(2));
+            assertContents(new TreeMap<>(Map.of(2, "d")), store);
+        }
+        try (LsmStore<Integer, String> store = open(directory, 1_000, 10)) {
+            assertNull(store.get(1));
+            assertEquals("d", store.get(2));
+            store.put(1, "e");
+            assertEquals("e", store.get(1));
+        }
+    }
+
+    @Test
+    public void testForEachMergesNewestEntries(@TempDir Path directory) throws IOException {
+        try (LsmStore<Integer, String> store = open(directory, 1_000, 10)) {
+            for (int key = 0; key < 100; key += 2) {
+                store.put(key, "old" + key);
+            }
+            store.flush();
+            for (int key = 0; key < 100; key += 3) {
+                store.put(key, "run" + key);
+            }
+            store.flush();
+            for (int key = 0; key < 100; key += 5) {
+                store.put(key, "first" + key);
+                store.put(key, "table" + key);
+            }
+            store.delete(30);
+            store.delete(31);
+            TreeMap<Integer, String> expected = new TreeMap<>();
+            for (int key = 0; key < 100; key++) {
+                if (key % 5 == 0) {
+                    expected.put(key, "table" + key);
+                } else if (key % 3 == 0) {
+                    expected.put(key, "run" + key);
+                } else if (key % 2 == 0) {
+                    expected.put(key, "old" + key);
+                }
+            }
+            expected.remove(30);
+            assertContents(expected, store);
+        }
+    }
+
+    @Test
+    public void testLeftoverRunsAreDeleted(@TempDir Path directory) throws IOException {
+        TreeMap<Integer, String> model = new TreeMap<>();
+        Path leftover = directory.resolve("%016x-%016x.run".formatted(2, 2));
+        try (LsmStore<Integer, String> store = open(directory, 1_000, 100)) {
+            for (int generation = 0; generation < 4; generation++) {
+                for (int key = 0; key < 50; key++) {
+                    store.put(key, "g" + generation);
+                    model.put(key, "g" + generation);
+                }
+                store.flush();
+            }
+            assertEquals(4, store.runCount());
+        }
+        // Keep a run with outdated values which a compaction merges
+        byte[] stale = Files.readAllBytes(leftover);
+        try (LsmStore<Integer, String> store = open(directory, 1_000, 2)) {
+            store.put(7, "new");
+            model.put(7, "new");
+            store.flush();
+            assertEquals(1, store.runCount());
+        }
+        // A compaction interrupted after writing the merged run but before deleting its inputs
+        Files.write(leftover, stale);
+        Files.writeString(directory.resolve("%016x-%016x.run.tmp".formatted(5, 5)), "incomplete");
+        try (LsmStore<Integer, String> store = open(directory, 1_000, 2)) {
+            assertFalse(Files.exists(leftover));
+            assertFalse(Files.exists(directory.resolve("%016x-%016x.run.tmp".formatted(5, 5))));
+            assertEquals(1, store.runCount());
+            assertContents(model, store);
+        }
+    }
+
+    /**
+     * Opens a store of integer keys and string values in the specified directory.
+     *
+     * @param directory           the directory of the store
+     * @param memtableLimit       the number of entries after which the memtable is flushed
+     * @param compactionThreshold the number of runs which triggers a compaction
+     *
+     * @return the opened store
+     *
+     * @throws IOException if the store cannot be opened
+     */
+    private static LsmStore<Integer, String> open(Path directory, int memtableLimit, int compactionThreshold)
+        throws IOException {
+        return LsmStore.open(directory, Comparator.naturalOrder(), KeyCodec.ints(), KeyCodec.strings(), memtableLimit,
+            compactionThreshold);
+    }
+
+    /**
+     * Asserts that the store contains exactly the entries of the model, both by lookups and by iteration in ascending
+     * order of the keys.
+     *
+     * @param model the expected entries
+     * @param store the store to test
+     */
+    private static void assertContents(TreeMap<Integer, String> model, LsmStore<Integer, String> store) {
+        List<Map.Entry<Integer, String>> entries = new ArrayList<>();
+        store.forEach((key, value) -> entries.add(Map.entry(key, value)));
+        assertEquals(new ArrayList<>(model.entrySet()), entries);
+        for (Map.Entry<Integer, String> entry : model.entrySet()) {
+            assertEquals(entry.getValue(), store.get(entry.getKey()), "get " + entry.getKey());
+        }
+    }
+
+}
@@ -0,0 +1,170 @@
+package h10;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests the round trip of a {@link SkipList} through the file format of {@link MappedSkipList}.
+ */
+public class MappedSkipListTest {
+
+    /**
+     * The number of distinct keys of the elements.
+     */
+    private static final int KEYS = 20;
+
+    /**
+     * Compares elements of the form {@code key#id} by their keys only, so equal elements remain distinguishable.
+     */
+    private static final Comparator<String> BY_KEY = Comparator.comparing(element -> element.split("#")[0]);
+
+    @Test
+    public void testRoundTripWithDuplicates(@TempDir Path directory) throws IOException {
+        for (int seed = 0; seed < 10; seed++) {
+            Random random = new Random(seed);
+            SkipList<String> list = new SkipList<>(BY_KEY, 6, new Random(seed)::nextBoolean);
+            for (int i = 0; i < 150; i++) {
+                list.add(element(random.nextInt(KEYS), i));
+            }
+            assertTrue(list.getHeight() > 1);
+            assertRoundTrip(list, directory.resolve("list-" + seed));
+        }
+    }
+
+    @Test
+    public void testRoundTripOfEmptyList(@TempDir Path directory) throws IOException {
+        assertRoundTrip(new SkipList<>(BY_KEY, 6, new Random(22)::nextBoolean), directory.resolve("empty"));
+    }
+
+    @Test
+    public void testRoundTripOfSingleLevel(@TempDir Path directory) throws IOException {
+        Random random = new Random(22);
+        // Without a probability every tower consists of a single node
+        SkipList<String> list = new SkipList<>(BY_KEY, 6);
+        for (int i = 0; i < 60; i++) {
+            list.add(element(random.nextInt(KEYS), i));
+        }
+        assertEquals(1, list.getHeight());
+        assertRoundTrip(list, directory.resolve("single"));
+
+        SkipList<String> single = new SkipList<>(BY_KEY, 6);
+        single.add(element(3, 0));
+        assertRoundTrip(single, directory.resolve("element"));
+    }
+
+    @Test
+    public void testRejectsInvalidRange(@TempDir Path directory) throws IOException {
+        Path file = directory.resolve("list");
+        MappedSkipList.write(new SkipList<>(BY_KEY, 6), file, KeyCodec.strings());
+        MappedSkipList<String> mapped = MappedSkipList.open(file, BY_KEY, KeyCodec.strings());
+        assertThrows(IllegalArgumentException.class, () -> mapped.range(key(5), true, key(4), true));
+    }
+
+    @Test
+    public void testRejectsDamagedFiles(@TempDir Path directory) throws IOException {
+        Path file = directory.resolve("list");
+        SkipList<String> list = new SkipList<>(BY_KEY, 6, new Random(22)::nextBoolean);
+        for (int i = 0; i < 10; i++) {
+            list.add(element(i, i));
+        }
+        MappedSkipList.write(list, file, KeyCodec.strings());
+        byte[] bytes = Files.readAllBytes(file);
+        // The magic number of the trailer
+        byte[] damaged = bytes.clone();
+        damaged[damaged.length - 16] ^= 1;
+        Files.write(file, damaged);
+        assertThrows(IOException.class, () -> MappedSkipList.open(file, BY_KEY, KeyCodec.strings()));
+        // The height of the list in the trailer, which no longer matches the head record
+        damaged = bytes.clone();
+        damaged[damaged.length - 5] ^= 1;
+        Files.write(file, damaged);
+        assertThrows(IOException.class, () -> MappedSkipList.open(file, BY_KEY, KeyCodec.strings()));
+        // A file cut off within its trailer
+        Files.write(file, Arrays.copyOf(bytes, bytes.length - 3));
+        assertThrows(IOException.class, () -> MappedSkipList.open(file, BY_KEY, KeyCodec.strings()));
+    }
+
+    /**
+     * Writes the list to the file, maps it and asserts that the mapped list has the same size and height, iterates
+     * the same elements, and agrees with the list on {@code contains} and on all ranges between the keys.
+     *
+     * @param list the list to write
+     * @param file the file to write to
+     *
+     * @throws IOException if the file cannot be written or mapped
+     */
+    private static void assertRoundTrip(SkipList<String> list, Path file) throws IOException {
+        MappedSkipList.write(list, file, KeyCodec.strings());
+        MappedSkipList<String> mapped = MappedSkipList.open(file, BY_KEY, KeyCodec.strings());
+        assertEquals(list.size(), mapped.size());
+        assertEquals(list.isEmpty(), mapped.isEmpty());
+        assertEquals(list.getHeight(), mapped.getHeight());
+        // Equal elements keep their order
+        assertEquals(elements(list), elements(mapped));
+        for (int key = -1; key <= KEYS; key++) {
+            assertEquals(list.contains(key(key)), mapped.contains(key(key)), "contains " + key);
+        }
+        for (int from = -1; from <= KEYS; from++) {
+            for (int to = from; to <= KEYS; to++) {
+                for (int flags = 0; flags < 4; flags++) {
+                    boolean fromInclusive = (flags & 1) != 0;
+                    boolean toInclusive = (flags & 2) != 0;
+                    assertEquals(elements(list.range(key(from), fromInclusive, key(to), toInclusive)),
+                        elements(mapped.range(key(from), fromInclusive, key(to), toInclusive)),
+                        "range %s %s %s %s".formatted(from, fromInclusive, to, toInclusive));
+                }
+            }
+        }
+    }
+
+    /**
+     * Returns the element with the specified key and id.
+     *
+     * @param key the key of the element
+     * @param id  the id distinguishing equal elements
+     *
+     * @return the element
+     */
+    private static String element(int key, int id) {
+        return key(key) + "#" + id;
+    }
+
+    /**
+     * Returns an element with the specified key which is equal to all elements with that key.
+     *
+     * @param key the key, which may be {@code -1}
+     *
+     * @return the element
+     */
+    private static String key(int key) {
+        // Keys are compared as strings, so they are padded to the same length and -1 sorts first
+        return key < 0 ? "" : "%03d".formatted(key);
+    }
+
+    /**
+     * Returns the elements of the iterable in iteration order.
+     *
+     * @param iterable the iterable
+     *
+     * @return the elements of the iterable
+     */
+    private static List<String> elements(Iterable<String> iterable) {
+        List<String> elements = new ArrayList<>();
+        iterable.forEach(elements::add);
+        return elements;
+    }
+
+}
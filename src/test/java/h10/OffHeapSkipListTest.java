@@ -0,0 +1,90 @@
+package h10;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests {@link OffHeapSkipList} against a sorted list with duplicates, the reuse of the space of removed nodes and the
+ * growth of the arena across chunks.
+ */
+public class OffHeapSkipListTest extends SequentialSkipListTest {
+
+    /**
+     * The size of the chunks as a power of two, so that a chunk holds a single node of the maximum height.
+     */
+    private static final int CHUNK_SHIFT = 7;
+
+    @Override
+    protected Operations newList(Probability probability) {
+        OffHeapSkipList list = new OffHeapSkipList(MAX_HEIGHT, probability, CHUNK_SHIFT);
+        return new Operations(list::add, list::remove, list::contains, list::size, list::isEmpty, list::getHeight,
+            list::toString);
+    }
+
+    @Test
+    public void testReusesSpaceOfRemovedNodes() {
+        Random random = new Random(3);
+        List<Boolean> draws = new ArrayList<>();
+        OffHeapSkipList list = new OffHeapSkipList(MAX_HEIGHT, () -> {
+            boolean draw = random.nextBoolean();
+            draws.add(draw);
+            return draw;
+        }, CHUNK_SHIFT);
+        for (int i = 0; i < 500; i++) {
+            list.add(i % 50);
+        }
+        long reserved = list.reservedBytes();
+        assertTrue(reserved > 1L << CHUNK_SHIFT);
+        for (int i = 0; i < 500; i++) {
+            list.remove(i * 7 % 50);
+        }
+        assertEquals("[]", list.toString());
+
+        // The same heights again fit into the free nodes
+        Iterator<Boolean> replay = draws.iterator();
+        list.setProbability(replay::next);
+        for (int i = 0; i < 500; i++) {
+            list.add(1_000 - i % 100);
+        }
+        assertEquals(reserved, list.reservedBytes());
+        assertEquals(500, list.size());
+        for (int key = 900; key <= 1_000; key++) {
+            assertEquals(key > 900, list.contains(key), "contains " + key);
+        }
+        assertTrue(list.toString().endsWith(", 1000, 1000, 1000, 1000, 1000]]"), list::toString);
+    }
+
+    @Test
+    public void testGrowsAcrossChunks() {
+        OffHeapSkipList list = new OffHeapSkipList(MAX_HEIGHT, new Random(3)::nextBoolean, CHUNK_SHIFT);
+        assertEquals(1L << CHUNK_SHIFT, list.reservedBytes());
+        for (long key = 0; key < 1_000; key++) {
+            list.add(key * 3 + Long.MAX_VALUE / 2);
+        }
+        assertEquals(0, list.reservedBytes() % (1L << CHUNK_SHIFT));
+        // A node of height one occupies 24 bytes, so at most five of them fit into a chunk
+        assertTrue(list.reservedBytes() >= 1_000 / 5 << CHUNK_SHIFT);
+        for (long key = 0; key < 3_000; key++) {
+            assertEquals(key % 3 == 0, list.contains(key + Long.MAX_VALUE / 2), "contains " + key);
+        }
+        assertEquals(1_000, list.size());
+    }
+
+    @Test
+    public void testRejectsChunksTooSmallForTheHead() {
+        // The head of height 8 occupies 80 bytes
+        assertThrows(IllegalArgumentException.class,
+            () -> new OffHeapSkipList(MAX_HEIGHT, new Random(3)::nextBoolean, CHUNK_SHIFT - 1));
+        assertThrows(IllegalArgumentException.class, () -> new OffHeapSkipList(1, () -> false, -1));
+        assertEquals(0, new OffHeapSkipList(MAX_HEIGHT, () -> false, CHUNK_SHIFT).size());
+    }
+
+}
@@ -0,0 +1,163 @@
+package h10;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.function.BooleanSupplier;
+import java.util.function.IntConsumer;
+import java.util.function.IntPredicate;
+import java.util.function.IntSupplier;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests a single-threaded skip list with the operations of {@link TowerSkipList} against a sorted list with
+ * duplicates. Each list is tested by a subclass.
+ *
+ * @see TowerSkipListTest
+ * @see IntSkipListTest
+ * @see LongSkipListTest
+ * @see OffHeapSkipListTest
+ */
+public abstract class SequentialSkipListTest {
+
+    /**
+     * The maximum height of the tested lists.
+     */
+    protected static final int MAX_HEIGHT = 8;
+
+    /**
+     * Creates an empty list of the tested kind.
+     *
+     * @param probability the probability function used to determine if a node should be added on another level
+     *
+     * @return the operations of the new list
+     */
+    protected abstract Operations newList(Probability probability);
+
+    @Test
+    public void testAgainstModel() {
+        for (int seed = 0; seed < 20; seed++) {
+            Random random = new Random(seed);
+            Operations list = newList(new Random(seed)::nextBoolean);
+            List<Integer> model = new ArrayList<>();
+            // Few distinct keys, so there are many duplicates, and phases which mostly add or mostly remove
+            int keys = 1 + random.nextInt(60);
+            for (int i = 0; i < 2_000; i++) {
+                int key = random.nextInt(keys) - keys / 2;
+                boolean adding = i / 250 % 2 == 0;
+                int operation = random.nextInt(4);
+                if (operation < (adding ? 3 : 1)) {
+                    list.add().accept(key);
+                    int index = Collections.binarySearch(model, key);
+                    // Equal elements are added after all occurrences, which is indistinguishable for the model
+                    model.add(index < 0 ? -index - 1 : index, key);
+                } else if (operation < 3) {
+                    list.remove().accept(key);
+                    model.remove((Integer) key);
+                } else {
+                    assertEquals(model.contains(key), list.contains().test(key), "contains " + key);
+                }
+                assertEquals(model.size(), list.size().getAsInt());
+                assertEquals(model.isEmpty(), list.isEmpty().getAsBoolean());
+            }
+            for (int key = -keys; key <= keys; key++) {
+                assertEquals(model.contains(key), list.contains().test(key), "contains " + key);
+            }
+            assertLevels(list, model);
+        }
+    }
+
+    @Test
+    public void testEmptiedListLosesItsLevels() {
+        Operations list = newList(new Random(3)::nextBoolean);
+        for (int i = 0; i < 100; i++) {
+            list.add().accept(i % 10);
+        }
+        assertTrue(list.height().getAsInt() > 1);
+        for (int i = 0; i < 100; i++) {
+            list.remove().accept(i % 10);
+        }
+        // Removing an absent element is ignored
+        list.remove().accept(0);
+        assertEquals(0, list.size().getAsInt());
+        assertTrue(list.isEmpty().getAsBoolean());
+        assertEquals(0, list.height().getAsInt());
+        assertEquals("[]", list.levels().get());
+        list.add().accept(Integer.MIN_VALUE);
+        list.add().accept(Integer.MAX_VALUE);
+        assertTrue(list.contains().test(Integer.MIN_VALUE));
+        assertTrue(list.contains().test(Integer.MAX_VALUE));
+        assertLevels(list, List.of(Integer.MIN_VALUE, Integer.MAX_VALUE));
+    }
+
+    /**
+     * Asserts that the lowest level of the list holds the elements of the model, that each level is a subsequence of
+     * the level below it, and that the highest level is not empty.
+     *
+     * @param list  the list to test
+     * @param model the elements of the list in ascending order
+     */
+    private static void assertLevels(Operations list, List<Integer> model) {
+        String levels = list.levels().get();
+        List<List<Integer>> parsed = parseLevels(levels);
+        assertEquals(list.height().getAsInt(), parsed.size(), levels);
+        if (parsed.isEmpty()) {
+            assertTrue(model.isEmpty());
+            return;
+        }
+        assertEquals(model, parsed.get(parsed.size() - 1), levels);
+        assertTrue(!parsed.get(0).isEmpty(), levels);
+        for (int level = 0; level < parsed.size() - 1; level++) {
+            List<Integer> upper = parsed.get(level);
+            List<Integer> lower = parsed.get(level + 1);
+            int index = 0;
+            for (int element : upper) {
+                while (index < lower.size() && lower.get(index) != element) {
+                    index++;
+                }
+                assertTrue(index++ < lower.size(), () -> "level above is no subsequence in " + levels);
+            }
+        }
+    }
+
+    /**
+     * Parses the levels of the string representation of a list, from the highest to the lowest one.
+     *
+     * @param levels the string representation of the list
+     *
+     * @return the elements of each level
+     */
+    private static List<List<Integer>> parseLevels(String levels) {
+        List<List<Integer>> parsed = new ArrayList<>();
+        if (levels.equals("[]")) {
+            return parsed;
+        }
+        for (String level : levels.substring(2, levels.length() - 2).split("], \\[")) {
+            parsed.add(level.isEmpty() ? List.of() : Arrays.stream(level.split(", ")).map(Integer::valueOf).toList());
+        }
+        return parsed;
+    }
+
+    /**
+     * The operations of a list of the tested kind.
+     *
+     * @param add      adds an element after all equal elements
+     * @param remove   removes the first occurrence of an element if it is present
+     * @param contains tests whether an element is present
+     * @param size     returns the number of elements
+     * @param isEmpty  tests whether the list is empty
+     * @param height   returns the current height
+     * @param levels   returns the elements of all levels from the highest to the lowest one
+     */
+    protected record Operations(IntConsumer add, IntConsumer remove, IntPredicate contains, IntSupplier size,
+                                BooleanSupplier isEmpty, IntSupplier height, Supplier<String> levels) {
+    }
+
+}
@@ -0,0 +1,305 @@
+package h10;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests {@link SkipListJson} with written lists and with the list objects of the test fixtures.
+ */
+public class SkipListJsonTest {
+
+    @Test
+    public void testRoundTrip() throws IOException {
+        for (int seed = 0; seed < 20; seed++) {
+            Random random = new Random(seed);
+            List<Integer> elements = new ArrayList<>();
+            int size = seed == 0 ? 0 : random.nextInt(300);
+            for (int i = 0, element = -100; i < size; i++, element += 1 + random.nextInt(3)) {
+                elements.add(element);
+            }
+            SkipList<Integer> list = SkipList.fromSorted(elements, Comparator.naturalOrder(), 2 + seed % 8,
+                random::nextBoolean);
+            String json = write(list);
+            SkipList<Integer> read = SkipListJson.read(new StringReader(json), Comparator.naturalOrder());
+            assertEquals(list, read);
+            assertEquals(list.maxHeight, read.maxHeight);
+            assertEquals(list.size(), read.size());
+            assertEquals(list.getHeight(), read.getHeight());
+            if (!list.isEmpty()) {
+                assertEquals(lowestSentinel(list), lowestSentinel(read));
+            }
+            assertEquals(json, write(read));
+            assertTowers(read);
+            for (int i = 0; i < elements.size(); i++) {
+                assertEquals(elements.get(i), read.get(i));
+            }
+        }
+    }
+
+    @Test
+    public void testRoundTripWithDuplicates() throws IOException {
+        Random random = new Random(25);
+        SkipList<Integer> list = new SkipList<>(Comparator.naturalOrder(), 6, new Random(25)::nextBoolean);
+        for (int i = 0; i < 500; i++) {
+            // Few distinct elements, so there are duplicates with towers of different heights
+            list.add(random.nextInt(40));
+        }
+        String json = write(list);
+        SkipList<Integer> read = SkipListJson.read(new StringReader(json), Comparator.naturalOrder());
+        assertEquals(list.contentHash(), read.contentHash());
+        assertEquals(json, write(read));
+        assertTowers(read);
+        for (int i = 0; i < list.size(); i++) {
+            assertEquals(list.get(i), read.get(i));
+        }
+        // The levels only determine how many equal elements reach each level, and the reader links each node of the
+        // level above to the first unmatched equal element, so the towers of equal elements descend in height
+        List<Integer> heights = towerHeights(list);
+        List<Integer> expected = new ArrayList<>();
+        boolean reordered = false;
+        for (int start = 0, end; start < heights.size(); start = end) {
+            for (end = start + 1; end < heights.size() && list.get(end).equals(list.get(start)); end++) {
+                reordered |= heights.get(end) > heights.get(start);
+            }
+            List<Integer> run = new ArrayList<>(heights.subList(start, end));
+            run.sort(Comparator.reverseOrder());
+            expected.addAll(run);
+        }
+        assertTrue(reordered, "no tower of a duplicate is higher than the tower of its first occurrence");
+        assertEquals(expected, towerHeights(read));
+        // The lists are compared structurally, so they differ in the towers of the duplicates
+        assertNotEquals(list, read);
+        assertNotEquals(list.head, read.head);
+    }
+
+    @Test
+    public void testReadFixtureShapes() throws IOException {
+        // The list object of h1/lowest/13.json and h3/element/33.json
+        assertReads("""
+            {
+              "levels": [
+                [
+                  91,
+                  94,
+                  113
+                ],
+                [
+                  30,
+                  91,
+                  94,
+                  113,
+                  148,
+                  151
+                ],
+                [
+                  30,
+                  33,
+                  34,
+                  37,
+                  51,
+                  91,
+                  94,
+                  113,
+                  148,
+                  151,
+                  160,
+                  179
+                ],
+                [
+                  13,
+                  21,
+                  30,
+                  33,
+                  34,
+                  37,
+                  44,
+                  47,
+                  51,
+                  57,
+                  65,
+                  75,
+                  90,
+                  91,
+                  94,
+                  113,
+                  132,
+                  139,
+                  147,
+                  148,
+                  151,
+                  160,
+                  162,
+                  179,
+                  196,
+                  198
+                ]
+              ]
+            }""",
+            "{\"levels\":[[91,94,113],[30,91,94,113,148,151],[30,33,34,37,51,91,94,113,148,151,160,179],"
+                + "[13,21,30,33,34,37,44,47,51,57,65,75,90,91,94,113,132,139,147,148,151,160,162,179,196,198]],"
+                + "\"maxHeight\":4}");
+        // The list object of h2/first.json
+        assertReads("""
+            {
+              "levels": [
+                [
+                  2,
+                  10,
+                  18,
+                  22,
+                  30,
+                  44,
+                  59,
+                  70,
+                  77,
+                  80,
+                  99,
+                  100
+                ]
+              ]
+            }""",
+            "{\"levels\":[[2,10,18,22,30,44,59,70,77,80,99,100]],\"maxHeight\":1}");
+        // The list objects of h2/on_each_level_max.json and h2/create_new_levels.json
+        assertReads("{\"levels\":[[22,59,70,80],[2,18,22,59,70,80,99,100],[2,10,18,22,30,44,59,70,77,80,99,100]],"
+                + "\"maxHeight\":6}",
+            "{\"levels\":[[22,59,70,80],[2,18,22,59,70,80,99,100],[2,10,18,22,30,44,59,70,77,80,99,100]],"
+                + "\"maxHeight\":6}");
+        assertReads("{\"levels\":[[5,12,17,47,72,98]],\"maxHeight\":6}",
+            "{\"levels\":[[5,12,17,47,72,98]],\"maxHeight\":6}");
+        // The list object of h3/all/5.json
+        assertReads("{\"levels\": [[5]]}", "{\"levels\":[[5]],\"maxHeight\":1}");
+    }
+
+    @Test
+    public void testRejectsMissingLevels() {
+        // A whole fixture file, whose levels are nested in the list object
+        String fixture = """
+            {
+              "list": {
+                "levels": [[22, 59], [2, 22, 59, 100]]
+              },
+              "key": 50,
+              "comparisons": [[1, 2], [3]]
+            }""";
+        assertThrows(IOException.class, () -> SkipListJson.read(new StringReader(fixture),
+            Comparator.naturalOrder()));
+        assertThrows(IOException.class, () -> SkipListJson.read(new StringReader("{}"), Comparator.naturalOrder()));
+        assertThrows(IOException.class, () -> SkipListJson.read(new StringReader("{\"maxHeight\": 3}"),
+            Comparator.naturalOrder()));
+    }
+
+    @Test
+    public void testRejectsMaxHeightBelowNumberOfLevels() throws IOException {
+        String levels = "\"levels\": [[22, 59], [2, 22, 59, 100], [2, 10, 22, 30, 59, 100]]";
+        assertThrows(IOException.class, () -> SkipListJson.read(new StringReader("{" + levels + ", \"maxHeight\": 2}"),
+            Comparator.naturalOrder()));
+        assertThrows(IOException.class, () -> SkipListJson.read(new StringReader("{\"maxHeight\": 0, " + levels + "}"),
+            Comparator.naturalOrder()));
+        SkipList<Integer> list = SkipListJson.read(new StringReader("{" + levels + ", \"maxHeight\": 3}"),
+            Comparator.naturalOrder());
+        assertEquals(3, list.maxHeight);
+        assertEquals(3, list.getHeight());
+    }
+
+    /**
+     * Asserts that the JSON object is read into a list with linked towers which is written as the expected JSON
+     * object.
+     *
+     * @param json     the JSON object to read
+     * @param expected the expected compact JSON object of the read list
+     *
+     * @throws IOException if the JSON object cannot be read
+     */
+    private static void assertReads(String json, String expected) throws IOException {
+        SkipList<Integer> list = SkipListJson.read(new StringReader(json), Comparator.naturalOrder());
+        assertEquals(expected, write(list));
+        assertTowers(list);
+        for (int i = 0; i < list.size(); i++) {
+            assertTrue(list.contains(list.get(i)), "contains " + list.get(i));
+        }
+    }
+
+    /**
+     * Returns the list written as a JSON object.
+     *
+     * @param list the list to write
+     *
+     * @return the JSON object
+     *
+     * @throws IOException if the list cannot be written
+     */
+    private static String write(SkipList<Integer> list) throws IOException {
+        StringBuilder json = new StringBuilder();
+        SkipListJson.write(list, json);
+        return json.toString();
+    }
+
+    /**
+     * Asserts that every node above the lowest level is linked to a node below with the same element, and that the
+     * nodes below follow in the same order as the nodes above.
+     *
+     * @param list the list to test
+     */
+    private static void assertTowers(SkipList<Integer> list) {
+        for (ListItem<ExpressNode<Integer>> sentinel = list.head; sentinel != null && sentinel.key.down != null;
+             sentinel = sentinel.key.down) {
+            assertSame(sentinel, sentinel.key.down.key.up);
+            ListItem<ExpressNode<Integer>> below = sentinel.key.down;
+            for (ListItem<ExpressNode<Integer>> node = sentinel.next; node != null; node = node.next) {
+                while (below != node.key.down) {
+                    below = below.next;
+                    assertTrue(below != null, "the node below " + node.key.value + " is not on the level below");
+                }
+                assertSame(node.key.value, below.key.value);
+                assertSame(node, below.key.up);
+            }
+        }
+    }
+
+    /**
+     * Returns the heights of the towers of the elements of the list in ascending order.
+     *
+     * @param list the list
+     *
+     * @return the heights of the towers
+     */
+    private static List<Integer> towerHeights(SkipList<Integer> list) {
+        List<Integer> heights = new ArrayList<>();
+        for (ListItem<ExpressNode<Integer>> node = lowestSentinel(list).next; node != null; node = node.next) {
+            int height = 1;
+            for (ListItem<ExpressNode<Integer>> upper = node.key.up; upper != null; upper = upper.key.up) {
+                height++;
+            }
+            heights.add(height);
+        }
+        return heights;
+    }
+
+    /**
+     * Returns the sentinel node of the lowest level of the list.
+     *
+     * @param list the list
+     *
+     * @return the sentinel node of the lowest level
+     */
+    private static ListItem<ExpressNode<Integer>> lowestSentinel(SkipList<Integer> list) {
+        ListItem<ExpressNode<Integer>> sentinel = list.head;
+        while (sentinel.key.down != null) {
+            sentinel = sentinel.key.down;
+        }
+        return sentinel;
+    }
+
+}
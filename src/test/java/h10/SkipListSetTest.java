@@ -0,0 +1,186 @@
+package h10;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NavigableSet;
+import java.util.Random;
+import java.util.TreeSet;
+import java.util.function.Function;
+import java.util.function.UnaryOperator;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Tests {@link SkipListSet} and its views against a {@link TreeSet}.
+ */
+public class SkipListSetTest {
+
+    /**
+     * The number of distinct elements.
+     */
+    private static final int KEYS = 40;
+
+    @Test
+    public void testNavigationAgainstModel() {
+        Random random = new Random(12);
+        for (int seed = 0; seed < 50; seed++) {
+            NavigableSet<Integer> set = new SkipListSet<>(Comparator.naturalOrder(), 6, new Random(seed)::nextBoolean);
+            NavigableSet<Integer> model = new TreeSet<>();
+            for (int i = 0; i < 300; i++) {
+                // Apply the same chain of views to both sets
+                UnaryOperator<NavigableSet<Integer>> view = randomView(random);
+                NavigableSet<Integer> setView;
+                try {
+                    setView = view.apply(set);
+                } catch (IllegalArgumentException e) {
+                    assertThrows(IllegalArgumentException.class, () -> view.apply(model));
+                    continue;
+                }
+                NavigableSet<Integer> modelView = view.apply(model);
+                applyRandomOperation(setView, modelView, random);
+                assertSameNavigation(setView, modelView, random);
+            }
+            assertEquals(new ArrayList<>(model), new ArrayList<>(set));
+        }
+    }
+
+    @Test
+    public void testDescendingIteratorRemovesReturnedElements() {
+        SkipListSet<Integer> set = new SkipListSet<>(Comparator.naturalOrder(), 6, new Random(12)::nextBoolean);
+        for (int i = 0; i < 100; i++) {
+            set.add(i);
+        }
+        // Remove every third element of the tail in descending order
+        Iterator<Integer> iterator = set.tailSet(50, false).descendingIterator();
+        List<Integer> returned = new ArrayList<>();
+        while (iterator.hasNext()) {
+            int element = iterator.next();
+            returned.add(element);
+            if (element % 3 == 0) {
+                iterator.remove();
+            }
+        }
+        assertEquals(49, returned.size());
+        assertEquals(99, (int) returned.get(0));
+        assertEquals(51, (int) returned.get(returned.size() - 1));
+        for (int i = 0; i < 100; i++) {
+            assertEquals(i <= 50 || i % 3 != 0, set.contains(i), "contains " + i);
+        }
+        assertEquals(100 - 17, set.size());
+        assertThrows(IllegalStateException.class, iterator::remove);
+    }
+
+    @Test
+    public void testViewsRejectElementsOutOfRange() {
+        SkipListSet<Integer> set = new SkipListSet<>(Comparator.naturalOrder(), 6, new Random(12)::nextBoolean);
+        NavigableSet<Integer> view = set.subSet(10, false, 20, true);
+        view.add(11);
+        view.add(20);
+        assertThrows(IllegalArgumentException.class, () -> view.add(10));
+        assertThrows(IllegalArgumentException.class, () -> view.add(21));
+        assertThrows(IllegalArgumentException.class, () -> view.descendingSet().add(9));
+        assertThrows(IllegalArgumentException.class, () -> set.headSet(5, true).add(6));
+        assertThrows(IllegalArgumentException.class, () -> set.tailSet(5, false).add(5));
+        // Views of views must stay within the outer bounds
+        assertThrows(IllegalArgumentException.class, () -> view.subSet(10, true, 15, true));
+        assertThrows(IllegalArgumentException.class, () -> view.headSet(21, false));
+        assertEquals(List.of(11, 20), new ArrayList<>(set));
+        assertEquals(List.of(20, 11), new ArrayList<>(view.descendingSet()));
+    }
+
+    /**
+     * Returns a random chain of up to two views with random bounds and inclusive flags, each possibly descending.
+     *
+     * @param random the source of randomness
+     *
+     * @return the function applying the views to a set
+     */
+    private static UnaryOperator<NavigableSet<Integer>> randomView(Random random) {
+        List<Function<NavigableSet<Integer>, NavigableSet<Integer>>> views = new ArrayList<>();
+        int count = random.nextInt(3);
+        for (int i = 0; i < count; i++) {
+            int from = random.nextInt(KEYS + 2) - 1;
+            int to = from + random.nextInt(KEYS / 2);
+            boolean fromInclusive = random.nextBoolean();
+            boolean toInclusive = random.nextBoolean();
+            boolean descending = random.nextBoolean();
+            Function<NavigableSet<Integer>, NavigableSet<Integer>> view = switch (random.nextInt(4)) {
+                case 0 -> set -> set.descendingSet();
+                case 1 -> set -> set.headSet(to, toInclusive);
+                case 2 -> set -> set.tailSet(from, fromInclusive);
+                // The bounds of a descending view are given in descending order
+                default -> set -> set.comparator() != null && set.comparator().compare(0, 1) > 0
+                    ? set.subSet(to, toInclusive, from, fromInclusive)
+                    : set.subSet(from, fromInclusive, to, toInclusive);
+            };
+            views.add(descending ? view.andThen(NavigableSet::descendingSet) : view);
+        }
+        return set -> {
+            for (Function<NavigableSet<Integer>, NavigableSet<Integer>> view : views) {
+                set = view.apply(set);
+            }
+            return set;
+        };
+    }
+
+    /**
+     * Applies a random addition, removal or poll to the set and the model, which may be views.
+     *
+     * @param set    the set to modify
+     * @param model  the model to modify
+     * @param random the source of randomness
+     */
+    private static void applyRandomOperation(NavigableSet<Integer> set, NavigableSet<Integer> model, Random random) {
+        int key = random.nextInt(KEYS);
+        switch (random.nextInt(6)) {
+            case 0, 1, 2 -> {
+                boolean added;
+                try {
+                    added = set.add(key);
+                } catch (IllegalArgumentException e) {
+                    assertThrows(IllegalArgumentException.class, () -> model.add(key));
+                    return;
+                }
+                assertEquals(model.add(key), added, "add " + key);
+            }
+            case 3 -> assertEquals(model.remove(key), set.remove(key), "remove " + key);
+            case 4 -> assertEquals(model.pollFirst(), set.pollFirst(), "pollFirst");
+            default -> assertEquals(model.pollLast(), set.pollLast(), "pollLast");
+        }
+    }
+
+    /**
+     * Asserts that the set and the model agree on their elements in both directions, their sizes and the navigation
+     * around a few random elements.
+     *
+     * @param set    the set to test
+     * @param model  the model of the set
+     * @param random the source of randomness
+     */
+    private static void assertSameNavigation(NavigableSet<Integer> set, NavigableSet<Integer> model, Random random) {
+        assertEquals(new ArrayList<>(model), new ArrayList<>(set));
+        List<Integer> descending = new ArrayList<>();
+        set.descendingIterator().forEachRemaining(descending::add);
+        assertEquals(new ArrayList<>(model.descendingSet()), descending);
+        assertEquals(model.size(), set.size());
+        assertEquals(model.isEmpty(), set.isEmpty());
+        if (!model.isEmpty()) {
+            assertEquals(model.first(), set.first());
+            assertEquals(model.last(), set.last());
+        }
+        for (int i = 0; i < 5; i++) {
+            int key = random.nextInt(KEYS + 2) - 1;
+            assertEquals(model.lower(key), set.lower(key), "lower " + key);
+            assertEquals(model.floor(key), set.floor(key), "floor " + key);
+            assertEquals(model.ceiling(key), set.ceiling(key), "ceiling " + key);
+            assertEquals(model.higher(key), set.higher(key), "higher " + key);
+            assertEquals(model.contains(key), set.contains(key), "contains " + key);
+        }
+    }
+
+}
@@ -0,0 +1,977 @@
+package h10;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Spliterator;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests {@link SkipList} against models of its contents.
+ */
+public class SkipListTest {
+
+    /**
+     * Compares elements of the form {@code {key, id}} by their keys only, so equal elements remain distinguishable.
+     */
+    private static final Comparator<int[]> BY_KEY = Comparator.comparingInt(element -> element[0]);
+
+    @Test
+    public void testFingerRemovesSameOccurrenceAsList() {
+        Random random = new Random(9);
+        // Both lists draw the same tower heights
+        SkipList<int[]> list = new SkipList<>(BY_KEY, 6, new Random(1)::nextBoolean);
+        SkipList<int[]> fingered = new SkipList<>(BY_KEY, 6, new Random(1)::nextBoolean);
+        SkipList<int[]>.Finger finger = fingered.finger();
+        for (int i = 0; i < 5_000; i++) {
+            int key = random.nextInt(40);
+            int operation = random.nextInt(3);
+            if (operation == 0) {
+                int[] element = {key, i};
+                list.add(element);
+                fingered.add(element);
+            } else if (operation == 1) {
+                list.remove(new int[] {key, -1});
+                finger.remove(new int[] {key, -1});
+            } else {
+                assertEquals(list.contains(new int[] {key, -1}), finger.contains(new int[] {key, -1}));
+            }
+            // The elements are compared by identity, so the levels have to contain the same objects
+            assertEquals(list.toString(), fingered.toString());
+            assertEquals(list.size(), fingered.size());
+        }
+    }
+
+    @Test
+    public void testAddAllAgainstModel() {
+        for (int seed = 0; seed < 30; seed++) {
+            Random random = new Random(seed);
+            SkipList<Integer> list = new SkipList<>(Comparator.naturalOrder(), 8, new Random(seed)::nextBoolean);
+            SkipList<Integer> added = new SkipList<>(Comparator.naturalOrder(), 8);
+            list.setContentHashing(seed % 2 == 0 ? ContentHashing.UNORDERED : ContentHashing.ORDERED);
+            added.setContentHashing(list.getContentHashing());
+            List<Integer> model = new ArrayList<>();
+            // The first batch is merged into the empty list
+            for (int round = 0; round < 5; round++) {
+                List<Integer> batch = new ArrayList<>();
+                // Unsorted elements with duplicates, overlapping the elements of the list
+                for (int i = random.nextInt(round * 100 + 1); i >= 0; i--) {
+                    batch.add(random.nextInt(150));
+                }
+                for (int key : batch) {
+                    model.add(upperBound(model, key), key);
+                    added.add(key);
+                }
+                list.addAll(batch);
+                assertPositions(list, model, random);
+                assertLinks(list);
+                assertEquals(added.contentHash(), list.contentHash());
+            }
+            list.addAll(List.of());
+            assertPositions(list, model, random);
+        }
+    }
+
+    @Test
+    public void testAddAllPlacesEqualElementsAfterExistingOnes() {
+        Random random = new Random(8);
+        SkipList<int[]> list = new SkipList<>(BY_KEY, 6, new Random(8)::nextBoolean);
+        SkipList<int[]> added = new SkipList<>(BY_KEY, 6, new Random(8)::nextBoolean);
+        int id = 0;
+        for (int round = 0; round < 20; round++) {
+            List<int[]> batch = new ArrayList<>();
+            for (int i = 0; i < 50; i++) {
+                batch.add(new int[] {random.nextInt(20), id++});
+            }
+            // Equal elements of the batch keep their order, and all of them follow the equal elements of the list
+            List<int[]> sorted = new ArrayList<>(batch);
+            sorted.sort(BY_KEY);
+            sorted.forEach(added::add);
+            list.addAll(batch);
+            assertEquals(ids(added), ids(list));
+        }
+    }
+
+    @Test
+    public void testSpliteratorComparator() {
+        SkipList<Integer> natural = SkipList.fromSorted(List.of(1, 2, 2, 3), Comparator.naturalOrder(), 4,
+            new Random(3)::nextBoolean);
+        Spliterator<Integer> spliterator = natural.spliterator();
+        assertTrue(spliterator.hasCharacteristics(Spliterator.SORTED));
+        assertNull(spliterator.getComparator());
+        assertEquals(List.of(1, 2, 2, 3), natural.stream().sorted().toList());
+
+        Comparator<Integer> reversed = Comparator.reverseOrder();
+        SkipList<Integer> descending = SkipList.fromSorted(List.of(3, 2, 1), reversed, 4, new Random(3)::nextBoolean);
+        assertSame(reversed, descending.spliterator().getComparator());
+        assertEquals(List.of(1, 2, 3), descending.stream().sorted().toList());
+    }
+
+    @Test
+    public void testParallelOperationsMatchSequentialResults() {
+        Random random = new Random(14);
+        SkipList<Integer> list = new SkipList<>(Comparator.naturalOrder(), 16, new Random(5)::nextBoolean);
+        for (int i = 0; i < 50_000; i++) {
+            list.add(random.nextInt(1_000_000));
+        }
+        assertTrue(list.getHeight() > 10, "height: " + list.getHeight());
+        assertEquals(list.stream().mapToLong(Integer::longValue).sum(),
+            (long) list.parallelReduce(0L, (sum, element) -> sum + element, Long::sum));
+        assertEquals(list.stream().filter(element -> element % 3 == 0).count(),
+            list.parallelCount(element -> element % 3 == 0));
+        LongAdder sum = new LongAdder();
+        list.parallelForEach(sum::add);
+        assertEquals(list.stream().mapToLong(Integer::longValue).sum(), sum.sum());
+
+        // Concatenation is not commutative, so the segments have to be combined in order
+        SkipList<Integer> small = new SkipList<>(Comparator.naturalOrder(), 16, new Random(6)::nextBoolean);
+        for (int i = 0; i < 3_000; i++) {
+            small.add(random.nextInt(10_000));
+        }
+        StringBuilder expected = new StringBuilder();
+        small.forEach(element -> expected.append(element).append(','));
+        assertEquals(expected.toString(), small.parallelReduce("", (text, element) -> text + element + ',',
+            String::concat));
+        assertEquals(0L, (long) new SkipList<Integer>(Comparator.naturalOrder(), 4)
+            .parallelReduce(0L, (count, element) -> count + 1, Long::sum));
+    }
+
+    @Test
+    public void testReadersNextToSingleWriter() throws Exception {
+        int pinned = 200;
+        int readers = 4;
+        for (SkipList<Integer> list : List.<SkipList<Integer>>of(
+            new SkipList<>(Comparator.naturalOrder(), 10, new GeometricLevelGenerator(0.5)),
+            SkipList.adaptive(Comparator.naturalOrder(), 0.5))) {
+            // The even elements are never removed, the odd ones come and go
+            for (int i = 0; i < pinned; i++) {
+                list.add(2 * i);
+            }
+            AtomicBoolean writing = new AtomicBoolean(true);
+            ExecutorService executor = Executors.newFixedThreadPool(readers);
+            try {
+                List<Future<?>> futures = new ArrayList<>();
+                for (int reader = 0; reader < readers; reader++) {
+                    futures.add(executor.submit(() -> {
+                        ThreadLocalRandom random = ThreadLocalRandom.current();
+                        while (writing.get()) {
+                            int key = random.nextInt(2 * pinned);
+                            boolean present = list.contains(key);
+                            assertTrue(key % 2 != 0 || present, "contains " + key);
+                            List<Integer> elements = new ArrayList<>();
+                            list.forEach(elements::add);
+                            assertSorted(elements);
+                            assertEquals(pinned, elements.stream().filter(element -> element % 2 == 0).count());
+                            String levels = list.toString();
+                            for (String level : levels.substring(2, levels.length() - 2).split("], \\[")) {
+                                assertSorted(level.isEmpty() ? List.of()
+                                    : Arrays.stream(level.split(", ")).map(Integer::valueOf).toList());
+                            }
+                        }
+                        return null;
+                    }));
+                }
+                Random random = new Random(6);
+                for (int i = 0; i < 100_000; i++) {
+                    int key = 2 * random.nextInt(pinned) + 1;
+                    // Toggle the element, so the levels stay short enough to be written completely by toString
+                    if (list.contains(key)) {
+                        list.remove(key);
+                    } else {
+                        list.add(key);
+                    }
+                }
+                writing.set(false);
+                for (Future<?> future : futures) {
+                    future.get();
+                }
+            } finally {
+                executor.shutdown();
+            }
+        }
+    }
+
+    @Test
+    public void testWriteToFullMatchesLevels() throws IOException {
+        for (int seed = 0; seed < 20; seed++) {
+            Random random = new Random(seed);
+            SkipList<Integer> list = new SkipList<>(Comparator.naturalOrder(), 8, new Random(seed)::nextBoolean);
+            for (int i = seed == 0 ? 0 : random.nextInt(1_500); i > 0; i--) {
+                list.add(random.nextInt(500) - 250);
+            }
+            StringBuilder full = new StringBuilder();
+            list.writeTo(full, SkipList.WriteOptions.FULL);
+            assertEquals(levels(list), full.toString());
+            if (list.size() <= 1_000) {
+                assertEquals(levels(list), list.toString());
+            }
+        }
+    }
+
+    @Test
+    public void testWriteToLimitsAndSummarizesLevels() throws IOException {
+        // The example list of the documentation with the towers of 12 and 47 on two levels
+        Iterator<Boolean> draws = List.of(false, true, false, false, true, false, false).iterator();
+        SkipList<Integer> list = new SkipList<>(Comparator.naturalOrder(), 3, draws::next);
+        for (int element : List.of(5, 12, 17, 47, 72)) {
+            list.add(element);
+        }
+        assertEquals("[[12, 47], [5, 12, 17, 47, 72]]", write(list, SkipList.WriteOptions.FULL));
+        assertEquals("[[12, 47], [5, 12, 17, ...]]", write(list, SkipList.WriteOptions.limited(3)));
+        // A level with exactly the limit is written completely
+        assertEquals("[[12, 47], [5, 12, ...]]", write(list, SkipList.WriteOptions.limited(2)));
+        assertEquals("[[...], [...]]", write(list, SkipList.WriteOptions.limited(0)));
+        assertEquals("[levels: 2, 5]", write(list, SkipList.WriteOptions.SUMMARY));
+
+        SkipList<Integer> empty = new SkipList<>(Comparator.naturalOrder(), 3);
+        assertEquals("[]", write(empty, SkipList.WriteOptions.FULL));
+        assertEquals("[]", write(empty, SkipList.WriteOptions.limited(3)));
+        assertEquals("[levels: ]", write(empty, SkipList.WriteOptions.SUMMARY));
+        assertThrows(IllegalArgumentException.class, () -> SkipList.WriteOptions.limited(-1));
+    }
+
+    @Test
+    public void testToStringCapsLevels() {
+        List<Integer> elements = new ArrayList<>();
+        for (int i = 0; i < 1_500; i++) {
+            elements.add(i);
+        }
+        SkipList<Integer> list = SkipList.fromSorted(elements, Comparator.naturalOrder(), 1);
+        assertEquals("[" + elements.subList(0, 1_000).toString().replace("]", ", ...]") + "]", list.toString());
+        for (int i = 0; i < 500; i++) {
+            list.removeAt(list.size() - 1);
+        }
+        // Exactly as many elements as the cap are written completely
+        assertEquals("[" + elements.subList(0, 1_000) + "]", list.toString());
+    }
+
+    @Test
+    public void testRangeViewsAgainstModel() {
+        Random random = new Random(11);
+        SkipList<Integer> list = new SkipList<>(Comparator.naturalOrder(), 6, new Random(11)::nextBoolean);
+        List<Integer> model = new ArrayList<>();
+        // The views are created once and have to follow all later modifications of the list
+        List<SkipList<Integer>.Range> heads = new ArrayList<>();
+        List<SkipList<Integer>.Range> tails = new ArrayList<>();
+        for (int bound = -1; bound <= 30; bound++) {
+            heads.add(list.headList(bound, false));
+            heads.add(list.headList(bound, true));
+            tails.add(list.tailList(bound, false));
+            tails.add(list.tailList(bound, true));
+        }
+        for (int round = 0; round < 30; round++) {
+            for (int i = 0; i < 20; i++) {
+                // Few distinct keys, so the bounds fall on runs of duplicates
+                applyRandomOperation(list, model, random, 30, 0.7);
+            }
+            for (int index = 0; index < heads.size(); index++) {
+                int bound = index / 2 - 1;
+                boolean inclusive = index % 2 != 0;
+                assertView(model.subList(0, inclusive ? upperBound(model, bound) : lowerBound(model, bound)),
+                    heads.get(index), "headList " + bound + " " + inclusive);
+                assertView(model.subList(inclusive ? lowerBound(model, bound) : upperBound(model, bound), model.size()),
+                    tails.get(index), "tailList " + bound + " " + inclusive);
+            }
+            int from = random.nextInt(32) - 1;
+            int to = from + random.nextInt(32 - from);
+            boolean fromInclusive = random.nextBoolean();
+            boolean toInclusive = random.nextBoolean();
+            int start = fromInclusive ? lowerBound(model, from) : upperBound(model, from);
+            int end = toInclusive ? upperBound(model, to) : lowerBound(model, to);
+            assertView(model.subList(start, Math.max(start, end)), list.range(from, fromInclusive, to, toInclusive),
+                "range %s %s %s %s".formatted(from, fromInclusive, to, toInclusive));
+        }
+    }
+
+    @Test
+    public void testNodeEqualityConsistentWithListEquality() {
+        Random random = new Random(18);
+        for (int i = 0; i < 500; i++) {
+            // Few choices of contents and tower heights, so many pairs are equal
+            SkipList<Integer> list = randomList(random.nextInt(3), random.nextInt(2));
+            SkipList<Integer> other = randomList(random.nextInt(3), random.nextInt(2));
+            boolean equal = list.equals(other);
+            // The elements are distinct, so the lowest levels and their towers determine the lists
+            assertEquals(equal, lowestSentinel(list).equals(lowestSentinel(other)));
+            if (equal) {
+                assertEquals(list.hashCode(), other.hashCode());
+                assertEquals(list.head, other.head);
+                assertEquals(list.head.hashCode(), other.head.hashCode());
+                assertEquals(lowestSentinel(list).hashCode(), lowestSentinel(other).hashCode());
+            }
+        }
+
+        // Long levels are compared in linear time
+        List<Integer> elements = new ArrayList<>();
+        for (int i = 0; i < 200_000; i++) {
+            elements.add(i);
+        }
+        SkipList<Integer> list = SkipList.fromSorted(elements, Comparator.naturalOrder(), 1);
+        SkipList<Integer> other = SkipList.fromSorted(elements, Comparator.naturalOrder(), 1);
+        assertEquals(list.head, other.head);
+        assertEquals(list.head.hashCode(), other.head.hashCode());
+        other.removeAt(elements.size() - 1);
+        assertNotEquals(list.head, other.head);
+    }
+
+    @Test
+    public void testNodeEqualityIsStructural() {
+        SkipList<Integer> list = SkipList.fromSorted(List.of(1, 2, 2, 3), Comparator.naturalOrder(), 1);
+        SkipList<Integer> copy = SkipList.fromSorted(List.of(1, 2, 2, 3), Comparator.naturalOrder(), 1);
+        ListItem<ExpressNode<Integer>> first = lowestSentinel(list).next.next;
+        ListItem<ExpressNode<Integer>> second = first.next;
+        // Equal values and tower heights at different positions
+        assertNotEquals(first.key, second.key);
+        assertEquals(first.key, lowestSentinel(copy).next.next.key);
+        assertNotEquals(first.key, lowestSentinel(copy).next.next.next.key);
+        // Equal values at the same position of unrelated lists
+        SkipList<Integer> shorter = SkipList.fromSorted(List.of(1, 2, 3), Comparator.naturalOrder(), 1);
+        assertNotEquals(first.key, lowestSentinel(shorter).next.next.key);
+        assertNotEquals(list, shorter);
+
+        // Nodes at the end of long levels are compared in linear time without overflowing the stack
+        List<Integer> elements = new ArrayList<>();
+        for (int i = 0; i < 200_000; i++) {
+            elements.add(i);
+        }
+        ListItem<ExpressNode<Integer>> last = lastItem(SkipList.fromSorted(elements, Comparator.naturalOrder(), 1));
+        assertEquals(last.key, lastItem(SkipList.fromSorted(elements, Comparator.naturalOrder(), 1)).key);
+        elements.set(0, -1);
+        assertNotEquals(last.key, lastItem(SkipList.fromSorted(elements, Comparator.naturalOrder(), 1)).key);
+    }
+
+    @Test
+    public void testHashOfAttachedLevels() {
+        Random random = new Random(19);
+        SkipList<Integer> list = new SkipList<>(Comparator.naturalOrder(), 6, new Random(19)::nextBoolean);
+        for (int i = 0; i < 200; i++) {
+            list.add(random.nextInt(50));
+        }
+        SkipList<Integer> linked = attachCopy(list);
+        assertEquals(list, linked);
+        assertEquals(list.hashCode(), linked.hashCode());
+        assertEquals(list.contentHash(), linked.contentHash());
+
+        // The hash is maintained from the attached levels on
+        linked = attachCopy(list);
+        linked.setContentHashing(ContentHashing.ORDERED);
+        list.setContentHashing(ContentHashing.ORDERED);
+        for (int i = 0; i < 500; i++) {
+            int key = random.nextInt(50);
+            if (random.nextBoolean()) {
+                list.add(key);
+                linked.add(key);
+            } else {
+                list.remove(key);
+                linked.remove(key);
+            }
+            assertEquals(list.contentHash(), linked.contentHash());
+        }
+    }
+
+    @Test
+    public void testSnapshotRoundTrip() throws IOException {
+        Random random = new Random(21);
+        SkipList<Integer> list = new SkipList<>(Comparator.naturalOrder(), 12, new GeometricLevelGenerator(0.5));
+        for (int i = 0; i < 5_000; i++) {
+            list.add(random.nextInt(2_000) - 1_000);
+        }
+        byte[] snapshot = snapshot(list);
+
+        SkipList<Integer> restored = SkipList.readSnapshot(new DataInputStream(new ByteArrayInputStream(snapshot)),
+            Comparator.naturalOrder(), KeyCodec.ints());
+        assertRestored(list, restored);
+        // Without a generator, new elements stay on the lowest level
+        int upperNodes = upperNodes(restored);
+        for (int i = 0; i < 2_000; i++) {
+            restored.add(random.nextInt(2_000) - 1_000);
+        }
+        assertEquals(upperNodes, upperNodes(restored));
+
+        SkipList<Integer> growing = SkipList.readSnapshot(Channels.newChannel(new ByteArrayInputStream(snapshot)),
+            Comparator.naturalOrder(), KeyCodec.ints(), new GeometricLevelGenerator(0.5));
+        assertRestored(list, growing);
+        for (int i = 0; i < 2_000; i++) {
+            growing.add(random.nextInt(2_000) - 1_000);
+        }
+        assertTrue(upperNodes(growing) > upperNodes, "new elements are added to upper levels");
+
+        SkipList<Integer> adaptive = SkipList.adaptive(Comparator.naturalOrder(), 0.25);
+        for (int i = 0; i < 3_000; i++) {
+            adaptive.add(random.nextInt());
+        }
+        SkipList<Integer> restoredAdaptive = SkipList.readSnapshot(
+            new DataInputStream(new ByteArrayInputStream(snapshot(adaptive))), Comparator.naturalOrder(),
+            KeyCodec.ints());
+        assertRestored(adaptive, restoredAdaptive);
+        assertTrue(restoredAdaptive.isAdaptive());
+
+        SkipList<Integer> empty = new SkipList<>(Comparator.naturalOrder(), 4);
+        assertRestored(empty, SkipList.readSnapshot(new DataInputStream(new ByteArrayInputStream(snapshot(empty))),
+            Comparator.naturalOrder(), KeyCodec.ints()));
+    }
+
+    @Test
+    public void testSnapshotRoundTripAfterTopLevelsEmptied() throws IOException {
+        SkipList<Integer> list = new SkipList<>(Comparator.naturalOrder(), 12, new Random(21)::nextBoolean);
+        for (int i = 0; i < 500; i++) {
+            list.add(i);
+        }
+        // Remove the elements of the highest level until only the lowest level is left
+        while (list.getHeight() > 1) {
+            int height = list.getHeight();
+            while (list.getHeight() == height) {
+                assertTrue(list.head.next != null);
+                list.remove(list.head.next.key.value);
+            }
+            assertNull(list.head.key.up);
+            assertRestored(list, SkipList.readSnapshot(new DataInputStream(new ByteArrayInputStream(snapshot(list))),
+                Comparator.naturalOrder(), KeyCodec.ints()));
+        }
+    }
+
+    @Test
+    public void testPositionalAccessAgainstModel() {
+        Random random = new Random(10);
+        SkipList<Integer> list = new SkipList<>(Comparator.naturalOrder(), 8, new Random(2)::nextBoolean);
+        List<Integer> model = new ArrayList<>();
+        for (int i = 0; i < 10_000; i++) {
+            // Few distinct keys, so there are many duplicates
+            applyRandomOperation(list, model, random, 100, 0.5);
+            assertPositions(list, model, random);
+        }
+    }
+
+    @Test
+    public void testPositionalAccessOfAttachedLevels() {
+        Random random = new Random(10);
+        SkipList<Integer> list = new SkipList<>(Comparator.naturalOrder(), 6, new Random(10)::nextBoolean);
+        List<Integer> model = new ArrayList<>();
+        while (model.size() < 300) {
+            applyRandomOperation(list, model, random, 100, 0.8);
+        }
+        SkipList<Integer> linked = attachCopy(list);
+        assertEquals(model.get(150), linked.get(150));
+        linked = attachCopy(list);
+        assertEquals(Math.max(0, lowerBound(model, 60) - upperBound(model, 40)),
+            linked.range(40, false, 60, false).size());
+        linked = attachCopy(list);
+        for (int i = 0; i < 1_000; i++) {
+            applyRandomOperation(linked, model, random, 100, 0.5);
+            assertPositions(linked, model, random);
+        }
+    }
+
+    @Test
+    public void testPositionalAccessOfAdaptiveList() {
+        Random random = new Random(17);
+        SkipList<Integer> list = SkipList.adaptive(Comparator.naturalOrder(), 0.5);
+        List<Integer> model = new ArrayList<>();
+        int lowestHeight = Integer.MAX_VALUE;
+        int highestHeight = 0;
+        // Grow and shrink the list repeatedly, so levels are promoted and removed
+        for (int round = 0; round < 3; round++) {
+            while (model.size() < 1_500) {
+                applyRandomOperation(list, model, random, 400, 0.8);
+                assertPositions(list, model, random);
+                highestHeight = Math.max(highestHeight, list.getHeight());
+            }
+            while (!model.isEmpty()) {
+                applyRandomOperation(list, model, random, 400, 0.2);
+                assertPositions(list, model, random);
+                if (model.size() == 1) {
+                    lowestHeight = Math.min(lowestHeight, list.getHeight());
+                }
+            }
+        }
+        assertTrue(highestHeight >= 10, "height of the large list: " + highestHeight);
+        // The height may exceed the height cap of a single element by one level
+        assertTrue(lowestHeight <= 2, "height of a single element: " + lowestHeight);
+    }
+
+    @Test
+    public void testFingerOnAdaptiveListAgainstModel() {
+        for (int seed = 0; seed < 50; seed++) {
+            Random random = new Random(seed);
+            SkipList<Integer> list = SkipList.adaptive(Comparator.naturalOrder(), 0.5);
+            SkipList<Integer>.Finger finger = list.finger();
+            List<Integer> model = new ArrayList<>();
+            // Grow and shrink the list through the finger only, so levels are promoted and removed under the path
+            for (int round = 0; round < 2; round++) {
+                while (model.size() < 200) {
+                    applyRandomFingerOperation(finger, model, random, 0.7);
+                    assertPositions(list, model, random);
+                }
+                while (!model.isEmpty()) {
+                    applyRandomFingerOperation(finger, model, random, 0.3);
+                    assertPositions(list, model, random);
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testAdaptiveListUnderMixedOperations() {
+        for (int seed = 0; seed < 20; seed++) {
+            Random random = new Random(seed);
+            SkipList<Integer> list = SkipList.adaptive(Comparator.naturalOrder(), 0.5);
+            // An outstanding finger which has to follow the levels changed by all other operations
+            SkipList<Integer>.Finger finger = list.finger();
+            List<Integer> model = new ArrayList<>();
+            for (int round = 0; round < 2; round++) {
+                while (model.size() < 300) {
+                    applyRandomMixedOperation(list, finger, model, random, 0.7);
+                    assertPositions(list, model, random);
+                    assertLinks(list);
+                }
+                while (!model.isEmpty()) {
+                    applyRandomMixedOperation(list, finger, model, random, 0.2);
+                    assertPositions(list, model, random);
+                    assertLinks(list);
+                }
+            }
+        }
+    }
+
+    /**
+     * Returns the ids of the elements of the form {@code {key, id}} in the order of the list.
+     *
+     * @param list the list
+     *
+     * @return the ids of the elements of the list
+     */
+    private static List<Integer> ids(SkipList<int[]> list) {
+        List<Integer> ids = new ArrayList<>();
+        list.forEach(element -> ids.add(element[1]));
+        return ids;
+    }
+
+    /**
+     * Asserts that the elements are in ascending order.
+     *
+     * @param elements the elements
+     */
+    private static void assertSorted(List<Integer> elements) {
+        for (int i = 1; i < elements.size(); i++) {
+            assertTrue(elements.get(i - 1) <= elements.get(i), "unordered elements " + elements);
+        }
+    }
+
+    /**
+     * Returns the levels of the list from the highest to the lowest level with all of their elements, as
+     * {@code toString} has written them before the levels were streamed.
+     *
+     * @param list the list
+     *
+     * @return the string representation of the levels
+     */
+    private static String levels(SkipList<Integer> list) {
+        List<List<Integer>> levels = new ArrayList<>();
+        for (ListItem<ExpressNode<Integer>> sentinel = list.head; sentinel != null; sentinel = sentinel.key.down) {
+            List<Integer> level = new ArrayList<>();
+            for (ListItem<ExpressNode<Integer>> node = sentinel.next; node != null; node = node.next) {
+                level.add(node.key.value);
+            }
+            levels.add(level);
+        }
+        return levels.toString();
+    }
+
+    /**
+     * Returns the levels of the list as written with the specified options.
+     *
+     * @param list    the list
+     * @param options the options controlling how many elements are written
+     *
+     * @return the written levels
+     *
+     * @throws IOException if the levels cannot be written
+     */
+    private static String write(SkipList<Integer> list, SkipList.WriteOptions options) throws IOException {
+        StringBuilder out = new StringBuilder();
+        list.writeTo(out, options);
+        return out.toString();
+    }
+
+    /**
+     * Asserts that the view iterates the elements of the model sublist and agrees with it on its size, emptiness and
+     * the presence of the keys around its elements.
+     *
+     * @param expected the elements the view should contain
+     * @param view     the view to test
+     * @param message  the description of the view
+     */
+    private static void assertView(List<Integer> expected, SkipList<Integer>.Range view, String message) {
+        assertEquals(expected, new ArrayList<>(view), message);
+        assertEquals(expected.size(), view.size(), message);
+        assertEquals(expected.isEmpty(), view.isEmpty(), message);
+        for (int key = -1; key <= 31; key++) {
+            assertEquals(expected.contains(key), view.contains(key), message + " contains " + key);
+        }
+    }
+
+    /**
+     * Returns the snapshot of the list.
+     *
+     * @param list the list
+     *
+     * @return the bytes of the snapshot
+     *
+     * @throws IOException if the snapshot cannot be written
+     */
+    private static byte[] snapshot(SkipList<Integer> list) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        list.writeSnapshot(new DataOutputStream(bytes), KeyCodec.ints());
+        return bytes.toByteArray();
+    }
+
+    /**
+     * Asserts that the restored list has the same levels, towers and content hash as the original list.
+     *
+     * @param list     the original list
+     * @param restored the restored list
+     */
+    private static void assertRestored(SkipList<Integer> list, SkipList<Integer> restored) {
+        assertEquals(list, restored);
+        assertEquals(list.toString(), restored.toString());
+        assertEquals(list.size(), restored.size());
+        assertEquals(list.getHeight(), restored.getHeight());
+        assertEquals(list.contentHash(), restored.contentHash());
+        if (!list.isEmpty()) {
+            assertEquals(lowestSentinel(list), lowestSentinel(restored));
+        }
+    }
+
+    /**
+     * Returns the number of nodes of the list above the lowest level, excluding the sentinel nodes.
+     *
+     * @param list the list
+     *
+     * @return the number of nodes above the lowest level
+     */
+    private static int upperNodes(SkipList<Integer> list) {
+        int count = 0;
+        for (ListItem<ExpressNode<Integer>> sentinel = list.head; sentinel != null && sentinel.key.down != null;
+             sentinel = sentinel.key.down) {
+            for (ListItem<ExpressNode<Integer>> node = sentinel.next; node != null; node = node.next) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Returns a copy of the list whose levels are linked without spans outside of the copy and published through
+     * {@link SkipList#attach(ListItem)}, like the converters of the graders do.
+     *
+     * @param list the list to copy
+     *
+     * @return the copy of the list
+     */
+    private static SkipList<Integer> attachCopy(SkipList<Integer> list) {
+        Map<ListItem<ExpressNode<Integer>>, ListItem<ExpressNode<Integer>>> copies = new IdentityHashMap<>();
+        ListItem<ExpressNode<Integer>> head = null;
+        ListItem<ExpressNode<Integer>> upperSentinel = null;
+        for (ListItem<ExpressNode<Integer>> sentinel = list.head; sentinel != null; sentinel = sentinel.key.down) {
+            ListItem<ExpressNode<Integer>> tail = null;
+            for (ListItem<ExpressNode<Integer>> node = sentinel; node != null; node = node.next) {
+                ListItem<ExpressNode<Integer>> copy = new ListItem<>();
+                copy.key = new ExpressNode<>();
+                copy.key.value = node.key.value;
+                copy.key.prev = tail;
+                if (tail != null) {
+                    tail.next = copy;
+                }
+                copy.key.up = node == sentinel ? upperSentinel : copies.get(node.key.up);
+                if (copy.key.up != null) {
+                    copy.key.up.key.down = copy;
+                }
+                copies.put(node, copy);
+                tail = copy;
+            }
+            upperSentinel = copies.get(sentinel);
+            if (head == null) {
+                head = upperSentinel;
+            }
+        }
+        SkipList<Integer> copy = new SkipList<>(Comparator.naturalOrder(), list.maxHeight);
+        copy.attach(head);
+        return copy;
+    }
+
+    /**
+     * Returns a list of distinct elements built from one of a few sets of elements and sequences of tower heights.
+     *
+     * @param contents the seed of the elements
+     * @param towers   the seed of the tower heights
+     *
+     * @return the list
+     */
+    private static SkipList<Integer> randomList(int contents, int towers) {
+        Random random = new Random(contents);
+        List<Integer> elements = new ArrayList<>();
+        for (int element = 0; element < 200; element++) {
+            if (random.nextInt(4) != 0) {
+                elements.add(element);
+            }
+        }
+        return SkipList.fromSorted(elements, Comparator.naturalOrder(), 6, new Random(towers)::nextBoolean);
+    }
+
+    /**
+     * Returns the sentinel node of the lowest level of the list.
+     *
+     * @param list the list
+     *
+     * @return the sentinel node of the lowest level
+     */
+    private static ListItem<ExpressNode<Integer>> lowestSentinel(SkipList<Integer> list) {
+        ListItem<ExpressNode<Integer>> sentinel = list.head;
+        while (sentinel.key.down != null) {
+            sentinel = sentinel.key.down;
+        }
+        return sentinel;
+    }
+
+    /**
+     * Returns the last item of the lowest level of the list.
+     *
+     * @param list the list
+     *
+     * @return the last item of the lowest level
+     */
+    private static ListItem<ExpressNode<Integer>> lastItem(SkipList<Integer> list) {
+        ListItem<ExpressNode<Integer>> item = lowestSentinel(list);
+        while (item.next != null) {
+            item = item.next;
+        }
+        return item;
+    }
+
+    /**
+     * Applies a random addition, removal by element or removal by index to the list and the sorted model.
+     *
+     * @param list        the list to modify
+     * @param model       the elements of the list in ascending order
+     * @param random      the source of randomness
+     * @param keys        the number of distinct elements
+     * @param addFraction the probability of an addition
+     */
+    private static void applyRandomOperation(SkipList<Integer> list, List<Integer> model, Random random, int keys,
+                                             double addFraction) {
+        int key = random.nextInt(keys);
+        if (model.isEmpty() || random.nextDouble() < addFraction) {
+            // New elements are inserted after all equal elements
+            model.add(upperBound(model, key), key);
+            list.add(key);
+        } else if (random.nextBoolean()) {
+            int index = lowerBound(model, key);
+            if (index < model.size() && model.get(index) == key) {
+                model.remove(index);
+            }
+            list.remove(key);
+        } else {
+            int index = random.nextInt(model.size());
+            assertEquals(model.remove(index), list.removeAt(index));
+        }
+    }
+
+    /**
+     * Applies a random addition or removal through the finger to its list and the sorted model.
+     *
+     * @param finger      the finger of the list to modify
+     * @param model       the elements of the list in ascending order
+     * @param random      the source of randomness
+     * @param addFraction the probability of an addition
+     */
+    private static void applyRandomFingerOperation(SkipList<Integer>.Finger finger, List<Integer> model,
+                                                   Random random, double addFraction) {
+        int key = random.nextInt(100);
+        if (model.isEmpty() || random.nextDouble() < addFraction) {
+            model.add(upperBound(model, key), key);
+            finger.add(key);
+        } else {
+            // Mostly remove present elements, so the list shrinks
+            if (random.nextInt(4) != 0) {
+                key = model.get(random.nextInt(model.size()));
+            }
+            int index = lowerBound(model, key);
+            if (index < model.size() && model.get(index) == key) {
+                model.remove(index);
+            }
+            finger.remove(key);
+        }
+        assertEquals(lowerBound(model, key) < model.size() && model.get(lowerBound(model, key)) == key,
+            finger.contains(key), "contains " + key);
+    }
+
+    /**
+     * Applies a random addition or removal to the list and the sorted model, either directly, as a batch through
+     * {@link SkipList#addAll(java.util.Collection)} or through the finger.
+     *
+     * @param list        the list to modify
+     * @param finger      a finger of the list
+     * @param model       the elements of the list in ascending order
+     * @param random      the source of randomness
+     * @param addFraction the probability of an addition
+     */
+    private static void applyRandomMixedOperation(SkipList<Integer> list, SkipList<Integer>.Finger finger,
+                                                  List<Integer> model, Random random, double addFraction) {
+        int operation = random.nextInt(3);
+        if (operation == 0) {
+            applyRandomOperation(list, model, random, 200, addFraction);
+        } else if (operation == 1) {
+            applyRandomFingerOperation(finger, model, random, addFraction);
+        } else if (random.nextDouble() < addFraction) {
+            List<Integer> batch = new ArrayList<>();
+            for (int i = random.nextInt(10); i >= 0; i--) {
+                batch.add(random.nextInt(200));
+            }
+            for (int key : batch) {
+                model.add(upperBound(model, key), key);
+            }
+            list.addAll(batch);
+        } else {
+            applyRandomFingerOperation(finger, model, random, 0);
+        }
+    }
+
+    /**
+     * Asserts that the nodes of the list are linked consistently: each node is the successor of its predecessor, each
+     * node above the lowest level is the upper node of its lower node with the same element, each upper node links
+     * back to its lower node, and the sentinel nodes form the highest level without anything above it.
+     *
+     * @param list the list to test
+     */
+    private static void assertLinks(SkipList<Integer> list) {
+        if (list.head == null) {
+            assertEquals(0, list.getHeight());
+            return;
+        }
+        assertNull(list.head.key.up, "up of the head");
+        for (ListItem<ExpressNode<Integer>> sentinel = list.head; sentinel != null; sentinel = sentinel.key.down) {
+            assertNull(sentinel.key.prev, "prev of a sentinel");
+            assertNull(sentinel.key.value, "element of a sentinel");
+            ListItem<ExpressNode<Integer>> previous = null;
+            for (ListItem<ExpressNode<Integer>> node = sentinel; node != null; node = node.next) {
+                assertSame(previous, node.key.prev, "prev of " + node.key.value);
+                ListItem<ExpressNode<Integer>> down = node.key.down;
+                if (sentinel.key.down == null) {
+                    assertNull(down, "down of " + node.key.value + " on the lowest level");
+                } else {
+                    assertTrue(down != null, "down of " + node.key.value);
+                    assertSame(node, down.key.up, "up of the node below " + node.key.value);
+                    assertSame(node.key.value, down.key.value, "element below " + node.key.value);
+                }
+                if (node.key.up != null) {
+                    assertSame(node, node.key.up.key.down, "down of the node above " + node.key.value);
+                }
+                previous = node;
+            }
+        }
+    }
+
+    /**
+     * Asserts that the positional access of the list agrees with the sorted model and that the spans of all nodes
+     * are the distances between the positions of consecutive nodes of their levels.
+     *
+     * @param list   the list to test
+     * @param model  the elements of the list in ascending order
+     * @param random the source of randomness
+     */
+    private static void assertPositions(SkipList<Integer> list, List<Integer> model, Random random) {
+        assertEquals(model.size(), list.size());
+        if (!model.isEmpty()) {
+            int index = random.nextInt(model.size());
+            assertEquals(model.get(index), list.get(index), "get " + index);
+        }
+        int key = random.nextInt(model.isEmpty() ? 1 : model.get(model.size() - 1) + 2) - 1;
+        int rank = lowerBound(model, key);
+        assertEquals(rank, list.rank(key), "rank " + key);
+        assertEquals(rank < model.size() && model.get(rank) == key ? rank : -1, list.indexOf(key), "indexOf " + key);
+
+        List<ListItem<ExpressNode<Integer>>> sentinels = new ArrayList<>();
+        for (ListItem<ExpressNode<Integer>> sentinel = list.head; sentinel != null; sentinel = sentinel.key.down) {
+            sentinels.add(sentinel);
+        }
+        assertEquals(list.getHeight(), sentinels.size(), "number of levels");
+        Collections.reverse(sentinels);
+        // Positions of the nodes on the lowest level, the nodes above take the position of the node below
+        Map<ListItem<ExpressNode<Integer>>, Integer> positions = new IdentityHashMap<>();
+        for (ListItem<ExpressNode<Integer>> sentinel : sentinels) {
+            int level = positions.isEmpty() ? 0 : 1;
+            int position = 0;
+            for (ListItem<ExpressNode<Integer>> node = sentinel; node != null; node = node.next) {
+                if (level == 0 && node != sentinel) {
+                    position++;
+                    assertEquals(model.get(position - 1), node.key.value, "element at " + (position - 1));
+                } else if (node != sentinel) {
+                    position = positions.get(node.key.down);
+                }
+                positions.put(node, position);
+            }
+            if (level == 0) {
+                assertEquals(model.size(), position, "length of the lowest level");
+            }
+        }
+        for (ListItem<ExpressNode<Integer>> sentinel : sentinels) {
+            for (ListItem<ExpressNode<Integer>> node = sentinel; node != null; node = node.next) {
+                int next = node.next == null ? model.size() + 1 : positions.get(node.next);
+                assertEquals(next - positions.get(node), node.key.span, "span of the node at " + positions.get(node));
+            }
+        }
+    }
+
+    /**
+     * Returns the index of the first element of the sorted model which is greater than or equal to the key.
+     *
+     * @param model the elements in ascending order
+     * @param key   the key
+     *
+     * @return the index of the first element which is greater than or equal to the key
+     */
+    private static int lowerBound(List<Integer> model, int key) {
+        int index = Collections.binarySearch(model, key, (a, b) -> a < b ? -1 : 1);
+        return -index - 1;
+    }
+
+    /**
+     * Returns the index of the first element of the sorted model which is greater than the key.
+     *
+     * @param model the elements in ascending order
+     * @param key   the key
+     *
+     * @return the index of the first element which is greater than the key
+     */
+    private static int upperBound(List<Integer> model, int key) {
+        int index = Collections.binarySearch(model, key, (a, b) -> a <= b ? -1 : 1);
+        return -index - 1;
+    }
+
+}
@@ -0,0 +1,17 @@
+package h10;
+
+import java.util.Comparator;
+
+/**
+ * Tests {@link TowerSkipList} against a sorted list with duplicates.
+ */
+public class TowerSkipListTest extends SequentialSkipListTest {
+
+    @Override
+    protected Operations newList(Probability probability) {
+        TowerSkipList<Integer> list = new TowerSkipList<>(Comparator.naturalOrder(), MAX_HEIGHT, probability);
+        return new Operations(list::add, list::remove, list::contains, list::size, list::isEmpty, list::getHeight,
+            list::toString);
+    }
+
+}